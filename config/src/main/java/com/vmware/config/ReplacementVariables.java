@@ -151,6 +151,7 @@ public class ReplacementVariables {
 
     public enum VariableName {
         LAST_DOWNLOADED_FILE_NAME,
+        LAST_DOWNLOADED_FILE_PATH,
         REPO_DIR,
         HOME_DIR,
         BRANCH_NAME,
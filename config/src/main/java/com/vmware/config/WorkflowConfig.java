@@ -166,6 +166,9 @@ public class WorkflowConfig {
     @ConfigurableProperty(commandLine = "-cp,--check-point", help = "Check after every workflow action whether to continue")
     public boolean checkPoint;
 
+    @ConfigurableProperty(commandLine = "--parallel-actions", help = "Run workflow actions that don't depend on each other in parallel, ignored if check point is set")
+    public boolean parallelActions;
+
     @ConfigurableProperty(commandLine = "-sp,--specific-properties", help = "Show value for just the specified config properties")
     public String configPropertiesToDisplay;
 
@@ -211,6 +214,27 @@ public class WorkflowConfig {
     @ConfigurableProperty(commandLine = "--disable-hostname-verification", help = "Disable checking the hostname for ssl uri addresses")
     public boolean disableHostnameVerification;
 
+    @ConfigurableProperty(commandLine = "--http-metrics", help = "Display request counts and latencies per http endpoint after the workflow has run")
+    public boolean httpMetrics;
+
+    @ConfigurableProperty(commandLine = "--http-metrics-file", help = "File to write http request metrics to as json")
+    public String httpMetricsFile;
+
+    @ConfigurableProperty(commandLine = "--http-cache", help = "Cache responses for api requests that rarely change on disk")
+    public boolean httpCache;
+
+    @ConfigurableProperty(commandLine = "--http-cache-max-size", help = "Max size in megabytes of the http response cache")
+    public int httpCacheMaxSize;
+
+    @ConfigurableProperty(commandLine = "--disable-http-compression-for", help = "Services that should not request compressed http responses, e.g. jenkins,jira")
+    public String[] disableHttpCompressionFor;
+
+    @ConfigurableProperty(commandLine = "--compress-http-requests-for", help = "Services that large request bodies should be compressed for, the server must accept compressed requests")
+    public String[] compressHttpRequestsFor;
+
+    @ConfigurableProperty(help = "Seconds that a cached http response is used without revalidating it, per service e.g. jenkins, reviewBoard")
+    public Map<String, Integer> httpCacheTimeToLive = new HashMap<>();
+
     @ConfigurableProperty(commandLine = QUERY_STRING_COMMAND_LINE, help = "Runtime arguments in HTML query string format")
     public String queryString;
 
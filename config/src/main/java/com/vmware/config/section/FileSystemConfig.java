@@ -65,6 +65,12 @@ public class FileSystemConfig {
     @ConfigurableProperty(commandLine = "--database-size-query", help = "Sql query to get size of database in bytes")
     public String databaseSizeQuery;
 
+    @ConfigurableProperty(commandLine = "--database-batch-size", help = "Number of records to send to the database in a single batch")
+    public int databaseBatchSize;
+
+    @ConfigurableProperty(commandLine = "--database-max-connections", help = "Max number of database connections to use concurrently")
+    public int databaseMaxConnections;
+
     @ConfigurableProperty(commandLine = "--input-text", help = "Text to use")
     public String inputText;
 
@@ -67,6 +67,9 @@ public class JenkinsConfig {
     @ConfigurableProperty(commandLine = "--include-in-progress", help = "Display output for in progress builds")
     public boolean includeInProgressBuilds;
 
+    @ConfigurableProperty(commandLine = "--follow-in-progress", help = "Keep displaying new output for in progress builds until they complete")
+    public boolean followInProgressBuilds;
+
     @ConfigurableProperty(commandLine = "--vapp-json-parameter-name", help = "Name for Vapp metadata json Jenkins parameter")
     public String vappJsonParameter;
 
@@ -94,6 +97,10 @@ public class JenkinsConfig {
     @ConfigurableProperty(commandLine = "--always-download", help = "Always select a build to download artifiact from")
     public boolean alwaysDownload;
 
+    @ConfigurableProperty(commandLine = "--stream-artifact-to-file", help = "Stream artifact directly to a file instead of loading it as file data. "
+            + "Saved to destination file if set, otherwise to the current directory")
+    public boolean streamArtifactToFile;
+
     @ConfigurableProperty(help = "Pattern for parsing commit id from build description")
     public String commitIdInDescriptionPattern;
 
@@ -112,6 +119,10 @@ public class JenkinsConfig {
     @ConfigurableProperty(commandLine = "--refetch-count", help = "Refetch test results for latest number of builds from Jenkins. E.g. a value of 1 means refetch the latest build per job")
     public int refetchCount;
 
+    @ConfigurableProperty(commandLine = "--incremental-sync", help = "Only fetch builds newer than the latest build saved in the test results database for each job. "
+            + "Refetched builds are skipped if their test result artifacts are unchanged")
+    public boolean incrementalSync;
+
     @ConfigurableProperty(commandLine = "--test-name", help = "Test name to search for in test database")
     public String testName;
 
@@ -32,6 +32,12 @@ public class SshConfig {
     @ConfigurableProperty(commandLine = "--ssh-command", help = "Ssh command to execute")
     public String sshCommand;
 
+    @ConfigurableProperty(commandLine = "--all-site-vms", help = "Execute the ssh command in parallel against all VMs of the selected vcd site, output lines are prefixed by host")
+    public boolean sshAllSiteVms;
+
+    @ConfigurableProperty(commandLine = "--ssh-output-filter", help = "Regular expression for filtering ssh command output locally, only matching lines are output")
+    public String sshOutputFilter;
+
     @ConfigurableProperty(commandLine = "--ssh-strict-host-checking", help = "Whether to enforce strict host checking for ssh")
     public boolean sshStrictHostChecking;
 
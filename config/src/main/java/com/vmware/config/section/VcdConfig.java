@@ -80,6 +80,22 @@ public class VcdConfig {
     @ConfigurableProperty(commandLine = "--disable-vcd-refresh", help = "Disable use of vcd refresh token")
     public boolean disableVcdRefreshToken;
 
+    @ConfigurableProperty(commandLine = "--request-concurrency", help = "Number of vcd api requests to execute concurrently")
+    public int requestConcurrency;
+
+    @ConfigurableProperty(commandLine = "--request-rate", help = "Number of vcd api requests to start per second regardless of how long requests take")
+    public int requestsPerSecond;
+
+    @ConfigurableProperty(commandLine = "--warm-up-seconds", help = "Seconds to execute vcd api requests for before recording latencies")
+    public int warmUpSeconds;
+
+    @ConfigurableProperty(commandLine = "--load-duration", help = "Seconds to execute vcd api requests for after warm up, repeat count is used if not set")
+    public int loadDurationSeconds;
+
+    public boolean usesLoadGeneration() {
+        return requestConcurrency > 1 || requestsPerSecond > 0 || warmUpSeconds > 0 || loadDurationSeconds > 0;
+    }
+
     public String[] queryFilters() {
         if (StringUtils.isEmpty(queryFilter)) {
             return new String[0];
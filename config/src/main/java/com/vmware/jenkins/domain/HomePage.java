@@ -16,6 +16,7 @@ import static com.vmware.util.StringUtils.pluralize;
 
 public class HomePage {
 
+    @JenkinsTree("name,url")
     public Job[] jobs;
 
     public View[] views;
@@ -0,0 +1,17 @@
+package com.vmware.jenkins.domain;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Overrides the tree query used for a nested field when a tree query is created by {@link JenkinsTreeQuery}.
+ * Useful for large lists where only a few properties are needed.
+ */
+@Target(FIELD)
+@Retention(RUNTIME)
+public @interface JenkinsTree {
+    String value();
+}
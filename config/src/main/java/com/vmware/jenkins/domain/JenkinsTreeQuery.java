@@ -0,0 +1,99 @@
+package com.vmware.jenkins.domain;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates the value for the Jenkins api tree parameter from the fields of a domain class.
+ * Jenkins then only returns the properties that will be deserialized instead of the full json.
+ */
+public final class JenkinsTreeQuery {
+
+    private static final Map<String, String> TREE_QUERIES = new ConcurrentHashMap<>();
+
+    private JenkinsTreeQuery() {
+    }
+
+    /**
+     * @param depth number of levels of nested objects to include, a depth of 1 only includes simple properties of the class
+     */
+    public static String forClass(Class<?> clazz, int depth) {
+        return TREE_QUERIES.computeIfAbsent(clazz.getName() + ":" + depth, key -> createTree(clazz, depth, new HashSet<>()));
+    }
+
+    private static String createTree(Class<?> clazz, int depth, Set<Class<?>> classesInPath) {
+        classesInPath.add(clazz);
+        List<String> properties = new ArrayList<>();
+        for (Class<?> classToCheck = clazz; classToCheck != null && classToCheck != Object.class; classToCheck = classToCheck.getSuperclass()) {
+            for (Field field : classToCheck.getDeclaredFields()) {
+                if (!isDeserialized(field)) {
+                    continue;
+                }
+                String propertyName = field.isAnnotationPresent(SerializedName.class) ? field.getAnnotation(SerializedName.class).value() : field.getName();
+                Class<?> propertyType = propertyType(field);
+                if (propertyType == null) {
+                    continue;
+                }
+                if (isSimpleType(propertyType)) {
+                    properties.add(propertyName);
+                } else if (field.isAnnotationPresent(JenkinsTree.class)) {
+                    properties.add(propertyName + "[" + field.getAnnotation(JenkinsTree.class).value() + "]");
+                } else if (depth > 1 && !classesInPath.contains(propertyType)) {
+                    String nestedTree = createTree(propertyType, depth - 1, classesInPath);
+                    if (!nestedTree.isEmpty()) {
+                        properties.add(propertyName + "[" + nestedTree + "]");
+                    }
+                }
+            }
+        }
+        classesInPath.remove(clazz);
+        return String.join(",", properties);
+    }
+
+    private static boolean isDeserialized(Field field) {
+        if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()) || field.isSynthetic()) {
+            return false;
+        }
+        Expose expose = field.getAnnotation(Expose.class);
+        return expose == null || expose.deserialize();
+    }
+
+    /**
+     * @return type of the property or the element type for arrays and collections, null if the type cannot be used in a tree query
+     */
+    private static Class<?> propertyType(Field field) {
+        Class<?> type = field.getType();
+        if (type.isArray()) {
+            return type.getComponentType();
+        } else if (Collection.class.isAssignableFrom(type)) {
+            Type genericType = field.getGenericType();
+            if (genericType instanceof ParameterizedType) {
+                Type elementType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+                return elementType instanceof Class ? (Class<?>) elementType : null;
+            }
+            return null;
+        } else if (Map.class.isAssignableFrom(type) || Throwable.class.isAssignableFrom(type)) {
+            return null;
+        }
+        return type;
+    }
+
+    private static boolean isSimpleType(Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || Number.class.isAssignableFrom(type) || type == Boolean.class
+                || type == Character.class || CharSequence.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)
+                || type == Object.class;
+    }
+}
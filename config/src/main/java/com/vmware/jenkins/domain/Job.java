@@ -59,6 +59,7 @@ public class Job extends BaseDbClass {
     public PropertyDefinition[] properties;
 
     @DbSaveIgnore
+    @JenkinsTree("number,url")
     public JobBuild[] builds;
 
     @DbSaveIgnore
@@ -70,9 +71,11 @@ public class Job extends BaseDbClass {
     private List<JobBuild> savedBuilds;
 
     @DbSaveIgnore
+    @Expose(serialize = false, deserialize = false)
     public List<TestResults> fetchedResults;
 
     @DbSaveIgnore
+    @Expose(serialize = false, deserialize = false)
     public List<TestResult> testResults;
 
     @DbSaveIgnore
@@ -184,6 +187,23 @@ public class Job extends BaseDbClass {
         }
     }
 
+    /**
+     * @return latest saved build, used as the high water mark when only fetching newer builds. Null if no builds are saved
+     */
+    public JobBuild lastSyncedBuild() {
+        if (CollectionUtils.isEmpty(savedBuilds)) {
+            return null;
+        }
+        return savedBuilds.stream().filter(build -> build.status != BuildStatus.MARKED_FOR_DELETION).findFirst().orElse(null);
+    }
+
+    public JobBuild savedBuild(int buildNumber) {
+        if (CollectionUtils.isEmpty(savedBuilds)) {
+            return null;
+        }
+        return savedBuilds.stream().filter(build -> build.buildNumber == buildNumber).findFirst().orElse(null);
+    }
+
     public void setDbUtils(DbUtils dbUtils) {
         this.dbUtils = dbUtils;
     }
@@ -216,6 +236,11 @@ public class Job extends BaseDbClass {
         usefulBuilds.forEach(build -> {
             build.jobId = this.id;
             dbUtils.insertIfNeeded(build, "SELECT * FROM JOB_BUILD WHERE url = ?", build.url);
+            JobBuild savedBuild = savedBuild(build.buildNumber);
+            if (savedBuild != null && build.artifactsFingerprint != null && !build.artifactsFingerprint.equals(savedBuild.artifactsFingerprint)) {
+                log.debug("Updating build {} as test result artifacts have changed", build.name);
+                dbUtils.update(build);
+            }
         });
 
         savedBuilds = dbUtils.query(JobBuild.class, "SELECT * from JOB_BUILD WHERE JOB_ID = ? ORDER BY BUILD_NUMBER DESC", id);
@@ -253,21 +278,16 @@ public class Job extends BaseDbClass {
             });
         });
 
-        duplicateTestResults.stream().filter(result -> result.id != null).forEach(result -> {
-            log.info("Removing duplicate result {}", result.fullPackageAndTestName());
-            dbUtils.delete(result);
-            testResults.remove(result);
-        });
-
+        List<TestResult> resultsToDelete = duplicateTestResults.stream().filter(result -> result.id != null).collect(toList());
+        resultsToDelete.forEach(result -> log.info("Removing duplicate result {}", result.fullPackageAndTestName()));
+        testResults.removeAll(resultsToDelete);
 
-        testResults.forEach(result -> {
-            if (result.id != null) {
-                dbUtils.update(result);
-            } else {
-                dbUtils.insert(result);
-            }
+        Map<Boolean, List<TestResult>> resultsBySavedState = testResults.stream().collect(Collectors.partitioningBy(result -> result.id != null));
+        dbUtils.inTransaction(() -> {
+            dbUtils.deleteAll(resultsToDelete);
+            dbUtils.updateAll(resultsBySavedState.get(true));
+            dbUtils.insertAll(resultsBySavedState.get(false));
         });
-
     }
 
     public void loadTestResultsFromDb() {
@@ -341,30 +361,28 @@ public class Job extends BaseDbClass {
         List<JobBuild> existingJobBuildsToCheck = dbUtils.query(JobBuild.class,
                 "SELECT * FROM JOB_BUILD WHERE JOB_ID = ? AND BUILD_NUMBER < ? AND STATUS != ? ORDER BY BUILD_NUMBER ASC",
                 id, lastBuildToKeep.buildNumber, BuildStatus.MARKED_FOR_DELETION.name());
-        existingJobBuildsToCheck.forEach(build -> {
+        dbUtils.inTransaction(() -> existingJobBuildsToCheck.forEach(build -> {
             log.debug("Checking for any unimportant test results for build {}", build.name);
             Map<TestResult, TestResult.TestStatusOnBuildRemoval> testResultsWithBuildsRemoved = testResults.stream()
                     .collect(toMap(result -> result, result -> result.removeUnimportantTestResultsForBuild(build, lastBuildToKeep.buildNumber)));
-            testResultsWithBuildsRemoved.entrySet().stream().filter(entry -> UPDATEABLE == entry.getValue())
-                    .forEach(entry -> dbUtils.update(entry.getKey()));
-            List<Map.Entry<TestResult, TestResult.TestStatusOnBuildRemoval>> testResultsToRemove = testResultsWithBuildsRemoved.entrySet().stream().filter(entry -> DELETEABLE == entry.getValue()).collect(toList());
+            dbUtils.updateAll(testResultsWithBuildsRemoved.entrySet().stream().filter(entry -> UPDATEABLE == entry.getValue())
+                    .map(Map.Entry::getKey).collect(toList()));
+            List<TestResult> testResultsToRemove = testResultsWithBuildsRemoved.entrySet().stream().filter(entry -> DELETEABLE == entry.getValue())
+                    .map(Map.Entry::getKey).collect(toList());
             if (!testResultsToRemove.isEmpty()) {
                 log.info("Removing test results for build {} as it is older than build {}, keeping builds {}", build.name, lastBuildToKeep.name, buildNumbersToKeep);
             }
 
-            testResultsToRemove.forEach(entry -> {
-                TestResult testResult = entry.getKey();
-                log.info("Deleting test {} {} with id {}", testResult.classAndTestName(), testResult.status, testResult.id);
-                dbUtils.delete(testResult);
-                testResults.remove(testResult);
-            });
+            testResultsToRemove.forEach(testResult -> log.info("Deleting test {} {} with id {}", testResult.classAndTestName(), testResult.status, testResult.id));
+            dbUtils.deleteAll(testResultsToRemove);
+            testResults.removeAll(testResultsToRemove);
             if (testResults.stream().noneMatch(testResult -> testResult.containsBuildNumbers(build.buildNumber))) {
                 log.info("Marking build {} for deletion as it is older than build {}, keeping builds {}", build.name, lastBuildToKeep.name, buildNumbersToKeep);
                 build.status = BuildStatus.MARKED_FOR_DELETION;
                 dbUtils.update(build);
                 usefulBuilds.remove(build);
             }
-        });
+        }));
     }
 
     public List<TestResult> createFailingTestsList(int maxJenkinsBuildsToCheck, int numberOfFailuresNeededToBeConsistentlyFailing) {
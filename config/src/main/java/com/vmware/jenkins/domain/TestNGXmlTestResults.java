@@ -2,17 +2,12 @@ package com.vmware.jenkins.domain;
 
 import com.vmware.util.StringUtils;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import java.io.IOException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -22,103 +17,148 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.IntStream;
-
-import static java.util.stream.Collectors.toList;
 
 /**
- * Parses test results from a testng-results.xml file
+ * Parses test results from a testng-results.xml file.
+ * Uses a streaming parser so that only the test results kept are held in memory, not the whole xml document.
  */
 public class TestNGXmlTestResults extends TestResults {
     private final SimpleDateFormat DATE_FORMAT_WITH_TIME_ZONE = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss ZZZ");
 
     public TestNGXmlTestResults(JobBuild build, String text) {
         this.build = build;
-        parseTestResultsFromTestNGXmlFile(text);
+        try {
+            parseTestResultsFromTestNGXmlFile(createInputFactory().createXMLStreamReader(new StringReader(text)));
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
     }
 
-    private void parseTestResultsFromTestNGXmlFile(String text) {
-        DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+    public TestNGXmlTestResults(JobBuild build, InputStream inputStream) {
+        this.build = build;
         try {
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-            Document doc = dBuilder.parse(new InputSource(new StringReader(text)));
-            NodeList testngResultsNode = doc.getElementsByTagName("testng-results");
-            NodeList classes = doc.getElementsByTagName("class");
-            List<TestResult> results = parseResultsFromClassesTags(classes);
-            if (testngResultsNode.getLength() > 0) {
-                Node testngResults = testngResultsNode.item(0);
-                NamedNodeMap attributes = testngResults.getAttributes();
-                int total = Integer.parseInt(attributes.getNamedItem("total").getNodeValue());
-                Node ignoredNode = attributes.getNamedItem("ignored");
-                this.total = ignoredNode != null && StringUtils.isInteger(ignoredNode.getNodeValue())
-                        ? total - Integer.parseInt(ignoredNode.getNodeValue()) : total;
-                this.failCount = Integer.parseInt(attributes.getNamedItem("failed").getNodeValue());
-                this.skipCount = Integer.parseInt(attributes.getNamedItem("skipped").getNodeValue());
-            } else {
-                LoggerFactory.getLogger(this.getClass()).info("testng-results node not found, computing totals manually");
-                this.total = results.size();
-                this.skipCount = (int) results.stream().filter(result -> !Boolean.TRUE.equals(result.configMethod) && result.status == TestResult.TestStatus.SKIP).count();
-                this.failCount = (int) results.stream().filter(result -> !Boolean.TRUE.equals(result.configMethod) && result.status == TestResult.TestStatus.FAIL).count();
-            }
-
-            this.skipConfig = (int) results.stream().filter(result -> Boolean.TRUE.equals(result.configMethod) && result.status == TestResult.TestStatus.SKIP).count();
-            this.failConfig = (int) results.stream().filter(result -> Boolean.TRUE.equals(result.configMethod) && result.status == TestResult.TestStatus.FAIL).count();
-            this.loadedTestResults = results;
-        } catch (ParserConfigurationException | IOException | SAXException e) {
+            parseTestResultsFromTestNGXmlFile(createInputFactory().createXMLStreamReader(inputStream));
+        } catch (XMLStreamException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private List<TestResult> parseResultsFromClassesTags(NodeList classes) {
+    private XMLInputFactory createInputFactory() {
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return inputFactory;
+    }
+
+    private void parseTestResultsFromTestNGXmlFile(XMLStreamReader reader) throws XMLStreamException {
         List<TestResult> results = new ArrayList<>();
         Map<String, String[]> usedUrls = new HashMap<>();
-        for (int i = 0; i < classes.getLength(); i++) {
-            Node classNode = classes.item(i);
-            for (Node test : getChildNodes(classNode, "test-method")) {
-                NamedNodeMap attributes = test.getAttributes();
-                TestResult testResult = new TestResult();
-                Node isConfigAttribute = attributes.getNamedItem("is-config");
-                testResult.configMethod = isConfigAttribute != null && "true".equals(isConfigAttribute.getNodeValue());
-                String packageAndClassName = classNode.getAttributes().getNamedItem("name").getNodeValue();
-                double durationInMs = Long.parseLong(attributes.getNamedItem("duration-ms").getNodeValue());
-                testResult.duration = durationInMs > 0 ? durationInMs / 1000 : 0;
-                testResult.className = StringUtils.substringAfterLast(packageAndClassName,  ".");
-                testResult.packagePath = StringUtils.substringBefore(packageAndClassName, "." + testResult.className);
-                testResult.name = attributes.getNamedItem("name").getNodeValue();
-                testResult.status = TestResult.TestStatus.valueOf(attributes.getNamedItem("status").getNodeValue());
-                testResult.startedAt = parseStartedAtTime(attributes.getNamedItem("started-at"));
-
-                Optional<Node> paramsNode = getChildNode(test, "params");
-                if (paramsNode.isPresent()) {
-                    List<Node> paramNodes = getChildNodes(paramsNode.get(), "param");
-                    testResult.parameters = paramNodes.stream().map(node -> getChildNode(node, "value")).filter(Optional::isPresent)
-                            .map(node -> StringUtils.trim(node.get().getTextContent())).toArray(String[]::new);
+        boolean testngResultsNodeFound = false;
+        String packageAndClassName = null;
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
                 }
-
-                if (testResult.status == TestResult.TestStatus.FAIL || testResult.status == TestResult.TestStatus.SKIP) {
-                    Optional<Node> exceptionNode = getChildNode(test, "exception");
-                    exceptionNode.ifPresent(node -> testResult.exception = getChildNode(node, "full-stacktrace")
-                            .map(Node::getTextContent).map(StringUtils::trim).orElse(null));
+                switch (reader.getLocalName()) {
+                    case "testng-results":
+                        testngResultsNodeFound = true;
+                        int total = Integer.parseInt(reader.getAttributeValue(null, "total"));
+                        String ignored = reader.getAttributeValue(null, "ignored");
+                        this.total = ignored != null && StringUtils.isInteger(ignored) ? total - Integer.parseInt(ignored) : total;
+                        this.failCount = Integer.parseInt(reader.getAttributeValue(null, "failed"));
+                        this.skipCount = Integer.parseInt(reader.getAttributeValue(null, "skipped"));
+                        break;
+                    case "class":
+                        packageAndClassName = reader.getAttributeValue(null, "name");
+                        break;
+                    case "test-method":
+                        TestResult testResult = parseTestMethod(reader, packageAndClassName, usedUrls);
+                        if (testResult != null) {
+                            results.add(testResult);
+                        }
+                        break;
                 }
+            }
+        } finally {
+            reader.close();
+        }
 
-                testResult.buildNumber = build.buildNumber;
-                testResult.commitId = build.commitId;
-                testResult.setUrlForTestMethod(build.getTestReportsUIUrl(), usedUrls);
-                usedUrls.put(testResult.url, testResult.parameters);
+        if (!testngResultsNodeFound) {
+            LoggerFactory.getLogger(this.getClass()).info("testng-results node not found, computing totals manually");
+            this.total = results.size();
+            this.skipCount = (int) results.stream().filter(result -> !Boolean.TRUE.equals(result.configMethod) && result.status == TestResult.TestStatus.SKIP).count();
+            this.failCount = (int) results.stream().filter(result -> !Boolean.TRUE.equals(result.configMethod) && result.status == TestResult.TestStatus.FAIL).count();
+        }
 
-                if (Boolean.TRUE.equals(testResult.configMethod) && testResult.status == TestResult.TestStatus.PASS && durationInMs < 300) {
-                    continue; // don't store test results that pass really quickly
+        this.skipConfig = (int) results.stream().filter(result -> Boolean.TRUE.equals(result.configMethod) && result.status == TestResult.TestStatus.SKIP).count();
+        this.failConfig = (int) results.stream().filter(result -> Boolean.TRUE.equals(result.configMethod) && result.status == TestResult.TestStatus.FAIL).count();
+        this.loadedTestResults = results;
+    }
+
+    /**
+     * Reads the test-method element including its child elements.
+     * @return null if the test result is not worth keeping
+     */
+    private TestResult parseTestMethod(XMLStreamReader reader, String packageAndClassName, Map<String, String[]> usedUrls) throws XMLStreamException {
+        TestResult testResult = new TestResult();
+        testResult.configMethod = "true".equals(reader.getAttributeValue(null, "is-config"));
+        double durationInMs = Long.parseLong(reader.getAttributeValue(null, "duration-ms"));
+        testResult.duration = durationInMs > 0 ? durationInMs / 1000 : 0;
+        testResult.className = StringUtils.substringAfterLast(packageAndClassName,  ".");
+        testResult.packagePath = StringUtils.substringBefore(packageAndClassName, "." + testResult.className);
+        testResult.name = reader.getAttributeValue(null, "name");
+        testResult.status = TestResult.TestStatus.valueOf(reader.getAttributeValue(null, "status"));
+        testResult.startedAt = parseStartedAtTime(reader.getAttributeValue(null, "started-at"));
+
+        List<String> parameters = null;
+        String parentElementName = null;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                continue;
+            } else if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String elementName = reader.getLocalName();
+            if (depth == 1) {
+                parentElementName = elementName;
+            }
+            if (depth == 1 && "params".equals(elementName)) {
+                parameters = new ArrayList<>();
+            } else if (depth == 3 && "params".equals(parentElementName) && "value".equals(elementName)) {
+                parameters.add(StringUtils.trim(reader.getElementText()));
+                continue; // getElementText consumes the end element
+            } else if (depth == 2 && "exception".equals(parentElementName) && "full-stacktrace".equals(elementName)) {
+                String stackTrace = StringUtils.trim(reader.getElementText());
+                if (testResult.status == TestResult.TestStatus.FAIL || testResult.status == TestResult.TestStatus.SKIP) {
+                    testResult.exception = stackTrace;
                 }
-                results.add(testResult);
+                continue;
             }
+            depth++;
+        }
+
+        if (parameters != null) {
+            testResult.parameters = parameters.toArray(new String[0]);
         }
-        return results;
+
+        testResult.buildNumber = build.buildNumber;
+        testResult.commitId = build.commitId;
+        testResult.setUrlForTestMethod(build.getTestReportsUIUrl(), usedUrls);
+        usedUrls.put(testResult.url, testResult.parameters);
+
+        if (Boolean.TRUE.equals(testResult.configMethod) && testResult.status == TestResult.TestStatus.PASS && durationInMs < 300) {
+            return null; // don't store test results that pass really quickly
+        }
+        return testResult;
     }
 
-    private long parseStartedAtTime(Node startedAtNode) {
-        String startedAt = startedAtNode.getNodeValue();
+    private long parseStartedAtTime(String startedAt) {
         try {
             Date startedAtDate = DATE_FORMAT_WITH_TIME_ZONE.parse(startedAt);
             return startedAtDate.getTime();
@@ -128,16 +168,4 @@ public class TestNGXmlTestResults extends TestResults {
             throw new RuntimeException(nfe);
         }
     }
-
-    private List<Node> getChildNodes(Node parentNode, String childNodeName) {
-        NodeList childNodes = parentNode.getChildNodes();
-        return IntStream.range(0, childNodes.getLength()).mapToObj(childNodes::item)
-                .filter(node -> childNodeName.equals(node.getNodeName())).collect(toList());
-    }
-
-    private Optional<Node> getChildNode(Node parentNode, String childNodeName) {
-        NodeList childNodes = parentNode.getChildNodes();
-        return IntStream.range(0, childNodes.getLength()).mapToObj(childNodes::item)
-                .filter(node -> childNodeName.equals(node.getNodeName())).findFirst();
-    }
 }
@@ -15,6 +15,7 @@ import com.vmware.http.cookie.ApiAuthentication;
 import com.vmware.jenkins.Jenkins;
 import com.vmware.jira.Jira;
 import com.vmware.reviewboard.ReviewBoard;
+import com.vmware.ssh.SshSessionPool;
 import com.vmware.util.StringUtils;
 import com.vmware.util.scm.Git;
 import com.vmware.util.scm.Perforce;
@@ -22,6 +23,10 @@ import com.vmware.trello.Trello;
 import com.vmware.vcd.Vcd;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static com.vmware.util.StringUtils.firstNonEmpty;
 
 /**
@@ -52,126 +57,170 @@ public class ServiceLocator {
 
     private Vcd vcd;
 
-    private RuntimeException reviewBoardException;
+    private volatile RuntimeException reviewBoardException;
+
+    private final Map<String, Object> serviceLocks = new ConcurrentHashMap<>();
 
     private final WorkflowConfig config;
 
-    public ServiceLocator(WorkflowConfig config) {
+    private final SshSessionPool sshSessionPool;
+
+    public ServiceLocator(WorkflowConfig config, SshSessionPool sshSessionPool) {
         this.config = config;
+        this.sshSessionPool = sshSessionPool;
     }
 
     public Jira getJira() {
-        if (jira == null) {
-            jira = new Jira(config.jiraConfig.jiraUrl, determineUsername(config.jiraConfig.jiraUsername), config.jiraConfig.jiraCustomFieldNames);
+        synchronized (lockFor("jira")) {
+            if (jira == null) {
+                jira = withHttpCompressionConfig(new Jira(config.jiraConfig.jiraUrl, determineUsername(config.jiraConfig.jiraUsername), config.jiraConfig.jiraCustomFieldNames));
+            }
+            return jira;
         }
-        return jira;
     }
 
     public Bugzilla getBugzilla() {
-        if (bugzilla == null) {
-            bugzilla = new Bugzilla(config.bugzillaConfig.bugzillaUrl, determineUsername(config.bugzillaConfig.bugzillaUsername),
-                    config.bugzillaConfig.bugzillaTestBug, config.bugzillaConfig.bugzillaSso, config.ssoConfig, config.bugzillaConfig.bugzillaSsoLoginId);
+        synchronized (lockFor("bugzilla")) {
+            if (bugzilla == null) {
+                bugzilla = new Bugzilla(config.bugzillaConfig.bugzillaUrl, determineUsername(config.bugzillaConfig.bugzillaUsername),
+                        config.bugzillaConfig.bugzillaTestBug, config.bugzillaConfig.bugzillaSso, config.ssoConfig, config.bugzillaConfig.bugzillaSsoLoginId);
+            }
+            return bugzilla;
         }
-        return bugzilla;
     }
 
     public ReviewBoard getReviewBoard() {
-        if (reviewBoardException != null) {
-            LoggerFactory.getLogger(this.getClass()).debug(reviewBoardException.getMessage(), reviewBoardException);
-            return null;
-        }
-        if (reviewBoard == null) {
-            try {
-                ReviewBoardConfig reviewBoardConfig = config.reviewBoardConfig;
-                ApiAuthentication reviewBoardCredentialsType = reviewBoardConfig.useRbApiToken ? ApiAuthentication.reviewBoard_token : ApiAuthentication.reviewBoard_cookie;
-                reviewBoard = new ReviewBoard(reviewBoardConfig.reviewboardUrl, determineUsername(reviewBoardConfig.rbUsername), reviewBoardCredentialsType);
-                if (reviewBoard.isConnectionAuthenticated()) {
-                    reviewBoard.updateClientTimeZone(reviewBoardConfig.reviewBoardDateFormat);
-                }
-            } catch (RuntimeException re) {
-                this.reviewBoardException = re;
+        synchronized (lockFor("reviewBoard")) {
+            if (reviewBoardException != null) {
                 LoggerFactory.getLogger(this.getClass()).debug(reviewBoardException.getMessage(), reviewBoardException);
+                return null;
             }
+            if (reviewBoard == null) {
+                try {
+                    ReviewBoardConfig reviewBoardConfig = config.reviewBoardConfig;
+                    ApiAuthentication reviewBoardCredentialsType = reviewBoardConfig.useRbApiToken ? ApiAuthentication.reviewBoard_token : ApiAuthentication.reviewBoard_cookie;
+                    reviewBoard = withHttpCompressionConfig(new ReviewBoard(reviewBoardConfig.reviewboardUrl, determineUsername(reviewBoardConfig.rbUsername), reviewBoardCredentialsType));
+                    if (reviewBoard.isConnectionAuthenticated()) {
+                        reviewBoard.updateClientTimeZone(reviewBoardConfig.reviewBoardDateFormat);
+                    }
+                } catch (RuntimeException re) {
+                    this.reviewBoardException = re;
+                    LoggerFactory.getLogger(this.getClass()).debug(reviewBoardException.getMessage(), reviewBoardException);
+                }
 
+            }
+            return reviewBoard;
         }
-        return reviewBoard;
     }
 
     public Jenkins getJenkins() {
-        if (jenkins == null) {
-            jenkins = newJenkins();
+        synchronized (lockFor("jenkins")) {
+            if (jenkins == null) {
+                JenkinsConfig jenkinsConfig = config.jenkinsConfig;
+                jenkins = withHttpCompressionConfig(new Jenkins(jenkinsConfig.jenkinsUrl, determineUsername(jenkinsConfig.jenkinsUsername), jenkinsConfig.jenkinsUsesCsrf,
+                        jenkinsConfig.disableJenkinsLogin, jenkinsConfig.testReportsUrlOverrides));
+            }
+            return jenkins;
         }
-        return jenkins;
-    }
-
-    public Jenkins newJenkins() {
-        JenkinsConfig jenkinsConfig = config.jenkinsConfig;
-        return new Jenkins(jenkinsConfig.jenkinsUrl, determineUsername(jenkinsConfig.jenkinsUsername), jenkinsConfig.jenkinsUsesCsrf, jenkinsConfig.disableJenkinsLogin, jenkinsConfig.testReportsUrlOverrides);
     }
 
     public Buildweb getBuildweb() {
-        if (buildweb == null) {
-            BuildwebConfig buildwebConfig = config.buildwebConfig;
-            buildweb = new Buildweb(buildwebConfig.buildwebUrl, buildwebConfig.buildwebApiUrl,
-                    buildwebConfig.buildwebLogFileName, buildwebConfig.buildwebBuildMachineHostNameSuffix, determineUsername(buildwebConfig.buildwebUsername));
+        synchronized (lockFor("buildweb")) {
+            if (buildweb == null) {
+                BuildwebConfig buildwebConfig = config.buildwebConfig;
+                buildweb = withHttpCompressionConfig(new Buildweb(buildwebConfig.buildwebUrl, buildwebConfig.buildwebApiUrl,
+                        buildwebConfig.buildwebLogFileName, buildwebConfig.buildwebBuildMachineHostNameSuffix, determineUsername(buildwebConfig.buildwebUsername)));
+            }
+            return buildweb;
         }
-        return buildweb;
     }
 
     public Vcd getVcd() {
-        if (vcd == null) {
-            VcdConfig vcdConfig = config.vcdConfig;
-            SsoConfig ssoConfig = config.ssoConfig;
-            String ssoEmail = StringUtils.isNotBlank(ssoConfig.ssoEmail) ? ssoConfig.ssoEmail : git.configValue("user.email");
-            vcd = new Vcd(vcdConfig.vcdUrl, vcdConfig.vcdApiVersion, determineUsername(vcdConfig.vcdUsername), vcdConfig.defaultVcdOrg, vcdConfig.vcdSso, ssoEmail,
-                    vcdConfig.refreshTokenName, vcdConfig.disableVcdRefreshToken, vcdConfig.vcdSsoButtonId, ssoConfig);
+        synchronized (lockFor("vcd")) {
+            if (vcd == null) {
+                VcdConfig vcdConfig = config.vcdConfig;
+                SsoConfig ssoConfig = config.ssoConfig;
+                String ssoEmail = StringUtils.isNotBlank(ssoConfig.ssoEmail) ? ssoConfig.ssoEmail : git.configValue("user.email");
+                vcd = withHttpCompressionConfig(new Vcd(vcdConfig.vcdUrl, vcdConfig.vcdApiVersion, determineUsername(vcdConfig.vcdUsername), vcdConfig.defaultVcdOrg, vcdConfig.vcdSso, ssoEmail,
+                        vcdConfig.refreshTokenName, vcdConfig.disableVcdRefreshToken, vcdConfig.vcdSsoButtonId, ssoConfig));
+            }
+            return vcd;
         }
-        return vcd;
     }
 
     public Trello getTrello() {
-        if (trello == null) {
-            SsoConfig ssoConfig = config.ssoConfig;
-            TrelloConfig trelloConfig = config.trelloConfig;
-            String ssoEmail = StringUtils.isNotBlank(ssoConfig.ssoEmail) ? ssoConfig.ssoEmail : git.configValue("user.email");
-            trello = new Trello(trelloConfig.trelloUrl, determineUsername(trelloConfig.trelloUsername), trelloConfig.trelloSso, ssoEmail, ssoConfig);
+        synchronized (lockFor("trello")) {
+            if (trello == null) {
+                SsoConfig ssoConfig = config.ssoConfig;
+                TrelloConfig trelloConfig = config.trelloConfig;
+                String ssoEmail = StringUtils.isNotBlank(ssoConfig.ssoEmail) ? ssoConfig.ssoEmail : git.configValue("user.email");
+                trello = withHttpCompressionConfig(new Trello(trelloConfig.trelloUrl, determineUsername(trelloConfig.trelloUsername), trelloConfig.trelloSso, ssoEmail, ssoConfig));
+            }
+            return trello;
         }
-        return trello;
     }
 
     public Git getGit() {
-        if (git == null) {
-            git = new Git();
+        synchronized (lockFor("git")) {
+            if (git == null) {
+                git = new Git();
+            }
+            return git;
         }
-        return git;
     }
 
     public Perforce getPerforce() {
-        if (perforce == null) {
-            perforce = new Perforce(config.perforceClientConfig.perforceClientName,
-                    config.perforceClientConfig.perforceClientDirectory);
+        synchronized (lockFor("perforce")) {
+            if (perforce == null) {
+                perforce = new Perforce(config.perforceClientConfig.perforceClientName,
+                        config.perforceClientConfig.perforceClientDirectory);
+            }
+            return perforce;
         }
-        return perforce;
     }
 
     public Gitlab getGitlab() {
-        if (gitlab == null) {
-            gitlab = new Gitlab(config.gitlabConfig.gitlabUrl);
+        synchronized (lockFor("gitlab")) {
+            if (gitlab == null) {
+                gitlab = withHttpCompressionConfig(new Gitlab(config.gitlabConfig.gitlabUrl));
+            }
+            return gitlab;
         }
-        return gitlab;
     }
 
     public Github getGithub() {
-        if (github == null) {
-            github = new Github(config.githubConfig.githubUrl, config.githubConfig.githubGraphqlUrl);
+        synchronized (lockFor("github")) {
+            if (github == null) {
+                github = withHttpCompressionConfig(new Github(config.githubConfig.githubUrl, config.githubConfig.githubGraphqlUrl));
+            }
+            return github;
         }
-        return github;
+    }
+
+    public SshSessionPool getSshSessionPool() {
+        return sshSessionPool;
     }
 
     public RuntimeException getReviewBoardException() {
         return reviewBoardException;
     }
 
+    private <T extends AbstractRestService> T withHttpCompressionConfig(T service) {
+        boolean useResponseCompression = config.disableHttpCompressionFor == null
+                || !Arrays.asList(config.disableHttpCompressionFor).contains(service.serviceName());
+        boolean compressLargeRequestBodies = config.compressHttpRequestsFor != null
+                && Arrays.asList(config.compressHttpRequestsFor).contains(service.serviceName());
+        service.setHttpCompression(useResponseCompression, compressLargeRequestBodies);
+        return service;
+    }
+
+    /**
+     * Each service has its own lock so that a slow login for one service doesn't block lookups of other services.
+     */
+    private Object lockFor(String serviceName) {
+        return serviceLocks.computeIfAbsent(serviceName, name -> new Object());
+    }
+
     private String determineUsername(String overrideValue) {
         return firstNonEmpty(overrideValue, config.username);
     }
@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -11,10 +12,15 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.vmware.action.info.DisplayLineBreak;
 import com.vmware.action.info.DisplayInfo;
@@ -35,9 +41,11 @@ import com.vmware.config.WorkflowParameter;
 import com.vmware.config.section.GithubConfig;
 import com.vmware.github.Github;
 import com.vmware.github.domain.ReleaseAsset;
+import com.vmware.http.HttpRequestMetrics;
 import com.vmware.http.exception.ApiException;
 import com.vmware.mapping.ConfigMappings;
 import com.vmware.mapping.ConfigValuesCompleter;
+import com.vmware.ssh.SshSessionPool;
 import com.vmware.util.IOUtils;
 import com.vmware.util.StringUtils;
 import com.vmware.util.ThreadUtils;
@@ -66,12 +74,16 @@ import static com.vmware.util.StopwatchUtils.timeRunnable;
  */
 public class Workflow {
     private static final String QUIT_WORKFLOW = "q";
+    private static final int ASYNC_SETUP_THREADS = 4;
+    private static final int ASYNC_SETUP_TIMEOUT_SECONDS = 30;
 
     private final Logger log = LoggerFactory.getLogger(this.getClass());
     private final WorkflowConfigParser configParser = new WorkflowConfigParser();
+    private final Object actionStateLock = new Object();
     private List<String> workflowHistory;
     private WorkflowConfig config;
     private ServiceLocator serviceLocator;
+    private final SshSessionPool sshSessionPool = new SshSessionPool();
     private boolean firstTime = true;
     private boolean displayedShellInfoMessage = false;
     private String username = null;
@@ -86,7 +98,7 @@ public class Workflow {
         config = configParser.parseWorkflowConfig(username, args);
         readWorkflowHistoryFile();
         username = config.username;
-        serviceLocator = new ServiceLocator(config);
+        serviceLocator = new ServiceLocator(config, sshSessionPool);
         checkForNewVersionOfWorkflowTools();
         askForWorkflowIfEmpty(firstTime);
         firstTime = false;
@@ -216,6 +228,7 @@ public class Workflow {
                 argumentsCompleter, workflowHistory).trim();
         if (workFlowText.equals(QUIT_WORKFLOW) || workFlowText.equalsIgnoreCase("exit")) {
             log.debug("Quitting");
+            sshSessionPool.disconnectAll();
             System.exit(0);
         }
         List<String> workflowTextPieces = splitWorkflowTextIntoArguments(workFlowText);
@@ -334,6 +347,8 @@ public class Workflow {
     private void runWorkflowAgain() {
         if (config != null && config.shellMode && !config.scriptMode) {
             runWorkflow();
+        } else {
+            sshSessionPool.disconnectAll();
         }
     }
 
@@ -501,16 +516,32 @@ public class Workflow {
     }
 
     private void runActions(List<WorkflowAction> actions, WorkflowActionValues values) {
+        HttpRequestMetrics.getInstance().reset();
         actions.forEach(action -> action.instantiateAction(config, serviceLocator));
 
+        // setup can prompt for credentials, InputUtils only lets one thread prompt at a time
+        ExecutorService setupExecutor = ThreadUtils.newDaemonThreadPool("setup", Math.max(1, Math.min(actions.size(), ASYNC_SETUP_THREADS)));
+        Map<WorkflowAction, CompletableFuture<Void>> setupFutures = new HashMap<>();
+        actions.forEach(action -> setupFutures.put(action, CompletableFuture.runAsync(() -> {
+            log.debug("Preprocessing {}", action.getActionClassName());
+            action.asyncSetup();
+        }, setupExecutor)));
+        try {
+            Map<String, Long> executionTimesPerAction = new LinkedHashMap<>();
+            if (config.parallelActions && !config.checkPoint) {
+                runActionsInParallel(actions, values, setupFutures, executionTimesPerAction);
+            } else {
+                runActionsInOrder(actions, values, setupFutures, executionTimesPerAction);
+            }
+            outputExecutionTimes(executionTimesPerAction);
+        } finally {
+            setupExecutor.shutdown();
+            outputHttpRequestMetrics();
+        }
+    }
 
-        ConcurrentLinkedQueue<WorkflowAction> actionsSetup = new ConcurrentLinkedQueue<>();
-        SetupActions setupActions = new SetupActions(actions, actionsSetup);
-        new Thread(setupActions).start();
-        ThreadUtils.sleep(10, TimeUnit.MILLISECONDS);
-
-        AtomicInteger waitTimeInMilliSeconds = new AtomicInteger(0);
-        Map<String, Long> executionTimesPerAction = new LinkedHashMap<>();
+    private void runActionsInOrder(List<WorkflowAction> actions, WorkflowActionValues values,
+                                   Map<WorkflowAction, CompletableFuture<Void>> setupFutures, Map<String, Long> executionTimesPerAction) {
         boolean alwaysProceed = false;
         for (WorkflowAction action : actions) {
             if (config.checkPoint && !alwaysProceed) {
@@ -522,27 +553,73 @@ public class Workflow {
                     continue;
                 }
             }
-            waitForAsyncActionSetupToFinish(actionsSetup, waitTimeInMilliSeconds, action);
+            waitForAsyncActionSetupToFinish(action, setupFutures.get(action));
             long elapsedTime = timeRunnable(() -> runAction(action, values));
             executionTimesPerAction.put(action.getActionClassName(), elapsedTime);
         }
-        outputExecutionTimes(executionTimesPerAction);
     }
 
-    private void waitForAsyncActionSetupToFinish(ConcurrentLinkedQueue<WorkflowAction> actionsSetup, AtomicInteger waitTimeInMilliSeconds, WorkflowAction action) {
-        while (!actionsSetup.contains(action)) {
-            String actionName = action.getActionClassName();
-            int waitTimeValue = waitTimeInMilliSeconds.get();
-            if (waitTimeValue > TimeUnit.SECONDS.toMillis(30)) {
-                log.error(actionName + ".asyncSetup failed to finish in 30 seconds");
-                System.exit(1);
+    /**
+     * Each action waits only for the earlier actions that it depends on, see {@link WorkflowAction#dependsOn(WorkflowAction)}.
+     * Actions that do not declare the state they use depend on all earlier actions and all later actions depend on them.
+     */
+    private void runActionsInParallel(List<WorkflowAction> actions, WorkflowActionValues values,
+                                      Map<WorkflowAction, CompletableFuture<Void>> setupFutures, Map<String, Long> executionTimesPerAction) {
+        ExecutorService executor = ThreadUtils.newDaemonThreadPool("action", actions.size());
+        AtomicBoolean actionFailed = new AtomicBoolean(false);
+        long[] elapsedTimes = new long[actions.size()];
+        List<CompletableFuture<Void>> actionFutures = new ArrayList<>();
+        for (int i = 0; i < actions.size(); i++) {
+            WorkflowAction action = actions.get(i);
+            CompletableFuture<?>[] dependencies = IntStream.range(0, i).filter(index -> action.dependsOn(actions.get(index)))
+                    .mapToObj(actionFutures::get).toArray(CompletableFuture[]::new);
+            log.debug("{} depends on {} earlier actions", action.getActionClassName(), dependencies.length);
+            int actionIndex = i;
+            CompletableFuture<Void> actionFuture = CompletableFuture.allOf(dependencies).thenRunAsync(() -> {
+                if (actionFailed.get()) {
+                    log.debug("Not running {} as an earlier action failed", action.getActionClassName());
+                    return;
+                }
+                waitForAsyncActionSetupToFinish(action, setupFutures.get(action));
+                elapsedTimes[actionIndex] = timeRunnable(() -> runAction(action, values));
+            }, executor);
+            actionFuture.whenComplete((result, error) -> {
+                if (error != null) {
+                    actionFailed.set(true);
+                }
+            });
+            actionFutures.add(actionFuture);
+        }
+        try {
+            ThreadUtils.joinAll(actionFutures);
+        } finally {
+            executor.shutdown();
+            IntStream.range(0, actions.size()).forEach(index -> executionTimesPerAction.put(actions.get(index).getActionClassName(), elapsedTimes[index]));
+        }
+    }
+
+    private void waitForAsyncActionSetupToFinish(WorkflowAction action, CompletableFuture<Void> setupFuture) {
+        String actionName = action.getActionClassName();
+        try {
+            if (!setupFuture.isDone()) {
+                try {
+                    setupFuture.get(1, TimeUnit.SECONDS);
+                } catch (TimeoutException te) {
+                    log.debug("Waiting for {}.asyncSetup to finish", actionName);
+                    setupFuture.get(ASYNC_SETUP_TIMEOUT_SECONDS - 1, TimeUnit.SECONDS);
+                }
             }
-            if (waitTimeValue > 1000) {
-                log.debug("Waiting for {}.asyncSetup to finish, waited {} seconds",
-                        actionName, TimeUnit.MILLISECONDS.toSeconds(waitTimeValue));
+            setupFuture.join();
+        } catch (TimeoutException te) {
+            throw new FatalException("{}.asyncSetup failed to finish in {} seconds", actionName, ASYNC_SETUP_TIMEOUT_SECONDS);
+        } catch (ExecutionException | CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
-            ThreadUtils.sleep(50, TimeUnit.MILLISECONDS);
-            waitTimeInMilliSeconds.addAndGet(50);
+            throw new RuntimeException(actionName + ".asyncSetup failed", e.getCause());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ie);
         }
     }
 
@@ -567,45 +644,42 @@ public class Workflow {
     }
 
 
+    private void outputHttpRequestMetrics() {
+        HttpRequestMetrics metrics = HttpRequestMetrics.getInstance();
+        if (metrics.isEmpty()) {
+            return;
+        }
+        if (config.httpMetrics || log.isDebugEnabled()) {
+            LogLevel logLevel = config.httpMetrics ? LogLevel.INFO : LogLevel.DEBUG;
+            DynamicLogger dynamicLogger = new DynamicLogger(log);
+            dynamicLogger.log(logLevel, "");
+            dynamicLogger.log(logLevel, "Http requests per endpoint, latencies are in milliseconds");
+            metrics.summaryLines().forEach(line -> dynamicLogger.log(logLevel, line));
+        }
+        if (StringUtils.isNotBlank(config.httpMetricsFile)) {
+            log.info("Writing http request metrics to {}", config.httpMetricsFile);
+            IOUtils.write(new File(config.httpMetricsFile), metrics.toJson());
+        }
+    }
+
     private void runAction(WorkflowAction action, WorkflowActionValues values) {
         String actionName = action.getActionClassName();
         log.debug("Executing workflow action {}", actionName);
-        action.setWorkflowValuesOnAction(values);
         try {
-            action.checkIfActionShouldBeSkipped();
-            action.checkIfWorkflowShouldBeFailed();
+            // checks can update shared config values such as replacement variables
+            synchronized (actionStateLock) {
+                action.setWorkflowValuesOnAction(values);
+                action.checkIfActionShouldBeSkipped();
+                action.checkIfWorkflowShouldBeFailed();
+            }
             action.preprocess();
             action.process();
         } catch (SkipActionException cbre) {
             log.info("Skipping running of action {} as {}", actionName, cbre.getMessage());
         }
 
-        action.updateWorkflowValues(values);
-    }
-
-    private class SetupActions implements Runnable {
-
-        private ConcurrentLinkedQueue<WorkflowAction> actionsRun;
-        private List<WorkflowAction> actionsToRun;
-
-        SetupActions(List<WorkflowAction> actionsToRun, ConcurrentLinkedQueue<WorkflowAction> actionsRun) {
-            this.actionsToRun = actionsToRun;
-            this.actionsRun = actionsRun;
-        }
-
-        @Override
-        public void run() {
-            for (WorkflowAction action : actionsToRun) {
-                log.debug("Preprocessing {}", action.getActionClassName());
-                try {
-                    action.asyncSetup();
-                } catch (Exception e) {
-                    log.error("{}\n{}", e.getMessage(), StringUtils.exceptionAsString(e));
-                    System.exit(1);
-                }
-                actionsRun.add(action);
-            }
-            log.debug("Preprocessing finished");
+        synchronized (actionStateLock) {
+            action.updateWorkflowValues(values);
         }
     }
 }
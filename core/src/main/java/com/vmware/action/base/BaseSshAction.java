@@ -1,14 +1,20 @@
 package com.vmware.action.base;
 
+import java.util.List;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import com.jcraft.jsch.Channel;
 import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Logger;
+import com.jcraft.jsch.Session;
 import com.vmware.config.ActionDescription;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.config.ssh.SiteConfig;
+import com.vmware.ssh.SshSessionPool;
 import com.vmware.util.StringUtils;
 import com.vmware.util.ThreadUtils;
 import com.vmware.util.exception.FatalException;
@@ -20,6 +26,8 @@ import com.vmware.vcd.domain.Sites;
 @ActionDescription(value = "Base ssh action", configFlagsToExcludeFromCompleter = "--use-database-host")
 public abstract class BaseSshAction extends BaseVappAction {
 
+    private static final int CHANNEL_CONNECT_TIMEOUT_SECONDS = 30;
+
     public BaseSshAction(WorkflowConfig config) {
         super(config);
         JSch.setLogger(new SshLogger(log));
@@ -31,6 +39,30 @@ public abstract class BaseSshAction extends BaseVappAction {
         }
     }
 
+    /**
+     * Opens a channel using the pooled ssh session for the site.
+     * If the pooled session can no longer be used, it is reconnected and the channel is opened again.
+     */
+    protected <T extends Channel> T openChannel(SiteConfig siteConfig, String channelType, Consumer<T> channelSetup) throws JSchException {
+        SshSessionPool sessionPool = serviceLocator.getSshSessionPool();
+        Session session = sessionPool.session(siteConfig, sshConfig.sshStrictHostChecking);
+        try {
+            return openChannel(session, channelType, channelSetup);
+        } catch (JSchException e) {
+            log.debug("Failed to open {} channel for {}@{}, reconnecting: {}", channelType, siteConfig.username, siteConfig.host, e.getMessage());
+            sessionPool.invalidate(siteConfig);
+            return openChannel(sessionPool.session(siteConfig, sshConfig.sshStrictHostChecking), channelType, channelSetup);
+        }
+    }
+
+    protected List<SiteConfig> createSshSiteConfigsForAllVms() {
+        Sites.Site site = vappData.getSelectedSite();
+        if (site == null) {
+            throw new FatalException("No vcd site selected, a site needs to be selected to use all of its VMs");
+        }
+        return site.vms().stream().map(this::createSshSiteConfig).collect(Collectors.toList());
+    }
+
     protected SiteConfig createSshSiteConfig() {
         if (vappData.getSelectedSite() != null && vcdConfig.useDatabaseHost) {
             Sites.Site site = vappData.getSelectedSite();
@@ -38,15 +70,7 @@ public abstract class BaseSshAction extends BaseVappAction {
             log.info("Using database host {} for ssh site config", databaseConfig.host);
             return new SiteConfig(databaseConfig.host, 22, databaseConfig.getSshCredentials().username, databaseConfig.getSshCredentials().password);
         } else if (vappData.getSelectedVm() != null) {
-            Sites.VmInfo vm = vappData.getSelectedVm();
-            Sites.Credentials credentials = vm.getSshCredentials();
-            if (credentials == null) {
-                if (StringUtils.isEmpty(sshConfig.sshUsername) || StringUtils.isEmpty(sshConfig.sshPassword)) {
-                    throw new FatalException("No ssh credentials found for VM {}, Please set with --ssh-username and --ssh-password", vm.getName());
-                }
-                credentials = new Sites().new Credentials(sshConfig.sshUsername, sshConfig.sshPassword);
-            }
-            return new SiteConfig(vm.getHost(), 22, credentials.username, credentials.password);
+            return createSshSiteConfig(vappData.getSelectedVm());
         } else if (sshConfig.hasCommandLineSite()) {
             return sshConfig.commandLineSite();
         } else {
@@ -65,6 +89,30 @@ public abstract class BaseSshAction extends BaseVappAction {
         }
     }
 
+    private SiteConfig createSshSiteConfig(Sites.VmInfo vm) {
+        Sites.Credentials credentials = vm.getSshCredentials();
+        if (credentials == null) {
+            if (StringUtils.isEmpty(sshConfig.sshUsername) || StringUtils.isEmpty(sshConfig.sshPassword)) {
+                throw new FatalException("No ssh credentials found for VM {}, Please set with --ssh-username and --ssh-password", vm.getName());
+            }
+            credentials = new Sites().new Credentials(sshConfig.sshUsername, sshConfig.sshPassword);
+        }
+        return new SiteConfig(vm.getHost(), 22, credentials.username, credentials.password);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Channel> T openChannel(Session session, String channelType, Consumer<T> channelSetup) throws JSchException {
+        T channel = (T) session.openChannel(channelType);
+        channelSetup.accept(channel);
+        try {
+            channel.connect((int) TimeUnit.SECONDS.toMillis(CHANNEL_CONNECT_TIMEOUT_SECONDS));
+        } catch (JSchException e) {
+            channel.disconnect();
+            throw e;
+        }
+        return channel;
+    }
+
     private static class SshLogger implements Logger {
 
         private DynamicLogger logger;
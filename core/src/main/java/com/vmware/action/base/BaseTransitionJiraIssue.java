@@ -11,6 +11,7 @@ import com.vmware.jira.domain.JiraUser;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
 
 public abstract class BaseTransitionJiraIssue extends BaseCommitAction {
 
@@ -40,9 +41,7 @@ public abstract class BaseTransitionJiraIssue extends BaseCommitAction {
     @Override
     public void process() {
         List<String> bugNumbers = draft.bugNumbersAsList();
-        for (String bugNumber : bugNumbers) {
-            transitionIssue(bugNumber);
-        }
+        jira.executeInBulk("issue transitions", bugNumbers, this::transitionIssue).throwIfAnyFailed(Function.identity());
     }
 
     private void transitionIssue(String bugNumber) {
@@ -1,26 +1,39 @@
 package com.vmware.action.batch;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
 import com.vmware.action.BaseAction;
 import com.vmware.config.ActionDescription;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.http.HttpResponse;
+import com.vmware.http.exception.ApiException;
 import com.vmware.http.json.ConfiguredGsonBuilder;
 import com.vmware.util.CollectionUtils;
+import com.vmware.util.LoadGenerator;
 import com.vmware.util.StringUtils;
 import com.vmware.util.ThreadUtils;
 import com.vmware.util.exception.CancelException;
 import com.vmware.util.input.InputUtils;
 import com.vmware.util.logging.LogLevel;
+import com.vmware.util.logging.Padder;
 import com.vmware.vcd.Vcd;
 import com.vmware.vcd.domain.ApiRequest;
 
-import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
-@ActionDescription("Executes the source api call the specified number of times")
+@ActionDescription("Executes the source api call the specified number of times. File data can be a single api request or an array of api requests."
+        + " Use request concurrency, rate, warm up or duration to execute the requests as a load test.")
 public class ExecuteVcdApiRequests extends BaseAction {
     public ExecuteVcdApiRequests(WorkflowConfig config) {
         super(config);
@@ -33,6 +46,11 @@ public class ExecuteVcdApiRequests extends BaseAction {
         Vcd vcdClient = new Vcd(fileSystemConfig.sourceUrl, vcdConfig.vcdApiVersion, vcdConfig.vcdAdminUsername, vcdConfig.vcdAdminUserPassword, vcdOrg);
 
         Gson gson = new ConfiguredGsonBuilder().build();
+        List<ApiRequestTemplate> requestTemplates = parseRequestTemplates(gson);
+        if (vcdConfig.usesLoadGeneration()) {
+            executeRequestsAsLoad(vcdClient, gson, requestTemplates);
+            return;
+        }
 
         IntStream.rangeClosed(1, fileSystemConfig.repeatCount).forEach(index -> {
             log.info("Execution count {} of {}", index, fileSystemConfig.repeatCount);
@@ -42,18 +60,143 @@ public class ExecuteVcdApiRequests extends BaseAction {
                     throw new CancelException(LogLevel.INFO, "not running rest of api requests");
                 }
             }
-            String apiRequest = fileSystemConfig.fileData.replace("$counter", String.valueOf(index));
-            ApiRequest request = gson.fromJson(new StringReader(apiRequest), ApiRequest.class);
+            ApiRequest request = requestTemplates.get((index - 1) % requestTemplates.size()).createRequest(gson, index);
             HttpResponse response = vcdClient.executeRequest(request);
-            List<String> locationHeader = response.getHeaders().get("Location");
-            if (CollectionUtils.isNotEmpty(locationHeader) && config.waitForBlockingWorkflowAction) {
-                vcdClient.waitForTaskToComplete(locationHeader.get(0), 3, TimeUnit.MINUTES);
-            }
+            waitForTaskIfNeeded(vcdClient, response);
             if (config.waitTimeForBlockingWorkflowAction > 0) {
                 ThreadUtils.sleep(config.waitTimeForBlockingWorkflowAction, TimeUnit.MILLISECONDS);
             }
         });
+    }
+
+    private void executeRequestsAsLoad(Vcd vcdClient, Gson gson, List<ApiRequestTemplate> requestTemplates) {
+        int concurrency = Math.max(1, vcdConfig.requestConcurrency);
+        long maxRequestCount = vcdConfig.loadDurationSeconds > 0 ? 0 : fileSystemConfig.repeatCount;
+        log.info("Executing {} api requests with concurrency {}, rate {} per second, warm up {} seconds and duration {} seconds",
+                maxRequestCount > 0 ? String.valueOf(maxRequestCount) : "unlimited", concurrency,
+                vcdConfig.requestsPerSecond > 0 ? String.valueOf(vcdConfig.requestsPerSecond) : "unlimited",
+                vcdConfig.warmUpSeconds, vcdConfig.loadDurationSeconds);
 
+        LoadGenerator loadGenerator = new LoadGenerator(concurrency, vcdConfig.requestsPerSecond,
+                vcdConfig.warmUpSeconds, vcdConfig.loadDurationSeconds, maxRequestCount);
+        for (ApiRequestTemplate template : requestTemplates) {
+            loadGenerator.addRequest(template.name, template.weight, requestNumber -> {
+                try {
+                    HttpResponse response = vcdClient.executeRequest(template.createRequest(gson, requestNumber));
+                    waitForTaskIfNeeded(vcdClient, response);
+                    return String.valueOf(response.getStatusCode());
+                } catch (ApiException e) {
+                    return String.valueOf(e.getStatusCode());
+                }
+            });
+        }
+        LoadGenerator.LoadResults results = loadGenerator.run();
+
+        Padder resultsPadder = new Padder("Api Request Results");
+        resultsPadder.infoTitle();
+        log.info("Executed {} requests in {} seconds, excluding {} warm up requests", results.requestCount(),
+                String.format("%.1f", results.measuredSeconds()), results.warmUpRequestCount());
+        if (vcdConfig.requestsPerSecond > 0) {
+            log.info("Max delay in starting a request was {} milliseconds", results.maxStartDelayMillis());
+        }
+        results.summaryLines().forEach(line -> log.info(line));
+        resultsPadder.infoTitle();
+    }
+
+    private void waitForTaskIfNeeded(Vcd vcdClient, HttpResponse response) {
+        List<String> locationHeader = response.getHeaders().get("Location");
+        if (CollectionUtils.isNotEmpty(locationHeader) && config.waitForBlockingWorkflowAction) {
+            vcdClient.waitForTaskToComplete(locationHeader.get(0), 3, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * The file data is parsed leniently so that variables can be used unquoted in place of json values, e.g. a number.
+     */
+    private List<ApiRequestTemplate> parseRequestTemplates(Gson gson) {
+        JsonElement requestsJson = gson.fromJson(fileSystemConfig.fileData, JsonElement.class);
+        List<ApiRequestTemplate> templates = new ArrayList<>();
+        if (requestsJson.isJsonArray()) {
+            for (int i = 0; i < requestsJson.getAsJsonArray().size(); i++) {
+                templates.add(new ApiRequestTemplate(requestsJson.getAsJsonArray().get(i).getAsJsonObject(), i));
+            }
+        } else {
+            templates.add(new ApiRequestTemplate(requestsJson.getAsJsonObject(), 0));
+        }
+        return templates;
+    }
+
+    /**
+     * Api request from the file data, which is either a single api request or an array of api requests.
+     * An optional name and weight can be set for a request, the weight is how often the request is executed relative to other requests.
+     * Variables in the request are expanded for each request,
+     * $counter is replaced by the request number, $random by a random number,
+     * $uuid by a random uuid and $timestamp by the current time in milliseconds.
+     */
+    private static class ApiRequestTemplate {
+        private static final List<String> NUMERIC_VARIABLES = Arrays.asList("$counter", "$random", "$timestamp");
+
+        private final JsonObject requestJson;
+        private final boolean hasVariables;
+        private final String name;
+        private final int weight;
+
+        ApiRequestTemplate(JsonObject requestJson, int arrayIndex) {
+            this.requestJson = requestJson;
+            this.hasVariables = requestJson.toString().contains("$");
+            String methodType = stringValue(requestJson, "methodType");
+            String url = stringValue(requestJson, "url");
+            if (stringValue(requestJson, "name") != null) {
+                this.name = stringValue(requestJson, "name");
+            } else if (methodType != null || url != null) {
+                this.name = StringUtils.isNotEmpty(methodType) && StringUtils.isNotEmpty(url) ? methodType + " " + url
+                        : StringUtils.isNotEmpty(methodType) ? methodType : url;
+            } else {
+                this.name = "Request " + (arrayIndex + 1);
+            }
+            this.weight = requestJson.has("weight") ? requestJson.get("weight").getAsInt() : 1;
+        }
+
+        ApiRequest createRequest(Gson gson, long requestNumber) {
+            if (!hasVariables) {
+                return gson.fromJson(requestJson, ApiRequest.class);
+            }
+            Map<String, String> variableValues = new HashMap<>();
+            variableValues.put("$counter", String.valueOf(requestNumber));
+            variableValues.put("$random", String.valueOf(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE)));
+            variableValues.put("$uuid", UUID.randomUUID().toString());
+            variableValues.put("$timestamp", String.valueOf(System.currentTimeMillis()));
+            return gson.fromJson(expandVariables(requestJson, variableValues), ApiRequest.class);
+        }
+
+        /**
+         * A value that is only a numeric variable is expanded to a number, as it would have been used unquoted.
+         */
+        private static JsonElement expandVariables(JsonElement element, Map<String, String> variableValues) {
+            if (element.isJsonObject()) {
+                JsonObject expandedObject = new JsonObject();
+                element.getAsJsonObject().entrySet().forEach(entry -> expandedObject.add(entry.getKey(), expandVariables(entry.getValue(), variableValues)));
+                return expandedObject;
+            } else if (element.isJsonArray()) {
+                JsonArray expandedArray = new JsonArray();
+                element.getAsJsonArray().forEach(value -> expandedArray.add(expandVariables(value, variableValues)));
+                return expandedArray;
+            } else if (!element.isJsonPrimitive() || !element.getAsJsonPrimitive().isString() || !element.getAsString().contains("$")) {
+                return element;
+            }
+            String value = element.getAsString();
+            if (NUMERIC_VARIABLES.contains(value)) {
+                return new JsonPrimitive(Long.parseLong(variableValues.get(value)));
+            }
+            for (Map.Entry<String, String> variable : variableValues.entrySet()) {
+                value = value.replace(variable.getKey(), variable.getValue());
+            }
+            return new JsonPrimitive(value);
+        }
 
+        private static String stringValue(JsonObject requestJson, String fieldName) {
+            JsonElement value = requestJson.get(fieldName);
+            return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+        }
     }
 }
@@ -3,6 +3,7 @@ package com.vmware.action.batch;
 import com.vmware.action.base.BaseBatchCloseReviews;
 import com.vmware.config.ActionDescription;
 import com.vmware.config.WorkflowConfig;
+import com.vmware.reviewboard.domain.ReviewRequest;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -18,6 +19,6 @@ public class HardSubmitOldShipItReviews extends BaseBatchCloseReviews {
 
     @Override
     public void process() {
-        super.closeReviews(reviewBoard.getOpenReviewRequestsWithShipIts().review_requests);
+        super.closeReviews(reviewBoard.getOpenReviewRequestsWithShipIts().toArray(ReviewRequest[]::new));
     }
 }
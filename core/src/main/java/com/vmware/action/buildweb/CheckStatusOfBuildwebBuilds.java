@@ -3,9 +3,11 @@ package com.vmware.action.buildweb;
 
 import com.vmware.action.base.BaseCommitWithBuildwebBuildsAction;
 import com.vmware.config.ActionDescription;
+import com.vmware.config.ActionStateAccess;
 import com.vmware.config.WorkflowConfig;
 
 @ActionDescription("Reads the testing done section and checks the status for all buiildweb builds found.")
+@ActionStateAccess(writes = {"draft.jobBuilds.buildweb", "draft.buildwebBuildsAreSuccessful"})
 public class CheckStatusOfBuildwebBuilds extends BaseCommitWithBuildwebBuildsAction {
 
     public CheckStatusOfBuildwebBuilds(WorkflowConfig config) {
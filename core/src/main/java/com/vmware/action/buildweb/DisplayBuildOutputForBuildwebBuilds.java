@@ -2,6 +2,7 @@ package com.vmware.action.buildweb;
 
 import com.vmware.action.base.BaseCommitWithBuildwebBuildsAction;
 import com.vmware.config.ActionDescription;
+import com.vmware.config.ActionStateAccess;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.util.StringUtils;
 import com.vmware.util.logging.Padder;
@@ -11,6 +12,7 @@ import static com.vmware.BuildStatus.FAILURE;
 import static com.vmware.BuildStatus.UNSTABLE;
 
 @ActionDescription("Tails the output for buildweb builds that are not successful.")
+@ActionStateAccess(reads = "draft.jobBuilds.buildweb")
 public class DisplayBuildOutputForBuildwebBuilds extends BaseCommitWithBuildwebBuildsAction {
     public DisplayBuildOutputForBuildwebBuilds(WorkflowConfig config) {
         super(config);
@@ -2,6 +2,7 @@ package com.vmware.action.github;
 
 import com.vmware.action.base.BaseCommitWithPullRequestAction;
 import com.vmware.config.ActionDescription;
+import com.vmware.config.ActionStateAccess;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.github.domain.GraphqlResponse;
 import com.vmware.github.domain.PullRequest;
@@ -13,6 +14,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @ActionDescription("Checks the status of review approvals for a pull request")
+@ActionStateAccess(writes = "draft.githubPullRequest")
 public class CheckStatusOfPullRequestApprovals extends BaseCommitWithPullRequestAction {
     public CheckStatusOfPullRequestApprovals(WorkflowConfig config) {
         super(config, true, true);
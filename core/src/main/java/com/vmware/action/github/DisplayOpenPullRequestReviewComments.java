@@ -2,6 +2,7 @@ package com.vmware.action.github;
 
 import com.vmware.action.base.BaseCommitWithPullRequestAction;
 import com.vmware.config.ActionDescription;
+import com.vmware.config.ActionStateAccess;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.github.domain.GraphqlResponse;
 import com.vmware.github.domain.PullRequest;
@@ -19,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 @ActionDescription("Displays open diff and general comments for pull request review.")
+@ActionStateAccess(writes = "draft.githubPullRequest")
 public class DisplayOpenPullRequestReviewComments extends BaseCommitWithPullRequestAction {
     private final Map<String, String[]> diffFiles = new HashMap<>();
 
@@ -2,11 +2,13 @@ package com.vmware.action.gitlab;
 
 import com.vmware.action.base.BaseCommitWithMergeRequestAction;
 import com.vmware.config.ActionDescription;
+import com.vmware.config.ActionStateAccess;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.gitlab.domain.MergeRequest;
 import com.vmware.gitlab.domain.MergeRequestApprovals;
 
 @ActionDescription("Checks the status of approvals for a merge request")
+@ActionStateAccess(writes = "draft.gitlabMergeRequest")
 public class CheckStatusOfMergeRequestApprovals extends BaseCommitWithMergeRequestAction {
     public CheckStatusOfMergeRequestApprovals(WorkflowConfig config) {
         super(config, true, true);
@@ -2,6 +2,7 @@ package com.vmware.action.gitlab;
 
 import com.vmware.action.base.BaseCommitWithMergeRequestAction;
 import com.vmware.config.ActionDescription;
+import com.vmware.config.ActionStateAccess;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.gitlab.domain.MergeRequest;
 import com.vmware.gitlab.domain.MergeRequestCommitVersion;
@@ -22,6 +23,7 @@ import java.util.Set;
 import java.util.stream.IntStream;
 
 @ActionDescription("Displays open diff and general comments for review.")
+@ActionStateAccess(writes = "draft.gitlabMergeRequest")
 public class DisplayOpenDiffNotes extends BaseCommitWithMergeRequestAction {
     private final Map<String, String[]> diffFiles = new HashMap<>();
 
@@ -3,9 +3,11 @@ package com.vmware.action.jenkins;
 
 import com.vmware.action.base.BaseCommitWithJenkinsBuildsAction;
 import com.vmware.config.ActionDescription;
+import com.vmware.config.ActionStateAccess;
 import com.vmware.config.WorkflowConfig;
 
 @ActionDescription("Reads the testing done section and checks the status for all jenkins builds found.")
+@ActionStateAccess(writes = {"draft.jobBuilds.jenkins", "draft.jenkinsBuildsAreSuccessful"})
 public class CheckStatusOfJenkinsBuilds extends BaseCommitWithJenkinsBuildsAction {
 
     public CheckStatusOfJenkinsBuilds(WorkflowConfig config) {
@@ -2,6 +2,7 @@ package com.vmware.action.jenkins;
 
 import com.vmware.action.base.BaseCommitWithJenkinsBuildsAction;
 import com.vmware.config.ActionDescription;
+import com.vmware.config.ActionStateAccess;
 import com.vmware.config.WorkflowConfig;
 
 import static com.vmware.BuildStatus.BUILDING;
@@ -9,6 +10,7 @@ import static com.vmware.BuildStatus.FAILURE;
 import static com.vmware.BuildStatus.UNSTABLE;
 
 @ActionDescription("Displays build output for jenkins jobs that are not successful.")
+@ActionStateAccess(reads = "draft.jobBuilds.jenkins")
 public class DisplayBuildOutputForJenkinsJobs extends BaseCommitWithJenkinsBuildsAction {
 
     public DisplayBuildOutputForJenkinsJobs(WorkflowConfig config) {
@@ -25,9 +27,9 @@ public class DisplayBuildOutputForJenkinsJobs extends BaseCommitWithJenkinsBuild
     @Override
     public void process() {
         if (jenkinsConfig.includeInProgressBuilds) {
-            jenkins.logOutputForBuildsMatchingResult(draft, jenkinsConfig.logLineCount, FAILURE, UNSTABLE, BUILDING);
+            jenkins.logOutputForBuildsMatchingResult(draft, jenkinsConfig.logLineCount, jenkinsConfig.followInProgressBuilds, FAILURE, UNSTABLE, BUILDING);
         } else {
-            jenkins.logOutputForBuildsMatchingResult(draft, jenkinsConfig.logLineCount, FAILURE, UNSTABLE);
+            jenkins.logOutputForBuildsMatchingResult(draft, jenkinsConfig.logLineCount, jenkinsConfig.followInProgressBuilds, FAILURE, UNSTABLE);
         }
     }
 }
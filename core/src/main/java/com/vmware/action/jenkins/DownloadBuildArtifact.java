@@ -1,5 +1,6 @@
 package com.vmware.action.jenkins;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -37,11 +38,26 @@ public class DownloadBuildArtifact extends BaseCommitWithJenkinsBuildsAction {
         String fullUrl = buildDetails.fullUrlForArtifact(matchingArtifact);
 
         String downloadedFileName = FileUtils.appendToFileName(matchingArtifact.fileName, buildDetails.number());
-        log.info("Downloading build artifact {}", fullUrl);
-        fileSystemConfig.fileData = IOUtils.read(fullUrl);
+        if (jenkinsConfig.streamArtifactToFile) {
+            File downloadedFile = determineDownloadFile(downloadedFileName);
+            log.info("Downloading build artifact {} to {}", fullUrl, downloadedFile.getPath());
+            IOUtils.downloadToFile(fullUrl, downloadedFile);
+            replacementVariables.addVariable(ReplacementVariables.VariableName.LAST_DOWNLOADED_FILE_PATH, downloadedFile.getAbsolutePath());
+        } else {
+            log.info("Downloading build artifact {}", fullUrl);
+            fileSystemConfig.fileData = IOUtils.read(fullUrl);
+        }
         replacementVariables.addVariable(ReplacementVariables.VariableName.LAST_DOWNLOADED_FILE_NAME, downloadedFileName);
     }
 
+    private File determineDownloadFile(String downloadedFileName) {
+        if (StringUtils.isEmpty(fileSystemConfig.destinationFile)) {
+            return new File(downloadedFileName);
+        }
+        File destinationFile = new File(fileSystemConfig.destinationFile);
+        return destinationFile.isDirectory() ? new File(destinationFile, downloadedFileName) : destinationFile;
+    }
+
     private JobBuild getJobBuildDetails() {
         JobBuild buildDetails;
         if (jenkinsConfig.hasConfiguredArtifact()) {
@@ -1,6 +1,9 @@
 package com.vmware.action.jenkins;
 
+import java.io.File;
+
 import com.vmware.config.ActionDescription;
+import com.vmware.config.ReplacementVariables;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.util.StringUtils;
 
@@ -13,7 +16,7 @@ public class DownloadBuildArtifactIfNeeded extends DownloadBuildArtifact {
     @Override
     public void checkIfActionShouldBeSkipped() {
         super.checkIfActionShouldBeSkipped();
-        if (StringUtils.isNotBlank(fileSystemConfig.fileData) && !jenkinsConfig.alwaysDownload) {
+        if (artifactAlreadyLoaded() && !jenkinsConfig.alwaysDownload) {
             skipActionDueTo("artifact {} has already been loaded, use flag --always-download to override and select a build to use",
                     jenkinsConfig.jobArtifact);
         }
@@ -21,9 +24,17 @@ public class DownloadBuildArtifactIfNeeded extends DownloadBuildArtifact {
 
     @Override
     public void process() {
-        if (StringUtils.isEmpty(fileSystemConfig.fileData)) {
+        if (!jenkinsConfig.streamArtifactToFile && StringUtils.isEmpty(fileSystemConfig.fileData)) {
             log.info("No file data loaded for artifact {}", jenkinsConfig.jobArtifact);
         }
         super.process();
     }
+
+    private boolean artifactAlreadyLoaded() {
+        if (!jenkinsConfig.streamArtifactToFile) {
+            return StringUtils.isNotBlank(fileSystemConfig.fileData);
+        }
+        String downloadedFilePath = replacementVariables.getVariable(ReplacementVariables.VariableName.LAST_DOWNLOADED_FILE_PATH.name());
+        return StringUtils.isNotBlank(downloadedFilePath) && new File(downloadedFilePath).exists();
+    }
 }
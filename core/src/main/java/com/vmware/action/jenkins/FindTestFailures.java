@@ -16,11 +16,11 @@ import com.vmware.util.IOUtils;
 import com.vmware.util.MatcherUtils;
 import com.vmware.util.StopwatchUtils;
 import com.vmware.util.StringUtils;
+import com.vmware.util.ThreadUtils;
 import com.vmware.util.UrlUtils;
 import com.vmware.util.collection.BlockingExecutorService;
 import com.vmware.util.db.DbUtils;
 import com.vmware.util.logging.Padder;
-import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.text.SimpleDateFormat;
@@ -32,6 +32,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
@@ -79,6 +81,7 @@ public class FindTestFailures extends BaseAction {
                 jenkinsConfig.jenkinsView, generationDate, jenkinsConfig.numberOfFailuresNeededToBeConsistentlyFailing);
         File destinationFile = new File(fileSystemConfig.destinationFile);
         createDbUtilsIfNeeded();
+        upgradeDatabaseIfNeeded();
         HomePage homePage;
         if (jenkinsConfig.regenerateHtml) {
             log.info("Regenerating failing tests html pages just from database test results");
@@ -86,11 +89,10 @@ public class FindTestFailures extends BaseAction {
             homePage.setDbUtils(dbUtils);
             homePage.populateFromDb(jenkinsConfig.jenkinsView, jenkinsConfig.numberOfFailuresNeededToBeConsistentlyFailing);
         } else {
-            this.jenkinsExecutor = new BlockingExecutorService<>(6, () -> {
-                LoggerFactory.getLogger(FindTestFailures.class).debug("Creating new jenkins service");
-                return serviceLocator.newJenkins();
-            });
-            homePage = serviceLocator.getJenkins().getHomePage();
+            // jenkins connections are pooled per host so the same instance is shared, executor limits concurrent requests
+            Jenkins jenkins = serviceLocator.getJenkins();
+            this.jenkinsExecutor = new BlockingExecutorService<>(6, () -> jenkins);
+            homePage = jenkins.getHomePage();
             Arrays.stream(homePage.views).forEach(HomePage.View::fixViewUrlIfNeeded);
         }
         List<HomePage.View> matchingViews = Arrays.stream(homePage.views).filter(view -> view.matches(jenkinsConfig.jenkinsView)).collect(toList());
@@ -177,9 +179,21 @@ public class FindTestFailures extends BaseAction {
         log.info("Using database {} for test results", fileSystemConfig.databaseUrl);
         dbUtils = new DbUtils(new File(fileSystemConfig.databaseDriverFile), fileSystemConfig.databaseDriverClass,
                 fileSystemConfig.databaseUrl, fileSystemConfig.dbConnectionProperties());
+        dbUtils.setBatchSize(fileSystemConfig.databaseBatchSize);
+        dbUtils.setMaxConnections(fileSystemConfig.databaseMaxConnections);
         dbUtils.createConnection();
     }
 
+    /**
+     * Builds are always saved with an artifacts fingerprint, so databases created before the column was added are upgraded once.
+     */
+    private void upgradeDatabaseIfNeeded() {
+        if (dbUtils != null && !dbUtils.columnExists("job_build", "artifacts_fingerprint")) {
+            log.info("Adding artifacts_fingerprint column to job_build table");
+            dbUtils.executeSqlScript(new ClasspathResource("/testFailuresTemplate/databaseUpgrade.sql", this.getClass()).getText());
+        }
+    }
+
     private String createViewListingHtml(List<HomePage.View> matchingViews, long elapsedTime) {
         Comparator<HomePage.View> viewComparator = Comparator.comparing(HomePage.View::htmlFileName);
         String viewListingHtml = matchingViews.stream().sorted(viewComparator)
@@ -364,12 +378,7 @@ public class FindTestFailures extends BaseAction {
 
         StopwatchUtils.Stopwatch stopwatch = StopwatchUtils.start();
 
-        jobsToCheckForFailingTests.forEach(job -> {
-            job.saveFetchedBuildsInfo();
-            job.addTestResultsToMasterList();
-            job.saveTestResultsToDb();
-            job.removeOldBuilds(jenkinsConfig.maxJenkinsBuildsToKeep);
-        });
+        saveJobsToDb(jobsToCheckForFailingTests);
 
         jobsToCheckForFailingTests.forEach(job -> {
             List<TestResult> failingTests = job.createFailingTestsList(jenkinsConfig.maxJenkinsBuildsToCheck, jenkinsConfig.numberOfFailuresNeededToBeConsistentlyFailing);
@@ -385,8 +394,37 @@ public class FindTestFailures extends BaseAction {
         log.info("Created failing test lists for {} jobs in {} milliseconds", jobsToCheckForFailingTests.size(), stopwatch.elapsedTime());
     }
 
+    private void saveJobsToDb(List<Job> jobs) {
+        if (dbUtils == null || dbUtils.getMaxConnections() == 1) {
+            jobs.forEach(this::saveJobToDb);
+            return;
+        }
+
+        // each job is saved on its own database connection so that jobs can be saved concurrently
+        ExecutorService dbExecutor = ThreadUtils.newDaemonThreadPool("db", dbUtils.getMaxConnections());
+        try {
+            List<CompletableFuture<Void>> saveFutures = jobs.stream()
+                    .map(job -> CompletableFuture.runAsync(() -> saveJobToDb(job), dbExecutor)).collect(toList());
+            ThreadUtils.joinAll(saveFutures);
+        } finally {
+            dbExecutor.shutdown();
+        }
+    }
+
+    private void saveJobToDb(Job job) {
+        job.saveFetchedBuildsInfo();
+        job.addTestResultsToMasterList();
+        job.saveTestResultsToDb();
+        job.removeOldBuilds(jenkinsConfig.maxJenkinsBuildsToKeep);
+    }
+
     private void fetchLatestTestResults(Job job) {
         job.fetchedResults = Collections.emptyList();
+        JobBuild lastSyncedBuild = jenkinsConfig.incrementalSync ? job.lastSyncedBuild() : null;
+        if (lastSyncedBuild != null && fetchTestResultsSinceLastSyncedBuild(job, lastSyncedBuild)) {
+            return;
+        }
+
         List<JobBuild> builds = Arrays.asList(job.builds);
 
         if (jenkinsConfig.refetchCount > jenkinsConfig.maxJenkinsBuildsToCheck) {
@@ -432,6 +470,58 @@ public class FindTestFailures extends BaseAction {
         }
     }
 
+    /**
+     * Fetches details for the latest builds in one request and only fetches test results for builds newer than the last synced build.
+     * Builds within the refetch count are refetched only if their test result artifacts have changed.
+     * @return false if build numbers appear to have been reset for the job so the last synced build cannot be used
+     */
+    private boolean fetchTestResultsSinceLastSyncedBuild(Job job, JobBuild lastSyncedBuild) {
+        List<JobBuild> latestBuilds = jenkinsExecutor.execute(j -> j.getLatestJobBuilds(job, jenkinsConfig.maxJenkinsBuildsToCheck));
+        if (latestBuilds.isEmpty()) {
+            job.usefulBuilds = new ArrayList<>();
+            return true;
+        }
+        JobBuild latestBuild = latestBuilds.get(0);
+        if (latestBuild.buildNumber < lastSyncedBuild.buildNumber && latestBuild.buildTimestamp > lastSyncedBuild.buildTimestamp) {
+            log.info("Build numbers for {} appear to have been reset, latest build {} is newer than last synced build {}",
+                    job.name, latestBuild.buildNumber, lastSyncedBuild.buildNumber);
+            return false;
+        }
+
+        int refetchCount = Math.min(jenkinsConfig.refetchCount, latestBuilds.size());
+        List<JobBuild> buildsToRefetch = latestBuilds.subList(0, refetchCount);
+
+        job.deleteBuildsMarkedAsDeleteIfPossible(latestBuilds);
+
+        job.usefulBuilds = latestBuilds.stream()
+                .filter(build -> build.status != null)
+                .filter(build -> build.buildNumber > lastSyncedBuild.buildNumber || buildsToRefetch.contains(build))
+                .peek(build -> build.setCommitIdForBuild(jenkinsConfig.commitIdInDescriptionPattern))
+                .collect(toList());
+
+        if (job.usefulBuilds.isEmpty()) {
+            log.info("No builds for {} newer than last synced build {}", job.name, lastSyncedBuild.buildNumber);
+            return true;
+        }
+
+        log.debug("Fetching {} {} for {}. Last synced build was {}", pluralizeDescription(job.usefulBuilds.size(), "build"),
+                job.usefulBuilds.stream().map(JobBuild::buildNumber).collect(Collectors.joining(",")), job.name, lastSyncedBuild.buildNumber);
+
+        job.fetchedResults = job.usefulBuilds.stream().parallel()
+                .filter(build -> build.status == SUCCESS || build.status == UNSTABLE || build.status == FAILURE)
+                .map(build -> jenkinsExecutor.execute(j -> {
+                    build.artifactsFingerprint = j.getArtifactsFingerprint(build, Jenkins.TESTNG_RESULTS_PATH_PATTERN);
+                    JobBuild savedBuild = job.savedBuild(build.buildNumber);
+                    if (savedBuild != null && savedBuild.hasSavedTestResults() && StringUtils.isNotBlank(build.artifactsFingerprint)
+                            && build.artifactsFingerprint.equals(savedBuild.artifactsFingerprint)) {
+                        log.info("Skipping refetch of {} as test result artifacts are unchanged", build.name);
+                        return null;
+                    }
+                    return j.getJobBuildTestResultsViaTestNGResultFiles(build);
+                })).filter(Objects::nonNull).collect(toList());
+        return true;
+    }
+
     private String createJobFragment(int jobIndex, String viewUrl, Job fullDetails, List<TestResult> failingMethods) {
         String jobFragmentFile = failingMethods.isEmpty() ? "/testFailuresTemplate/jobNoFailures.html" : "/testFailuresTemplate/jobFailures.html";
         String jobFragment = new ClasspathResource(jobFragmentFile, this.getClass()).getText();
@@ -3,6 +3,7 @@ package com.vmware.action.jira;
 import com.vmware.action.base.BaseBatchJiraAction;
 import com.vmware.config.ActionDescription;
 import com.vmware.config.WorkflowConfig;
+import com.vmware.http.BulkRequestExecutor.BulkResults;
 import com.vmware.jira.domain.Issue;
 import com.vmware.util.exception.FatalException;
 
@@ -37,14 +38,13 @@ public class CreateIssues extends BaseBatchJiraAction {
                 potentialIssueToCreate.fields.project = issueToBaseProjectAndComponentOff.fields.project;
                 potentialIssueToCreate.fields.components = issueToBaseProjectAndComponentOff.fields.components;
             }
+        }
 
-            Issue createdIssue = jira.createIssue(potentialIssueToCreate);
-            potentialIssueToCreate.setKey(createdIssue.getKey());
-            potentialIssueToCreate.id = createdIssue.id;
-            potentialIssueToCreate.self = createdIssue.self;
-            log.info("Created issue with key {}, summary: {}",
-                    createdIssue.getKey(), potentialIssueToCreate.getSummary());
+        BulkResults<Issue> results = jira.createIssues(issuesToCreate);
+        for (Issue createdIssue : results.getSucceededItems()) {
+            log.info("Created issue with key {}, summary: {}", createdIssue.getKey(), createdIssue.getSummary());
         }
+        results.throwIfAnyFailed(Issue::getSummary);
     }
 
     private Issue getBaselineIssue() {
@@ -2,7 +2,7 @@ package com.vmware.action.jira;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -11,13 +11,15 @@ import com.vmware.config.ActionDescription;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.config.jira.IssueTypeDefinition;
 import com.vmware.jira.domain.Issue;
-import com.vmware.jira.domain.IssueType;
-import com.vmware.jira.domain.IssuesResponse;
 import com.vmware.jira.domain.SearchRequest;
+import com.vmware.util.CollectionUtils;
+import com.vmware.util.exception.FatalException;
 
 @ActionDescription("Loads all stories and subtasks for a specific epic id.")
 public class LoadAllIssuesForEpic extends BaseBatchJiraAction {
 
+    private static final int MAX_PARENT_KEYS_PER_SEARCH = 100;
+
     public LoadAllIssuesForEpic(WorkflowConfig config) {
         super(config);
         super.addFailWorkflowIfBlankProperties("epicId");
@@ -25,39 +27,35 @@ public class LoadAllIssuesForEpic extends BaseBatchJiraAction {
 
     @Override
     public void process() {
-        Issue epicIssue = jira.getIssueByKey(jiraConfig.epicId);
+        Issue epicIssue = jira.getIssuesByKeys(Collections.singletonList(jiraConfig.epicId), "summary", "issuetype").get(jiraConfig.epicId);
+        if (epicIssue == null) {
+            throw new FatalException("Issue {} does not exist", jiraConfig.epicId);
+        }
         IssueTypeDefinition definition = epicIssue.fields.issuetype.definition;
         if (definition != IssueTypeDefinition.Epic) {
             throw new RuntimeException("Issue " + jiraConfig.epicId + " is not an EPIC. It is of type " + definition.name());
         }
         log.info("Loading all stories and subtasks for Jira epic {}: {}", jiraConfig.epicId, epicIssue.getSummary());
         String project = jiraConfig.epicId.split("-")[0];
-        IssuesResponse foundStories = search(String.format("project = %s AND \"EPIC Link\" = %s", project, jiraConfig.epicId));
-        log.info("Found {} stories for epic {}", foundStories.total, foundStories.total);
-
-        List<Issue> allIssuesForEpic = new ArrayList<>();
+        List<Issue> foundStories = search(String.format("project = %s AND \"EPIC Link\" = %s", project, jiraConfig.epicId));
+        log.info("Found {} stories for epic {}", foundStories.size(), jiraConfig.epicId);
 
-        if (foundStories.issues != null) {
-            allIssuesForEpic.addAll(Arrays.asList(foundStories.issues));
-            String storyKeys = Arrays.stream(foundStories.issues).map(Issue::getKey).collect(Collectors.joining(","));
+        List<Issue> allIssuesForEpic = new ArrayList<>(foundStories);
 
-            IssuesResponse allSubtasks = search("parent in (" + storyKeys + ")");
-
-            /*List<Issue> allSubtasks = Arrays.stream(foundIssues.issues).limit(1).map(story -> {
-                IssuesResponse foundSubtasks = search(String.format("project = %s AND parent = %s", project, story.getKey()));
-                log.info(foundSubtasks.total + " results");
-                return Arrays.asList(foundSubtasks.issues);
-            }).flatMap(Collection::stream).collect(Collectors.toList());*/
-            log.info("Found {} subtasks for epic {}", allSubtasks.total, jiraConfig.epicId);
-            if (allSubtasks.issues != null) {
-                allIssuesForEpic.addAll(Arrays.asList(allSubtasks.issues));
-            }
+        List<String> storyKeys = foundStories.stream().map(Issue::getKey).collect(Collectors.toList());
+        List<Issue> allSubtasks = new ArrayList<>();
+        for (List<String> storyKeysBatch : CollectionUtils.partition(storyKeys, MAX_PARENT_KEYS_PER_SEARCH)) {
+            allSubtasks.addAll(search("parent in (" + String.join(",", storyKeysBatch) + ")"));
+        }
+        if (!storyKeys.isEmpty()) {
+            log.info("Found {} subtasks for epic {}", allSubtasks.size(), jiraConfig.epicId);
         }
+        allIssuesForEpic.addAll(allSubtasks);
 
         projectIssues.addAllIssues(allIssuesForEpic);
     }
 
-    private IssuesResponse search(String jql) {
+    private List<Issue> search(String jql) {
         SearchRequest searchRequest = new SearchRequest();
         searchRequest.jql = jql;
         log.info("Running Jira search: {}", searchRequest.jql);
@@ -66,6 +64,6 @@ public class LoadAllIssuesForEpic extends BaseBatchJiraAction {
         fieldsToInclude.addAll(jiraConfig.jiraCustomFieldNames.values());
         searchRequest.fields = fieldsToInclude.toArray(new String[0]);
         searchRequest.maxResults = 1000;
-        return jira.searchForIssues(searchRequest);
+        return jira.searchForAllIssues(searchRequest);
     }
 }
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.vmware.action.base.BaseBatchJiraAction;
@@ -56,7 +57,7 @@ public class LoadIssues extends BaseBatchJiraAction {
             log.warn("No issues can be used as they have all been estimated and configuration does not include estimated stories");
             return;
         }
-        List<Issue> issues = new ArrayList<>(Arrays.asList(jira.searchForIssues(searchRequest).issues));
+        List<Issue> issues = new ArrayList<>(jira.searchForAllIssues(searchRequest));
 
         if (!jiraConfig.includeStoriesWithEstimates) {
             removeIssuesWithStoryPoints(issues);
@@ -101,8 +102,9 @@ public class LoadIssues extends BaseBatchJiraAction {
             }
 
             log.info("Please enter parent epics to use");
-            List<String> epicSummaries = epics.stream()
-                    .map(epicKey -> epicKey + ": " + jira.getIssueByKey(epicKey).getSummary()).collect(Collectors.toList());
+            Map<String, Issue> epicIssues = jira.getIssuesByKeys(epics, "summary");
+            List<String> epicSummaries = epics.stream().map(epicKey -> epicKey + ": "
+                    + (epicIssues.containsKey(epicKey) ? epicIssues.get(epicKey).getSummary() : "(not found)")).collect(Collectors.toList());
             List<Integer> selectedIndices = InputUtils.readSelections(epicSummaries, "Epics", false);
             List<String> selectedParentEpics = selectedIndices.stream().map(epics::get).collect(Collectors.toList());
             issues = filterByFieldValues(issues, epic, selectedParentEpics);
@@ -3,11 +3,16 @@ package com.vmware.action.jira;
 import com.vmware.action.base.BaseBatchJiraAction;
 import com.vmware.config.ActionDescription;
 import com.vmware.config.WorkflowConfig;
+import com.vmware.http.BulkRequestExecutor.BulkResults;
 import com.vmware.jira.domain.Issue;
 import com.vmware.jira.domain.IssueStatusDefinition;
 import com.vmware.jira.domain.IssueTransition;
 import com.vmware.jira.domain.IssueTransitions;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.vmware.jira.domain.IssueResolutionDefinition.Fixed;
 import static com.vmware.jira.domain.IssueStatusDefinition.Closed;
 import static com.vmware.jira.domain.IssueStatusDefinition.Reopened;
@@ -15,6 +20,8 @@ import static com.vmware.jira.domain.IssueStatusDefinition.Resolved;
 
 @ActionDescription("Reopens specified issues that have no resolution and resolve them.")
 public class ReopenAndResolveIssues extends BaseBatchJiraAction{
+    private final Set<String> issueKeysReopenedByThisRun = ConcurrentHashMap.newKeySet();
+
     public ReopenAndResolveIssues(WorkflowConfig config) {
         super(config);
     }
@@ -27,39 +34,51 @@ public class ReopenAndResolveIssues extends BaseBatchJiraAction{
 
     @Override
     public void process() {
-        int processingCounter = 0;
-        for (Issue issueToReopen : projectIssues.getIssuesFromJira()) {
+        AtomicInteger processingCounter = new AtomicInteger();
+        BulkResults<Issue> results = jira.executeInBulk("issue reopening and resolving", projectIssues.getIssuesFromJira(), issueToReopen -> {
+            if (reopenAndResolveIssue(issueToReopen)) {
+                processingCounter.incrementAndGet();
+            }
+        });
+        log.info("Successfully reopened and resolved {} issues", processingCounter.get());
+        results.throwIfAnyFailed(Issue::getKey);
+    }
+
+    /**
+     * Issues reopened by this run are tracked so that a retry of a rate limited request resumes with resolving the issue.
+     */
+    private boolean reopenAndResolveIssue(Issue issueToReopen) {
+        if (issueToReopen.getResolution() != null) {
+            log.info("Issue {} already has a resolution of {}, skipping", issueToReopen.getKey(), issueToReopen.getResolution().name());
+            return false;
+        }
+
+        if (!issueKeysReopenedByThisRun.contains(issueToReopen.getKey())) {
+            if (issueToReopen.getStatus() != Closed && issueToReopen.getStatus() != Resolved) {
+                log.info("Issue {} has a status of {}, skipping", issueToReopen.getKey(), issueToReopen.getStatus().name());
+                return false;
+            }
             IssueTransition reopenTransition = getIssueTransition(issueToReopen, Reopened);
             if (reopenTransition == null) {
-                continue;
+                return false;
             }
 
             log.info("Reopening issue {} ({}) that has no resolution", issueToReopen.getKey(), issueToReopen.getSummary());
             jira.transitionIssue(reopenTransition);
-
-            IssueTransition resolveTransition = getIssueTransition(issueToReopen, Resolved);
-            if (resolveTransition == null) {
-                continue;
-            }
-
-            log.info("Resolving issue {} with a resolution of {}", issueToReopen.getKey(), Fixed.name());
-            jira.transitionIssue(resolveTransition, Fixed);
-            processingCounter++;
+            issueKeysReopenedByThisRun.add(issueToReopen.getKey());
         }
-        log.info("Successfully reopened and resolved {} issues", processingCounter);
-    }
 
-    private IssueTransition getIssueTransition(Issue issueToReopen, IssueStatusDefinition transitionForStatus) {
-        if (issueToReopen.getStatus() != Closed && issueToReopen.getStatus() != Resolved) {
-            log.info("Issue {} has a status of {}, skipping", issueToReopen.getKey(), issueToReopen.getStatus().name());
-            return null;
+        IssueTransition resolveTransition = getIssueTransition(issueToReopen, Resolved);
+        if (resolveTransition == null) {
+            return false;
         }
 
-        if (issueToReopen.getResolution() != null) {
-            log.info("Issue {} already has a resolution of {}, skipping", issueToReopen.getKey(), issueToReopen.getResolution().name());
-            return null;
-        }
+        log.info("Resolving issue {} with a resolution of {}", issueToReopen.getKey(), Fixed.name());
+        jira.transitionIssue(resolveTransition, Fixed);
+        return true;
+    }
 
+    private IssueTransition getIssueTransition(Issue issueToReopen, IssueStatusDefinition transitionForStatus) {
         IssueTransitions transitions = jira.getAllowedTransitions(issueToReopen.getKey());
         if (!transitions.canTransitionTo(transitionForStatus)) {
             log.info("Issue {} cannot be transitioned to {}", issueToReopen.getKey(), transitionForStatus.name());
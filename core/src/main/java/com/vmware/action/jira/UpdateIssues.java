@@ -26,7 +26,7 @@ public class UpdateIssues extends BaseBatchJiraAction {
         List<Issue> issuesFromJira = projectIssues.getIssuesFromJira();
         log.info("Updating {} issues", issuesFromJira.size());
 
-        for (Issue issueToUpdate : issuesFromJira) {
+        jira.executeInBulk("issue updates", issuesFromJira, issueToUpdate -> {
             try {
                 jira.updateIssue(issueToUpdate);
                 log.debug("Updated issue {}", issueToUpdate.getKey());
@@ -34,7 +34,7 @@ public class UpdateIssues extends BaseBatchJiraAction {
                 // ignore if the issue does not exist anymore in JIRA
                 log.info("Ignoring missing issue '{}'", issueToUpdate.getKey());
             }
-        }
+        }).throwIfAnyFailed(Issue::getKey);
     }
 
 }
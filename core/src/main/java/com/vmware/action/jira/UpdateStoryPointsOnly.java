@@ -8,6 +8,8 @@ import com.vmware.http.exception.NotFoundException;
 import com.vmware.util.StringUtils;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @ActionDescription("Bulk update the story points for jira issues.")
 public class UpdateStoryPointsOnly extends BaseBatchJiraAction {
@@ -27,26 +29,37 @@ public class UpdateStoryPointsOnly extends BaseBatchJiraAction {
         List<Issue> issuesFromJira = projectIssues.getIssuesFromJira();
         log.info("Setting story points for {} issues", issuesFromJira.size());
 
-        for (Issue issueToUpdate : issuesFromJira) {
-            try {
-                Number updatedPointsValue = issueToUpdate.fields.storyPoints;
-                String pointsDisplayValue = updatedPointsValue != null ? String.valueOf(updatedPointsValue) : "no";
-                Issue existingIssue = jira.getIssueByKey(issueToUpdate.getKey());
-                if (existingIssue.fields.storyPointsEqual(updatedPointsValue)) {
-                    log.info("Issue {} is already set at {} story points, no need to update"
-                            , issueToUpdate.getKey(), pointsDisplayValue);
-                    continue;
-                }
-                if (StringUtils.isNotEmpty(projectIssues.boardId)) {
-                    jira.updateIssueStoryPointsUsingAgileApi(issueToUpdate, projectIssues.boardId);
-                } else {
-                    jira.updateIssueStoryPointsOnly(issueToUpdate);
-                }
-                log.info("Updated story points to {} for issue {}", pointsDisplayValue, issueToUpdate.getKey());
-            } catch (NotFoundException e) {
-                // ignore if the issue does not exist anymore in JIRA
-                log.info("Ignoring missing issue '{}'", issueToUpdate.getKey());
+        String storyPointsFieldName = jiraConfig.jiraCustomFieldNames.get("storyPointsFieldName");
+        List<String> keys = issuesFromJira.stream().map(Issue::getKey).collect(Collectors.toList());
+        Map<String, Issue> existingIssues = storyPointsFieldName != null
+                ? jira.getIssuesByKeys(keys, storyPointsFieldName) : jira.getIssuesByKeys(keys);
+
+        jira.executeInBulk("story point updates", issuesFromJira, issueToUpdate -> updateStoryPoints(issueToUpdate, existingIssues))
+                .throwIfAnyFailed(Issue::getKey);
+    }
+
+    private void updateStoryPoints(Issue issueToUpdate, Map<String, Issue> existingIssues) {
+        try {
+            Number updatedPointsValue = issueToUpdate.fields.storyPoints;
+            String pointsDisplayValue = updatedPointsValue != null ? String.valueOf(updatedPointsValue) : "no";
+            Issue existingIssue = existingIssues.get(issueToUpdate.getKey());
+            if (existingIssue == null) {
+                throw new NotFoundException("Issue " + issueToUpdate.getKey() + " not found");
+            }
+            if (existingIssue.fields.storyPointsEqual(updatedPointsValue)) {
+                log.info("Issue {} is already set at {} story points, no need to update"
+                        , issueToUpdate.getKey(), pointsDisplayValue);
+                return;
+            }
+            if (StringUtils.isNotEmpty(projectIssues.boardId)) {
+                jira.updateIssueStoryPointsUsingAgileApi(issueToUpdate, projectIssues.boardId);
+            } else {
+                jira.updateIssueStoryPointsOnly(issueToUpdate);
             }
+            log.info("Updated story points to {} for issue {}", pointsDisplayValue, issueToUpdate.getKey());
+        } catch (NotFoundException e) {
+            // ignore if the issue does not exist anymore in JIRA
+            log.info("Ignoring missing issue '{}'", issueToUpdate.getKey());
         }
     }
 }
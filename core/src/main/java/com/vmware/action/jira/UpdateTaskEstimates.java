@@ -8,6 +8,8 @@ import com.vmware.jira.domain.Issue;
 import com.vmware.jira.domain.IssuesResponse;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.net.URISyntaxException;
 import java.text.ParseException;
 
@@ -42,17 +44,21 @@ public class UpdateTaskEstimates extends BaseAction {
 
     private void updateEstimatesIfNeeded(IssuesResponse tasks, String title) {
         log.info("Checking {}", title);
+        List<Issue> tasksToUpdate = new ArrayList<>();
         for (Issue task : tasks.issues) {
-            log.info("");
-            log.info("Checking issue {} ({})", task.getKey(), task.fields.summary);
             if (task.fields.originalEstimateInSeconds > 0) {
-                log.info("Issue already has an estimate value of {} hour(s) so skipping",
+                log.info("Issue {} ({}) already has an estimate value of {} hour(s) so skipping", task.getKey(), task.fields.summary,
                         HOURS.convert(task.fields.originalEstimateInSeconds, SECONDS));
-                continue;
+            } else {
+                tasksToUpdate.add(task);
             }
-            log.info("Updating issue's original estimate to {} hour(s)", jiraConfig.jiraTaskEstimateInHours);
-            jira.updateIssueEstimate(task.getKey(), jiraConfig.jiraTaskEstimateInHours);
-            log.info("Successfully updated jira issue");
+        }
+        if (!tasksToUpdate.isEmpty()) {
+            log.info("Updating original estimate to {} hour(s) for {} issue(s)", jiraConfig.jiraTaskEstimateInHours, tasksToUpdate.size());
+            jira.executeInBulk("estimate updates", tasksToUpdate, task -> {
+                jira.updateIssueEstimate(task.getKey(), jiraConfig.jiraTaskEstimateInHours);
+                log.info("Updated original estimate for issue {} ({})", task.getKey(), task.fields.summary);
+            }).throwIfAnyFailed(Issue::getKey);
         }
         log.info("");
     }
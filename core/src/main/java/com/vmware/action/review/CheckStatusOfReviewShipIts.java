@@ -2,9 +2,11 @@ package com.vmware.action.review;
 
 import com.vmware.action.base.BaseSetShipItReviewersList;
 import com.vmware.config.ActionDescription;
+import com.vmware.config.ActionStateAccess;
 import com.vmware.config.WorkflowConfig;
 
 @ActionDescription("Checks if the review has ship its.")
+@ActionStateAccess(writes = {"draft.reviewRequest", "draft.repoType", "draft.shipItReviewers"})
 public class CheckStatusOfReviewShipIts extends BaseSetShipItReviewersList {
     public CheckStatusOfReviewShipIts(WorkflowConfig config) {
         super(config);
@@ -2,6 +2,7 @@ package com.vmware.action.review;
 
 import com.vmware.action.base.BaseCommitUsingReviewBoardAction;
 import com.vmware.config.ActionDescription;
+import com.vmware.config.ActionStateAccess;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.reviewboard.domain.ReviewComment;
 import com.vmware.reviewboard.domain.DiffCommentStatus;
@@ -15,6 +16,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @ActionDescription("Displays open diff and general comments for review.")
+@ActionStateAccess(writes = {"draft.reviewRequest", "draft.repoType"})
 public class DisplayOpenReviewComments extends BaseCommitUsingReviewBoardAction {
     public DisplayOpenReviewComments(WorkflowConfig config) {
         super(config);
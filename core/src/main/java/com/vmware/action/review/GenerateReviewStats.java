@@ -5,8 +5,6 @@ import com.vmware.config.ActionDescription;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.config.section.CommitStatsConfig;
 import com.vmware.reviewboard.domain.ReviewRequest;
-import com.vmware.reviewboard.domain.ReviewRequestDiff;
-import com.vmware.reviewboard.domain.ReviewRequests;
 import com.vmware.reviewboard.domain.ReviewStatType;
 import com.vmware.reviewboard.domain.UserReview;
 import com.vmware.util.DateUtils;
@@ -18,10 +16,16 @@ import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import static com.vmware.util.StringUtils.pluralize;
 import static java.util.concurrent.TimeUnit.DAYS;
@@ -30,6 +34,8 @@ import static java.util.concurrent.TimeUnit.HOURS;
 @ActionDescription("Generate review board statistics for specified groups.")
 public class GenerateReviewStats extends BaseReviewBoardAction {
 
+    private static final int MAX_REVIEW_REQUESTS_IN_PROGRESS = 20;
+
     public GenerateReviewStats(WorkflowConfig config) {
         super(config);
     }
@@ -50,40 +56,31 @@ public class GenerateReviewStats extends BaseReviewBoardAction {
                 groupsToUse, Arrays.toString(statsConfig.fileCountRanges));
         long aMonthAgo = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(30);
 
-        ReviewRequests recentReviews =
-                reviewBoard.getReviewRequestsWithShipItsForGroups(groupsToUse, new Date(aMonthAgo));
-        if (recentReviews.review_requests == null || recentReviews.review_requests.length == 0) {
+        List<FileCountRangeStats> rangeStats = createFileCountRanges(statsConfig.fileCountRanges);
+        log.info("Retrieving user reviews and diff file counts for review requests");
+        int totalReviewsCount = addStatsForReviewRequests(
+                reviewBoard.getReviewRequestsWithShipItsForGroups(groupsToUse, new Date(aMonthAgo)), rangeStats);
+        if (totalReviewsCount == 0) {
             log.info("No review requests with ship its found for groups {}", groupsToUse);
             return;
         }
-        int totalReviewsCount = recentReviews.review_requests.length;
         log.info("Retrieved {} review requests for the last 30 days", totalReviewsCount);
 
-        fetchReviewInfoForRequests(recentReviews.review_requests);
-        fetchFileCountsForReviewRequests(recentReviews.review_requests);
-
         int filteredCount = 0;
-        for (int i = 0; i < statsConfig.fileCountRanges.length; i ++) {
-            int startRange = i == 0 ? 1 : statsConfig.fileCountRanges[i-1] + 1;
-            int endRange = statsConfig.fileCountRanges[i];
-            List<ReviewRequest> filteredRequests = filterReviewRequestsByMaxFileCount(recentReviews.review_requests,
-                    startRange, endRange);
-            Padder padder = new Padder("File count range {} -> {}, ({} requests)", startRange, endRange,
-                    filteredRequests.size());
-            if (filteredRequests.isEmpty()) {
+        for (FileCountRangeStats range : rangeStats) {
+            Padder padder = new Padder("File count range {} -> {}, ({} requests)", range.startRange, range.endRange,
+                    range.requestCount);
+            if (range.requestCount == 0) {
                 padder.infoTitle();
                 padder.infoTitle();
                 continue;
             }
-            filteredCount += filteredRequests.size();
-            Map<ReviewStatType, Double> averageStats = generateAverageStats(filteredRequests);
-            Map<ReviewStatType, ReviewRequest> highestStats = generateHighestStats(filteredRequests);
-
+            filteredCount += range.requestCount;
 
             padder.infoTitle();
-            printAverageStats(averageStats);
+            printAverageStats(range);
             log.info("");
-            printHighestStats(highestStats);
+            printHighestStats(range);
             padder.infoTitle();
         }
         log.info("Processed {} requests", filteredCount);
@@ -93,19 +90,68 @@ public class GenerateReviewStats extends BaseReviewBoardAction {
         }
     }
 
-    private void printHighestStats(Map<ReviewStatType, ReviewRequest> highestStats) {
+    /**
+     * User reviews and diffs are fetched in parallel for each review request as review requests are paged in.
+     * The number of review requests being fetched at once is limited so that memory use doesn't depend on the number of review requests.
+     * Only the stats per file count range are kept once a review request has been added to them.
+     */
+    private int addStatsForReviewRequests(Stream<ReviewRequest> reviewRequests, List<FileCountRangeStats> rangeStats) {
+        Semaphore requestsInProgress = new Semaphore(MAX_REVIEW_REQUESTS_IN_PROGRESS);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        int reviewRequestCount = 0;
+        Iterator<ReviewRequest> reviewRequestIterator = reviewRequests.iterator();
+        while (reviewRequestIterator.hasNext() && failure.get() == null) {
+            ReviewRequest reviewRequest = reviewRequestIterator.next();
+            requestsInProgress.acquireUninterruptibly();
+            reviewRequestCount++;
+            CompletableFuture<UserReview[]> userReviews = reviewBoard.getReviewsForReviewRequestAsync(reviewRequest.getReviewsLink());
+            CompletableFuture<Integer> fileCount = fetchFileCountForReviewRequest(reviewRequest);
+            userReviews.thenAcceptBoth(fileCount, (reviews, count) -> {
+                addUserReviewStats(reviewRequest, reviews);
+                reviewRequest.fileCount = count;
+                rangeStats.stream().filter(range -> range.includes(count)).forEach(range -> range.add(reviewRequest));
+            }).whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    failure.compareAndSet(null, cause instanceof RuntimeException
+                            ? (RuntimeException) cause : new RuntimeException(cause));
+                }
+                requestsInProgress.release();
+            });
+        }
+        requestsInProgress.acquireUninterruptibly(MAX_REVIEW_REQUESTS_IN_PROGRESS);
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return reviewRequestCount;
+    }
+
+    private List<FileCountRangeStats> createFileCountRanges(int[] fileCountRanges) {
+        List<FileCountRangeStats> rangeStats = new ArrayList<>();
+        for (int i = 0; i < fileCountRanges.length; i ++) {
+            int startRange = i == 0 ? 1 : fileCountRanges[i-1] + 1;
+            rangeStats.add(new FileCountRangeStats(startRange, fileCountRanges[i]));
+        }
+        return rangeStats;
+    }
+
+    private void printHighestStats(FileCountRangeStats range) {
         for (ReviewStatType statType : ReviewStatType.values()) {
             String label = StringUtils.splitOnCapitalization(statType.name());
-            ReviewRequest reviewRequest = highestStats.get(statType);
+            ReviewRequest reviewRequest = range.highestRequests.get(statType);
+            if (reviewRequest == null) {
+                log.info("Highest {} - none", label);
+                continue;
+            }
             long statValue = reviewRequest.stats.get(statType);
             log.info("Highest {} - {} (Request {})", label, formatStatValue(statType, statValue), reviewRequest.id);
         }
     }
 
-    private void printAverageStats(Map<ReviewStatType, Double> averageStats) {
+    private void printAverageStats(FileCountRangeStats range) {
         for (ReviewStatType statType : ReviewStatType.values()) {
             String label = StringUtils.splitOnCapitalization(statType.name());
-            log.info("Average {} - {}", label, formatStatValue(statType, averageStats.get(statType)));
+            log.info("Average {} - {}", label, formatStatValue(statType, range.averageValue(statType)));
         }
     }
 
@@ -124,89 +170,74 @@ public class GenerateReviewStats extends BaseReviewBoardAction {
         return pluralize(timeInHours, "hour");
     }
 
-    private List<ReviewRequest> filterReviewRequestsByMaxFileCount(ReviewRequest[] reviewRequests,
-                                                                   int startRange, int endRange) {
-        // allow for stupidity
-        startRange = Math.min(startRange, endRange);
-        endRange = Math.max(startRange, endRange);
-
-        List<ReviewRequest> filteredRequests = new ArrayList<ReviewRequest>();
-        for (ReviewRequest reviewRequest : reviewRequests) {
-            if (reviewRequest.fileCount >= startRange && reviewRequest.fileCount <= endRange) {
-                filteredRequests.add(reviewRequest);
+    private void addUserReviewStats(ReviewRequest recentReview, UserReview[] userReviews) {
+        Map<ReviewStatType, Long> stats = recentReview.stats;
+        for (UserReview userReview : userReviews) {
+            long duration = DateUtils.workWeekMinutesBetween(recentReview.timeAdded, userReview.timestamp);
+            for (ReviewStatType statType : ReviewStatType.values()) {
+                if (statType.isBasedOnDiffCount()) {
+                    continue;
+                }
+                if (statType.isBasedOnShipIt() && !userReview.ship_it) {
+                    continue;
+                }
+                Long existingValue = stats.get(statType);
+                if (existingValue == null) {
+                    stats.put(statType, duration);
+                } else if (statType.isHigherValueBetter() && duration > existingValue) {
+                    stats.put(statType, duration);
+                } else if (!statType.isHigherValueBetter() && duration < existingValue) {
+                    stats.put(statType, duration);
+                }
             }
         }
-        return filteredRequests;
     }
 
-    private Map<ReviewStatType, Double> generateAverageStats(List<ReviewRequest> reviewRequests) {
-        Map<ReviewStatType, Double> aggregateStatTypes = new HashMap<ReviewStatType, Double>();
-        for (ReviewStatType statType : ReviewStatType.values()) {
-            long totalValue = 0;
-            for (ReviewRequest reviewRequest : reviewRequests) {
-                long statValue = reviewRequest.stats.get(statType);
-                totalValue += statValue;
+    private CompletableFuture<Integer> fetchFileCountForReviewRequest(ReviewRequest reviewRequest) {
+        return reviewBoard.getDiffsForReviewRequestAsync(reviewRequest.getDiffsLink()).thenCompose(diffs -> {
+            reviewRequest.stats.put(ReviewStatType.diffCount, (long) diffs.length);
+            if (diffs.length == 0) {
+                return CompletableFuture.completedFuture(0);
             }
-            double averageValue = reviewRequests.isEmpty() ? 0 : (double) totalValue / (double) reviewRequests.size();
-            aggregateStatTypes.put(statType, averageValue);
-        }
-        return aggregateStatTypes;
+            return reviewBoard.getFilesCountForReviewRequestDiffAsync(diffs[diffs.length - 1].getFilesLink());
+        });
     }
 
-    private Map<ReviewStatType, ReviewRequest> generateHighestStats(List<ReviewRequest> reviewRequests) {
-        Map<ReviewStatType, ReviewRequest> aggregateStatTypes = new HashMap<ReviewStatType, ReviewRequest>();
-        for (ReviewStatType statType : ReviewStatType.values()) {
-            long highestValue = 0;
-            ReviewRequest requestToUse = null;
-            for (ReviewRequest reviewRequest : reviewRequests) {
-                Long requestValue = reviewRequest.stats.get(statType);
-                if (highestValue < requestValue) {
-                    highestValue = requestValue;
-                    requestToUse = reviewRequest;
-                }
-            }
-            aggregateStatTypes.put(statType, requestToUse);
+    /**
+     * Running totals and highest values for review requests with a file count in the range.
+     */
+    private static class FileCountRangeStats {
+        private final int startRange;
+        private final int endRange;
+        private int requestCount;
+        private final Map<ReviewStatType, Long> totalValues = new EnumMap<>(ReviewStatType.class);
+        private final Map<ReviewStatType, ReviewRequest> highestRequests = new EnumMap<>(ReviewStatType.class);
+
+        private FileCountRangeStats(int startRange, int endRange) {
+            this.startRange = startRange;
+            this.endRange = endRange;
+        }
+
+        private boolean includes(int fileCount) {
+            return fileCount >= Math.min(startRange, endRange) && fileCount <= Math.max(startRange, endRange);
         }
-        return aggregateStatTypes;
-    }
 
-    private void fetchReviewInfoForRequests(ReviewRequest[] recentReviews) {
-        log.info("Retrieving user review information for review requests");
-        for (ReviewRequest recentReview : recentReviews) {
-            Map<ReviewStatType, Long> stats = recentReview.stats;
-            UserReview[] userReviews = reviewBoard.getReviewsForReviewRequest(recentReview.getReviewsLink());
-            recentReview.userReviews = userReviews;
-            for (UserReview userReview : userReviews) {
-                long duration = DateUtils.workWeekMinutesBetween(recentReview.timeAdded, userReview.timestamp);
-                for (ReviewStatType statType : ReviewStatType.values()) {
-                    if (statType.isBasedOnDiffCount()) {
-                        continue;
-                    }
-                    if (statType.isBasedOnShipIt() && !userReview.ship_it) {
-                        continue;
-                    }
-                    Long existingValue = stats.get(statType);
-                    if (existingValue == null) {
-                        stats.put(statType, duration);
-                    } else if (statType.isHigherValueBetter() && duration > existingValue) {
-                        stats.put(statType, duration);
-                    } else if (!statType.isHigherValueBetter() && duration < existingValue) {
-                        stats.put(statType, duration);
-                    }
+        private synchronized void add(ReviewRequest reviewRequest) {
+            requestCount++;
+            for (ReviewStatType statType : ReviewStatType.values()) {
+                long statValue = reviewRequest.stats.getOrDefault(statType, 0L);
+                totalValues.merge(statType, statValue, Long::sum);
+                ReviewRequest highestRequest = highestRequests.get(statType);
+                long highestValue = highestRequest != null ? highestRequest.stats.get(statType) : 0;
+                if (highestValue < statValue) {
+                    highestRequests.put(statType, reviewRequest);
                 }
             }
         }
-    }
 
-    private void fetchFileCountsForReviewRequests(ReviewRequest[] reviewRequests) {
-        log.info("Retrieving diff file counts for review requests");
-        for (ReviewRequest reviewRequest : reviewRequests) {
-            ReviewRequestDiff[] diffs = reviewBoard.getDiffsForReviewRequest(reviewRequest.getDiffsLink());
-            reviewRequest.diffs = diffs;
-            reviewRequest.fileCount = reviewBoard.getFilesCountForReviewRequestDiff(diffs[diffs.length -1].getFilesLink());
-            reviewRequest.stats.put(ReviewStatType.diffCount, (long) reviewRequest.diffs.length);
+        private synchronized double averageValue(ReviewStatType statType) {
+            return requestCount == 0 ? 0 : (double) totalValues.getOrDefault(statType, 0L) / (double) requestCount;
         }
     }
 
-
 }
@@ -119,8 +119,8 @@ public class UploadReviewDiff extends BaseCommitUsingReviewBoardAction {
         addBaseCommitIdIfNeeded(diff, mergeBase);
         GitDiffToPerforceConverter diffConverter = new GitDiffToPerforceConverter(getLoggedInPerforceClient(),
                 git.lastSubmittedChangelistInfo().getChangelistId());
-        diff.path = diffConverter.convertAsBytes(git.diff(gitRepoConfig.parentBranchPath(), "HEAD", reviewBoard.supportsDiffWithRenames()));
-        diff.parent_diff_path = diffConverter.convertAsBytes(git.diff(mergeBase, gitRepoConfig.parentBranchPath(), reviewBoard.supportsDiffWithRenames()));
+        diff.path = git.diff(gitRepoConfig.parentBranchPath(), "HEAD", reviewBoard.supportsDiffWithRenames(), diffConverter::convertAsBytes);
+        diff.parent_diff_path = git.diff(mergeBase, gitRepoConfig.parentBranchPath(), reviewBoard.supportsDiffWithRenames(), diffConverter::convertAsBytes);
         return diff;
     }
 
@@ -1,25 +1,31 @@
 package com.vmware.action.ssh;
 
-import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 
 import com.jcraft.jsch.ChannelExec;
-import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
-import com.jcraft.jsch.Session;
 import com.vmware.action.base.BaseSshAction;
 import com.vmware.config.ActionDescription;
 import com.vmware.config.WorkflowConfig;
 import com.vmware.config.ssh.SiteConfig;
 import com.vmware.util.MatcherUtils;
 import com.vmware.util.StringUtils;
+import com.vmware.util.ThreadUtils;
+import com.vmware.util.exception.FatalException;
 import com.vmware.util.exception.RuntimeIOException;
 import com.vmware.util.input.InputUtils;
 import com.vmware.util.logging.DynamicLogger;
@@ -32,6 +38,7 @@ import org.slf4j.Logger;
 public class ExecuteSshCommand extends BaseSshAction {
 
     private static final String SANDBOX_BUILD_NUMBER = "$SANDBOX_BUILD";
+    private static final int OUTPUT_FILE_BUFFER_SIZE = 64 * 1024;
 
     public ExecuteSshCommand(WorkflowConfig config) {
         super(config);
@@ -39,15 +46,19 @@ public class ExecuteSshCommand extends BaseSshAction {
 
     @Override
     public void process() {
-        SiteConfig siteConfigToUse = createSshSiteConfig();
-        siteConfigToUse.validate();
+        List<SiteConfig> siteConfigsToUse = sshConfig.sshAllSiteVms ? createSshSiteConfigsForAllVms() : Collections.singletonList(createSshSiteConfig());
+        siteConfigsToUse.forEach(SiteConfig::validate);
 
         String sshCommand = sshConfig.sshCommand;
         if (StringUtils.isEmpty(sshCommand)) {
             sshCommand = InputUtils.readValueUntilNotBlank("Ssh command");
         }
         sshCommand = expandParametersInCommand(sshCommand);
-        executeSshCommand(siteConfigToUse, sshCommand);
+        if (sshConfig.sshAllSiteVms) {
+            executeSshCommandAgainstAllSites(siteConfigsToUse, sshCommand);
+        } else {
+            executeSshCommand(siteConfigsToUse.get(0), sshCommand);
+        }
     }
 
     protected String expandParametersInCommand(String sshCommand) {
@@ -70,54 +81,88 @@ public class ExecuteSshCommand extends BaseSshAction {
     protected void executeSshCommand(SiteConfig siteConfig, String command) {
         log.info("Executing ssh command for {}@{}", siteConfig.username, siteConfig.host);
         log.info("{}", command);
-        JSch jsch = new JSch();
-        Session session = null;
-        ChannelExec channel = null;
-        try {
-            session = jsch.getSession(siteConfig.username, siteConfig.host, siteConfig.portNumber());
-            session.setPassword(siteConfig.password);
-            session.setConfig("StrictHostKeyChecking", sshConfig.sshStrictHostChecking ? "yes" : "no");
-            session.connect((int) TimeUnit.SECONDS.toMillis(30));
+        Pattern outputFilter = outputFilter();
+        OutputStream outputFileStream = outputFileStream();
+        Padder commandOutputPadder = new Padder("Command {} output", command);
+        commandOutputPadder.infoTitle();
+        runCommand(siteConfig, command, "", outputFilter, outputFileStream);
+        commandOutputPadder.infoTitle();
+        closeOutputFileStream(outputFileStream);
+    }
 
-            channel = (ChannelExec) session.openChannel("exec");
-            channel.setInputStream(null);
-            channel.setCommand(command);
+    /**
+     * Runs the command against all sites in parallel, output lines are prefixed by the host they came from.
+     * The command is run against all sites even if it fails for some of them.
+     */
+    protected void executeSshCommandAgainstAllSites(List<SiteConfig> siteConfigs, String command) {
+        log.info("Executing ssh command for {} hosts", siteConfigs.size());
+        log.info("{}", command);
+        int hostWidth = siteConfigs.stream().mapToInt(siteConfig -> siteConfig.host.length()).max().orElse(1);
+        Pattern outputFilter = outputFilter();
+        OutputStream outputFileStream = outputFileStream();
+        List<String> failedHosts = new CopyOnWriteArrayList<>();
+        Padder commandOutputPadder = new Padder("Command {} output", command);
+        commandOutputPadder.infoTitle();
+        ExecutorService executor = ThreadUtils.newDaemonThreadPool("ssh", Math.max(1, siteConfigs.size()));
+        try {
+            List<CompletableFuture<Void>> commandFutures = siteConfigs.stream().map(siteConfig -> CompletableFuture.runAsync(() -> {
+                String outputPrefix = String.format("%-" + hostWidth + "s | ", siteConfig.host);
+                try {
+                    runCommand(siteConfig, command, outputPrefix, outputFilter, outputFileStream);
+                } catch (RuntimeException e) {
+                    log.error("{}Failed to execute command: {}", outputPrefix, e.getMessage());
+                    log.debug("Exception: {}", StringUtils.exceptionAsString(e));
+                    failedHosts.add(siteConfig.host);
+                }
+            }, executor)).collect(Collectors.toList());
+            ThreadUtils.joinAll(commandFutures);
+        } finally {
+            executor.shutdown();
+        }
+        commandOutputPadder.infoTitle();
+        closeOutputFileStream(outputFileStream);
+        if (!failedHosts.isEmpty()) {
+            throw new FatalException("Ssh command failed for hosts {}", failedHosts.toString());
+        }
+    }
 
-            readCommandOutput(channel, command);
-        } catch (JSchException | IOException e) {
+    private void runCommand(SiteConfig siteConfig, String command, String outputPrefix, Pattern outputFilter, OutputStream outputFileStream) {
+        ChannelExec channel = null;
+        try {
+            channel = openChannel(siteConfig, "exec", (ChannelExec execChannel) -> {
+                execChannel.setInputStream(null);
+                execChannel.setCommand(command);
+                execChannel.setErrStream(new LoggerOutputStream(execChannel, log, LogLevel.ERROR, null, outputPrefix, null));
+                execChannel.setOutputStream(new LoggerOutputStream(execChannel, log, LogLevel.INFO, outputFileStream, outputPrefix, outputFilter));
+            });
+            waitForChannelToFinish(channel);
+        } catch (JSchException e) {
             throw new RuntimeException(e);
         } finally {
             if (channel != null) {
                 channel.disconnect();
             }
-            if (session != null) {
-                session.disconnect();
-            }
         }
     }
 
-    private void readCommandOutput(ChannelExec channel, String command) throws JSchException, IOException {
-        BufferedWriter writer = outputWriter();
-
-        channel.setErrStream(new LoggerOutputStream(channel, log, LogLevel.ERROR, null));
-        channel.setOutputStream(new LoggerOutputStream(channel, log, LogLevel.INFO, writer));
-
-        Padder commandOutputPadder = new Padder("Command {} output", command);
-        commandOutputPadder.infoTitle();
-        channel.connect((int) TimeUnit.SECONDS.toMillis(5));
-        waitForChannelToFinish(channel);
-        commandOutputPadder.infoTitle();
-        if (writer != null) {
-            writer.close();
+    private Pattern outputFilter() {
+        if (StringUtils.isEmpty(sshConfig.sshOutputFilter)) {
+            return null;
+        }
+        try {
+            log.info("Only showing output lines matching {}", sshConfig.sshOutputFilter);
+            return Pattern.compile(sshConfig.sshOutputFilter);
+        } catch (PatternSyntaxException e) {
+            throw new FatalException("Invalid ssh output filter {}: {}", sshConfig.sshOutputFilter, e.getMessage());
         }
     }
 
-    private BufferedWriter outputWriter() {
+    private OutputStream outputFileStream() {
         try {
             if (StringUtils.isNotBlank(config.outputFile)) {
                 File outputFile = new File(config.outputFile);
                 log.info("Saving output to {}", outputFile.getAbsolutePath());
-                return new BufferedWriter(new FileWriter(outputFile));
+                return new BufferedOutputStream(new FileOutputStream(outputFile), OUTPUT_FILE_BUFFER_SIZE);
             } else {
                 return null;
             }
@@ -126,74 +171,160 @@ public class ExecuteSshCommand extends BaseSshAction {
         }
     }
 
+    private void closeOutputFileStream(OutputStream outputFileStream) {
+        if (outputFileStream == null) {
+            return;
+        }
+        try {
+            outputFileStream.close();
+        } catch (IOException e) {
+            throw new RuntimeIOException(e);
+        }
+    }
+
+    /**
+     * Splits the channel output into lines. Lines are only decoded when they are logged or need to be matched against the filter,
+     * otherwise the bytes are copied directly to the output file.
+     * JSch flushes after every packet so a partial line is kept until the rest of it is received or the channel is closed.
+     */
     private static class LoggerOutputStream extends OutputStream {
-        private static final String FORCE_DISCONNECT_MESSAGE = "forceDisconnect";
-        private final BufferedWriter writer;
+        private static final byte[] FORCE_DISCONNECT_MESSAGE = "forceDisconnect".getBytes(StandardCharsets.UTF_8);
 
-        private ByteArrayOutputStream baus = new ByteArrayOutputStream(1000);
-        private ChannelExec channel;
-        private DynamicLogger logger;
-        private LogLevel level;
+        private final ChannelExec channel;
+        private final DynamicLogger logger;
+        private final LogLevel level;
+        private final OutputStream outputFileStream;
+        private final String outputPrefix;
+        private final byte[] outputPrefixBytes;
+        private final Pattern outputFilter;
 
-        LoggerOutputStream(ChannelExec channel, Logger logger, LogLevel level, BufferedWriter writer) {
+        private byte[] partialLine = new byte[1024];
+        private int partialLineLength;
+        private boolean closed;
+
+        LoggerOutputStream(ChannelExec channel, Logger logger, LogLevel level, OutputStream outputFileStream, String outputPrefix, Pattern outputFilter) {
             this.channel = channel;
             this.logger = new DynamicLogger(logger);
             this.level = level;
-            this.writer = writer;
+            this.outputFileStream = outputFileStream;
+            this.outputPrefix = outputPrefix;
+            this.outputPrefixBytes = outputPrefix.getBytes(StandardCharsets.UTF_8);
+            this.outputFilter = outputFilter;
         }
 
         @Override
         public void write(int b) {
+            if (closed) {
+                return;
+            }
             if (b == '\n') {
-                String logMessage = baus.toString();
-                baus.reset();
-                if (!forceDisconnect(logMessage)) {
-                    logOrPrintOutput(logMessage);
-                }
+                outputPartialLine();
             } else {
-                baus.write(b);
+                appendToPartialLine(new byte[] {(byte) b}, 0, 1);
             }
         }
 
         @Override
-        public void flush() {
-            if (baus.size() <= 0) {
-                return;
+        public void write(byte[] bytes, int offset, int length) {
+            int lineStart = offset;
+            int end = offset + length;
+            for (int i = offset; i < end && !closed; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                if (partialLineLength > 0) {
+                    appendToPartialLine(bytes, lineStart, i - lineStart);
+                    outputPartialLine();
+                } else {
+                    outputLine(bytes, lineStart, i - lineStart);
+                }
+                lineStart = i + 1;
             }
-
-            String logMessage = baus.toString();
-            if (!forceDisconnect(logMessage)) {
-                logOrPrintOutput(logMessage);
+            if (!closed && lineStart < end) {
+                appendToPartialLine(bytes, lineStart, end - lineStart);
             }
         }
 
-        private void logOrPrintOutput(String logMessage) {
-            if (writer != null) {
+        @Override
+        public void flush() {
+            if (outputFileStream == null) {
+                return;
+            }
+            synchronized (outputFileStream) {
                 try {
-                    writer.write(logMessage);
-                    writer.newLine();
-                    writer.flush();
+                    outputFileStream.flush();
                 } catch (IOException e) {
                     throw new RuntimeIOException(e);
                 }
-            } else {
-                logger.log(level, logMessage);
             }
         }
 
-        private boolean forceDisconnect (String logMessage) {
-            if (FORCE_DISCONNECT_MESSAGE.equals(logMessage)) {
-                logger.log(LogLevel.INFO, "Closing connection as echo message {} detected", FORCE_DISCONNECT_MESSAGE);
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            if (partialLineLength > 0) {
+                outputPartialLine();
+            }
+            closed = true;
+            flush();
+        }
+
+        private void appendToPartialLine(byte[] bytes, int offset, int length) {
+            if (partialLineLength + length > partialLine.length) {
+                partialLine = Arrays.copyOf(partialLine, Math.max(partialLine.length * 2, partialLineLength + length));
+            }
+            System.arraycopy(bytes, offset, partialLine, partialLineLength, length);
+            partialLineLength += length;
+        }
+
+        private void outputPartialLine() {
+            int lineLength = partialLineLength;
+            partialLineLength = 0;
+            outputLine(partialLine, 0, lineLength);
+        }
+
+        private void outputLine(byte[] bytes, int offset, int length) {
+            if (isForceDisconnectMessage(bytes, offset, length)) {
+                logger.log(LogLevel.INFO, "Closing connection as echo message {} detected", new String(FORCE_DISCONNECT_MESSAGE, StandardCharsets.UTF_8));
+                closed = true;
                 channel.disconnect();
-                return true;
+                return;
+            }
+            String line = null;
+            if (outputFilter != null) {
+                line = new String(bytes, offset, length, StandardCharsets.UTF_8);
+                if (!outputFilter.matcher(line).find()) {
+                    return;
+                }
+            }
+            if (outputFileStream != null) {
+                // output file is shared when executing the command against multiple sites
+                synchronized (outputFileStream) {
+                    try {
+                        outputFileStream.write(outputPrefixBytes);
+                        outputFileStream.write(bytes, offset, length);
+                        outputFileStream.write('\n');
+                    } catch (IOException e) {
+                        throw new RuntimeIOException(e);
+                    }
+                }
             } else {
-                return false;
+                logger.log(level, outputPrefix + (line != null ? line : new String(bytes, offset, length, StandardCharsets.UTF_8)));
             }
         }
 
-        @Override
-        public void close() {
-            baus = null;
+        private boolean isForceDisconnectMessage(byte[] bytes, int offset, int length) {
+            if (length != FORCE_DISCONNECT_MESSAGE.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[offset + i] != FORCE_DISCONNECT_MESSAGE[i]) {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 }
@@ -1,6 +1,7 @@
 package com.vmware.action.ssh;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 import com.vmware.action.base.BaseSshAction;
 import com.vmware.config.ActionDescription;
@@ -12,6 +13,10 @@ import com.vmware.util.logging.LogLevel;
 
 @ActionDescription("Executes a rsync command using the specified source directory and destination directory")
 public class RsyncCommand extends BaseSshAction {
+    private static final String SSH_CONTROL_PERSIST_TIME = "10m";
+    private static final String SSH_CONTROL_PATH = "~/.ssh/workflow-%r@%h:%p";
+    private static final int SSH_MASTER_START_TIMEOUT_SECONDS = 30;
+
     public RsyncCommand(WorkflowConfig config) {
         super(config);
         super.addFailWorkflowIfBlankProperties("rsyncSourcePath", "rsyncDestinationPath");
@@ -27,9 +32,38 @@ public class RsyncCommand extends BaseSshAction {
     protected void executeRsyncCommand(SiteConfig siteConfig) {
         File sourcePath = FileUtils.determineFullPath(sshConfig.rsyncSourcePath);
         String rsyncDeleteFlag = sshConfig.rsyncDeleteRemovedFiles ? " --delete" : "";
-        String rsyncCommand = String.format("rsync -%s %s %s@%s:%s%s",
-                sshConfig.rsyncFlags, sourcePath.getPath(), siteConfig.username, siteConfig.host, sshConfig.rsyncDestinationPath, rsyncDeleteFlag);
+        String rsyncCommand = String.format("rsync -%s%s %s %s@%s:%s%s", sshConfig.rsyncFlags, remoteShellOption(siteConfig),
+                sourcePath.getPath(), siteConfig.username, siteConfig.host, sshConfig.rsyncDestinationPath, rsyncDeleteFlag);
         log.info("Executing rsync command {}", rsyncCommand);
         CommandLineUtils.executeCommand(rsyncCommand, LogLevel.INFO);
     }
+
+    /**
+     * rsync uses the ssh command rather than a pooled session, so ssh connection sharing is used instead.
+     * rsync only uses an existing master connection, if there is no master connection ssh connects as normal.
+     */
+    private String remoteShellOption(SiteConfig siteConfig) {
+        if (System.getProperty("os.name").toLowerCase().startsWith("windows")) {
+            return "";
+        }
+        startSshMasterConnectionIfNeeded(siteConfig);
+        return String.format(" -e \"ssh -p %s -o ControlPath=%s -o ControlMaster=no\"", siteConfig.portNumber(), SSH_CONTROL_PATH);
+    }
+
+    /**
+     * The master connection is kept open so that repeated rsync commands for the same site skip the ssh handshake.
+     * It is started separately with its output discarded, otherwise the rsync command would wait for the master connection to exit.
+     */
+    private void startSshMasterConnectionIfNeeded(SiteConfig siteConfig) {
+        String sshTarget = String.format("-p %s -o ControlPath=%s %s@%s", siteConfig.portNumber(), SSH_CONTROL_PATH,
+                siteConfig.username, siteConfig.host);
+        if (CommandLineUtils.executeCommandWithoutOutput("ssh -O check " + sshTarget, SSH_MASTER_START_TIMEOUT_SECONDS, TimeUnit.SECONDS) == 0) {
+            log.debug("Reusing ssh master connection for {}", siteConfig.host);
+            return;
+        }
+        String masterCommand = String.format("ssh -fNM -o BatchMode=yes -o ControlPersist=%s %s", SSH_CONTROL_PERSIST_TIME, sshTarget);
+        if (CommandLineUtils.executeCommandWithoutOutput(masterCommand, SSH_MASTER_START_TIMEOUT_SECONDS, TimeUnit.SECONDS) != 0) {
+            log.debug("Failed to start ssh master connection for {}, rsync will connect without it", siteConfig.host);
+        }
+    }
 }
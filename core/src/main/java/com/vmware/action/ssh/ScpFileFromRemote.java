@@ -6,13 +6,9 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
-import com.jcraft.jsch.Channel;
 import com.jcraft.jsch.ChannelSftp;
-import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
-import com.jcraft.jsch.Session;
 import com.jcraft.jsch.SftpException;
 import com.vmware.config.ActionDescription;
 import com.vmware.config.WorkflowConfig;
@@ -59,18 +55,9 @@ public class ScpFileFromRemote extends ExecuteSshCommand {
         } else if (StringUtils.isEmpty(sourceFile)) {
             exitDueToFailureCheck("source file is empty");
         }
-        JSch jsch = new JSch();
-        Session session = null;
-        Channel channel = null;
+        ChannelSftp sftpChannel = null;
         try {
-            session = jsch.getSession(siteConfig.username, siteConfig.host, siteConfig.portNumber());
-            session.setPassword(siteConfig.password);
-            session.setConfig("StrictHostKeyChecking", sshConfig.sshStrictHostChecking ? "yes" : "no");
-            session.connect((int) TimeUnit.SECONDS.toMillis(30));
-            channel = session.openChannel("sftp");
-            channel.connect();
-
-            ChannelSftp sftpChannel = (ChannelSftp) channel;
+            sftpChannel = openChannel(siteConfig, "sftp", channel -> {});
             if (StringUtils.isEmpty(destinationFile)) {
                 replacementVariables.addVariable(outputVariableName, readFile(sftpChannel, sourceFile));
             } else if (IN_MEMORY_FILE.equals(destinationFile)) {
@@ -87,11 +74,8 @@ public class ScpFileFromRemote extends ExecuteSshCommand {
                 throw new RuntimeException(e);
             }
         } finally {
-            if (channel != null) {
-                channel.disconnect();
-            }
-            if (session != null) {
-                session.disconnect();
+            if (sftpChannel != null) {
+                sftpChannel.disconnect();
             }
         }
     }
@@ -0,0 +1,21 @@
+package com.vmware.config;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Declares the shared workflow state that an action reads and writes.
+ * State names are either workflow values such as draft.reviewRequest or config command line values such as --jenkins-jobs.
+ * A name covers all nested names, e.g. draft covers draft.reviewRequest.
+ * Config values used by the action are also treated as read, based on the generated config mappings.
+ * Only actions with this annotation can be run in parallel with other actions, all other actions are run in declared order.
+ */
+@Target(TYPE)
+@Retention(RUNTIME)
+public @interface ActionStateAccess {
+    String[] reads() default {};
+    String[] writes() default {};
+}
@@ -36,6 +36,8 @@ public class WorkflowAction implements Action {
 
     private final List<WorkflowParameter> overriddenConfigValues = new ArrayList<>();
 
+    private final Set<String> configValuesUsed;
+
     private BaseAction instantiatedAction;
 
 
@@ -47,6 +49,7 @@ public class WorkflowAction implements Action {
         this.actionClass = actionClass;
         this.actionClassesToCheck = ReflectionUtils.collectClassHierarchyInDescendingOrder(actionClass).stream()
                 .map(clazz -> (Class<? extends BaseAction>) clazz).collect(Collectors.toList());
+        this.configValuesUsed = mappings.getConfigValuesForAction(this, false);
         setWorkflowParametersForAction(mappings, parameters);
     }
 
@@ -142,6 +145,25 @@ public class WorkflowAction implements Action {
         }
     }
 
+    /**
+     * Actions that override config values change the shared config whilst running so they can't run in parallel.
+     * @return whether the action declares the workflow state it uses via {@link ActionStateAccess}
+     */
+    public boolean canRunInParallel() {
+        return actionClass.isAnnotationPresent(ActionStateAccess.class) && overriddenConfigValues.isEmpty();
+    }
+
+    /**
+     * @param earlierAction action declared before this action in the workflow
+     * @return whether this action has to wait for the earlier action to finish
+     */
+    public boolean dependsOn(WorkflowAction earlierAction) {
+        if (!canRunInParallel() || !earlierAction.canRunInParallel()) {
+            return true;
+        }
+        return stateOverlaps(writtenState(), earlierAction.usedState()) || stateOverlaps(earlierAction.writtenState(), usedState());
+    }
+
     public List<WorkflowParameter> getOverriddenConfigValues() {
         return config.applyReplacementVariables(overriddenConfigValues);
     }
@@ -168,6 +190,23 @@ public class WorkflowAction implements Action {
         return configValues;
     }
 
+    private Set<String> writtenState() {
+        return new HashSet<>(asList(actionClass.getAnnotation(ActionStateAccess.class).writes()));
+    }
+
+    private Set<String> usedState() {
+        ActionStateAccess stateAccess = actionClass.getAnnotation(ActionStateAccess.class);
+        Set<String> usedState = new HashSet<>(configValuesUsed);
+        usedState.addAll(asList(stateAccess.reads()));
+        usedState.addAll(asList(stateAccess.writes()));
+        return usedState;
+    }
+
+    private boolean stateOverlaps(Set<String> firstState, Set<String> secondState) {
+        return firstState.stream().anyMatch(firstName -> secondState.stream().anyMatch(secondName -> firstName.equals(secondName)
+                || firstName.startsWith(secondName + ".") || secondName.startsWith(firstName + ".")));
+    }
+
     private void resetConfigValues() {
         if (!overriddenConfigValues.isEmpty()) {
             config.applyValuesWithSource(existingValuesForConfig);
@@ -176,9 +215,8 @@ public class WorkflowAction implements Action {
     }
 
     private void setWorkflowParametersForAction(ConfigMappings mappings, List<WorkflowParameter> parameters) {
-        Set<String> allowedConfigValues = mappings.getConfigValuesForAction(this, false);
         Set<String> unknownParameters = parameters.stream().map(WorkflowParameter::getName)
-                .filter(name -> !paramIsAllowed(allowedConfigValues, name)).collect(Collectors.toSet());
+                .filter(name -> !paramIsAllowed(configValuesUsed, name)).collect(Collectors.toSet());
 
         if (!unknownParameters.isEmpty()) {
             Set<String> allConfigValues = mappings.allConfigValues();
@@ -14,6 +14,7 @@ import com.vmware.AddBuildInfoToInternalConfig;
 import com.vmware.config.commandLine.CommandLineArgumentsParser;
 import com.vmware.config.section.PerforceClientConfig;
 import com.vmware.http.HttpConnection;
+import com.vmware.http.HttpResponseCache;
 import com.vmware.http.json.ConfiguredGsonBuilder;
 import com.vmware.util.ClasspathResource;
 import com.vmware.util.StringUtils;
@@ -30,6 +31,8 @@ import org.slf4j.LoggerFactory;
  * Parses the workflow config from the source config files
  */
 public class WorkflowConfigParser {
+    private static final String HTTP_CACHE_DIRECTORY = ".workflowToolHttpCache";
+
     private final Logger log = LoggerFactory.getLogger(this.getClass());
     private final Git git = new Git();
     private final Gson gson = new ConfiguredGsonBuilder().setPrettyPrinting().build();
@@ -75,6 +78,10 @@ public class WorkflowConfigParser {
         log.debug("Loaded config files: {}", config.getConfigurableFields().loadedConfigFilesText());
 
         HttpConnection.alwaysDisableHostnameVerification = config.disableHostnameVerification;
+        if (config.httpCache) {
+            File cacheDirectory = new File(System.getProperty("user.home"), HTTP_CACHE_DIRECTORY);
+            HttpConnection.responseCache = new HttpResponseCache(cacheDirectory, config.httpCacheMaxSize * 1024L * 1024L, config.httpCacheTimeToLive);
+        }
         parseUsernameIfBlank(config);
 
         config.applyReplacementVariables();
@@ -0,0 +1,93 @@
+package com.vmware.ssh;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.vmware.config.ssh.SiteConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps ssh sessions open so that commands run against the same site don't each need a new ssh handshake.
+ * Sessions are keyed by username, host and port and are reconnected if the connection was lost.
+ * The pool is kept for the whole workflow, or for the whole shell session when running in shell mode.
+ */
+public class SshSessionPool {
+
+    private static final int CONNECT_TIMEOUT_SECONDS = 30;
+    private static final int SERVER_ALIVE_INTERVAL_SECONDS = 30;
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final JSch jsch = new JSch();
+
+    private final Map<String, PooledSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Only the session for the site is locked while connecting so that sessions for different sites can be opened in parallel.
+     */
+    public Session session(SiteConfig siteConfig, boolean strictHostChecking) throws JSchException {
+        String key = sessionKey(siteConfig);
+        PooledSession pooledSession = sessions.computeIfAbsent(key, value -> new PooledSession());
+        synchronized (pooledSession) {
+            if (pooledSession.session != null && pooledSession.session.isConnected()) {
+                log.debug("Reusing ssh session for {}", key);
+                return pooledSession.session;
+            }
+            if (pooledSession.session != null) {
+                log.debug("Reconnecting ssh session for {}", key);
+            }
+            pooledSession.session = connect(siteConfig, strictHostChecking);
+            return pooledSession.session;
+        }
+    }
+
+    /**
+     * Disconnects the session for the site, should be used if a channel for the session failed.
+     */
+    public void invalidate(SiteConfig siteConfig) {
+        PooledSession pooledSession = sessions.remove(sessionKey(siteConfig));
+        if (pooledSession != null) {
+            pooledSession.disconnect();
+        }
+    }
+
+    public void disconnectAll() {
+        if (!sessions.isEmpty()) {
+            log.debug("Disconnecting {} ssh sessions", sessions.size());
+        }
+        sessions.values().forEach(PooledSession::disconnect);
+        sessions.clear();
+    }
+
+    private Session connect(SiteConfig siteConfig, boolean strictHostChecking) throws JSchException {
+        Session session = jsch.getSession(siteConfig.username, siteConfig.host, siteConfig.portNumber());
+        session.setPassword(siteConfig.password);
+        session.setConfig("StrictHostKeyChecking", strictHostChecking ? "yes" : "no");
+        session.setServerAliveInterval((int) TimeUnit.SECONDS.toMillis(SERVER_ALIVE_INTERVAL_SECONDS));
+        // pooled sessions shouldn't stop the jvm from exiting
+        session.setDaemonThread(true);
+        session.connect((int) TimeUnit.SECONDS.toMillis(CONNECT_TIMEOUT_SECONDS));
+        return session;
+    }
+
+    private String sessionKey(SiteConfig siteConfig) {
+        return siteConfig.username + "@" + siteConfig.host + ":" + siteConfig.portNumber();
+    }
+
+    private static class PooledSession {
+        private Session session;
+
+        private synchronized void disconnect() {
+            if (session != null) {
+                session.disconnect();
+                session = null;
+            }
+        }
+    }
+}
@@ -31,7 +31,8 @@ create table job_build (
     failed_count int NOT NULL,
     skipped_count int NOT NULL,
     build_timestamp bigint NOT NULL,
-    duration bigint NOT NULL
+    duration bigint NOT NULL,
+    artifacts_fingerprint varchar
 );
 
 create table test_result (
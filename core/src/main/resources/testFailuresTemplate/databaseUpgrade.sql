@@ -0,0 +1 @@
+alter table job_build add column if not exists artifacts_fingerprint varchar;
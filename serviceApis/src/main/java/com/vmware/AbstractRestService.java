@@ -1,6 +1,8 @@
 package com.vmware;
 
 import com.vmware.http.HttpConnection;
+import com.vmware.http.HttpMethodType;
+import com.vmware.http.HttpResponse;
 import com.vmware.http.cookie.ApiAuthentication;
 import com.vmware.http.exception.ApiException;
 import com.vmware.http.exception.NotFoundException;
@@ -10,23 +12,41 @@ import com.vmware.http.exception.NotAuthorizedException;
 import com.vmware.util.ThreadUtils;
 import com.vmware.util.exception.RuntimeIOException;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Base class for all rest services.
  * Subclasses need to implement the authentication methods.
+ * Async variants of the request methods run on a bounded executor shared by all rest services.
  */
 public abstract class AbstractRestService extends AbstractService {
 
+    private static final int MAX_CONCURRENT_ASYNC_REQUESTS = 10;
+    private static ExecutorService asyncRequestExecutor;
+
     protected HttpConnection connection;
 
     protected AbstractRestService(String baseUrl, String apiPath, ApiAuthentication credentialsType, String username) {
         super(baseUrl, apiPath, credentialsType, username);
     }
 
+    /**
+     * Compressed responses are requested by default.
+     * Request body compression is off by default as not all servers accept compressed request bodies.
+     */
+    public void setHttpCompression(boolean useResponseCompression, boolean compressLargeRequestBodies) {
+        connection.setUseResponseCompression(useResponseCompression);
+        connection.setCompressLargeRequestBodies(compressLargeRequestBodies);
+    }
+
     @Override
     public boolean isBaseUriTrusted() {
         return connection.isUriTrusted(URI.create(baseUrl));
@@ -53,6 +73,7 @@ public abstract class AbstractRestService extends AbstractService {
             if (allowedExceptionTypes.contains(e.getClass())) {
                 throw e;
             }
+            connection.recordRetry(HttpMethodType.POST, url);
             connectionIsAuthenticated = false;
             setupAuthenticatedConnection();
             return connection.post(url, requestBody, params);
@@ -67,16 +88,77 @@ public abstract class AbstractRestService extends AbstractService {
         try {
             return connection.get(url, responseConversionClass, params);
         } catch (NotAuthorizedException | ForbiddenException e) {
+            connection.recordRetry(HttpMethodType.GET, url);
             connectionIsAuthenticated = false;
             setupAuthenticatedConnection();
             return connection.get(url, responseConversionClass, params);
         } catch (NotFoundException | RuntimeIOException e) {
+            connection.recordRetry(HttpMethodType.GET, url);
             ThreadUtils.sleep(3, TimeUnit.SECONDS);
             log.info("Retrying GET for url " + url);
             return connection.get(url, responseConversionClass, params);
         }
     }
 
+    /**
+     * Same retry handling as get but the response is read from the http response cache if it is enabled.
+     * Only use for responses that rarely change.
+     */
+    protected <T> T getCached(String url, Class<T> responseConversionClass, RequestParam... params) {
+        String serviceName = serviceName();
+        try {
+            return connection.getCached(url, responseConversionClass, serviceName, cacheIdentity(), params);
+        } catch (NotAuthorizedException | ForbiddenException e) {
+            connection.recordRetry(HttpMethodType.GET, url);
+            connectionIsAuthenticated = false;
+            setupAuthenticatedConnection();
+            return connection.getCached(url, responseConversionClass, serviceName, cacheIdentity(), params);
+        } catch (NotFoundException | RuntimeIOException e) {
+            connection.recordRetry(HttpMethodType.GET, url);
+            ThreadUtils.sleep(3, TimeUnit.SECONDS);
+            log.info("Retrying GET for url " + url);
+            return connection.getCached(url, responseConversionClass, serviceName, cacheIdentity(), params);
+        }
+    }
+
+    /**
+     * Same retry handling as get but the response body is passed as a stream to the handler.
+     */
+    protected <T> T getStreamed(String url, Function<InputStream, T> responseStreamHandler, RequestParam... params) {
+        try {
+            return connection.getStreamed(url, responseStreamHandler, params);
+        } catch (NotAuthorizedException | ForbiddenException e) {
+            connection.recordRetry(HttpMethodType.GET, url);
+            connectionIsAuthenticated = false;
+            setupAuthenticatedConnection();
+            return connection.getStreamed(url, responseStreamHandler, params);
+        } catch (NotFoundException | RuntimeIOException e) {
+            connection.recordRetry(HttpMethodType.GET, url);
+            ThreadUtils.sleep(3, TimeUnit.SECONDS);
+            log.info("Retrying GET for url " + url);
+            return connection.getStreamed(url, responseStreamHandler, params);
+        }
+    }
+
+    /**
+     * Same retry handling as get but only the response headers are returned.
+     */
+    protected HttpResponse head(String url, RequestParam... params) {
+        try {
+            return connection.head(url, params);
+        } catch (NotAuthorizedException | ForbiddenException e) {
+            connection.recordRetry(HttpMethodType.HEAD, url);
+            connectionIsAuthenticated = false;
+            setupAuthenticatedConnection();
+            return connection.head(url, params);
+        } catch (NotFoundException | RuntimeIOException e) {
+            connection.recordRetry(HttpMethodType.HEAD, url);
+            ThreadUtils.sleep(3, TimeUnit.SECONDS);
+            log.info("Retrying HEAD for url " + url);
+            return connection.head(url, params);
+        }
+    }
+
     protected <T> T put(String url, Class<T> responseConversionClass, Object requestBody, RequestParam... params) {
         return put(url, responseConversionClass, requestBody, Collections.emptyList(), params);
     }
@@ -89,6 +171,7 @@ public abstract class AbstractRestService extends AbstractService {
             if (allowedExceptions.contains(e.getClass())) {
                 throw e;
             }
+            connection.recordRetry(HttpMethodType.PUT, url);
             connectionIsAuthenticated = false;
             setupAuthenticatedConnection();
             return connection.put(url, responseConversionClass, requestBody, params);
@@ -103,6 +186,7 @@ public abstract class AbstractRestService extends AbstractService {
             if (allowedExceptions.contains(e.getClass())) {
                 throw e;
             }
+            connection.recordRetry(HttpMethodType.PATCH, url);
             connectionIsAuthenticated = false;
             setupAuthenticatedConnection();
             return connection.patch(url, responseConversionClass, requestBody, params);
@@ -121,9 +205,53 @@ public abstract class AbstractRestService extends AbstractService {
             if (allowedExceptionTypes.contains(e.getClass())) {
                 throw e;
             }
+            connection.recordRetry(HttpMethodType.DELETE, url);
             connectionIsAuthenticated = false;
             setupAuthenticatedConnection();
             return connection.delete(url, params);
         }
     }
+
+    /**
+     * Runs a blocking request on the shared async request executor, e.g. a public service method with its own request handling.
+     */
+    protected <T> CompletableFuture<T> supplyAsync(Supplier<T> request) {
+        return CompletableFuture.supplyAsync(request, asyncRequestExecutor());
+    }
+
+    protected <T> CompletableFuture<T> getAsync(String url, Class<T> responseConversionClass, RequestParam... params) {
+        return CompletableFuture.supplyAsync(() -> get(url, responseConversionClass, params), asyncRequestExecutor());
+    }
+
+    protected <T> CompletableFuture<T> postAsync(String url, Class<T> responseConversionClass, Object requestBody, RequestParam... params) {
+        return CompletableFuture.supplyAsync(() -> post(url, responseConversionClass, requestBody, params), asyncRequestExecutor());
+    }
+
+    protected <T> CompletableFuture<T> putAsync(String url, Class<T> responseConversionClass, Object requestBody, RequestParam... params) {
+        return CompletableFuture.supplyAsync(() -> put(url, responseConversionClass, requestBody, params), asyncRequestExecutor());
+    }
+
+    protected <T> CompletableFuture<T> patchAsync(String url, Class<T> responseConversionClass, Object requestBody, RequestParam... params) {
+        return CompletableFuture.supplyAsync(() -> patch(url, responseConversionClass, requestBody, Collections.emptyList(), params),
+                asyncRequestExecutor());
+    }
+
+    protected <T> CompletableFuture<T> deleteAsync(String url, RequestParam... params) {
+        return CompletableFuture.supplyAsync(() -> delete(url, params), asyncRequestExecutor());
+    }
+
+    /**
+     * @return name used for service specific config such as the http cache time to live, e.g. reviewBoard
+     */
+    public String serviceName() {
+        String className = this.getClass().getSimpleName();
+        return Character.toLowerCase(className.charAt(0)) + className.substring(1);
+    }
+
+    private static synchronized ExecutorService asyncRequestExecutor() {
+        if (asyncRequestExecutor == null) {
+            asyncRequestExecutor = ThreadUtils.newDaemonThreadPool("AsyncRestRequest", MAX_CONCURRENT_ASYNC_REQUESTS);
+        }
+        return asyncRequestExecutor;
+    }
 }
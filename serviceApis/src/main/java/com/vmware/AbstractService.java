@@ -55,7 +55,7 @@ public abstract class AbstractService {
         return connectionIsAuthenticated;
     }
 
-    public void setupAuthenticatedConnection() {
+    public synchronized void setupAuthenticatedConnection() {
         connectionIsAuthenticated = ThreadUtils.retryFunctionUntilSucceeds((retryCount) -> {
             if (isConnectionAuthenticated()) {
                 return true;
@@ -80,6 +80,13 @@ public abstract class AbstractService {
 
     public abstract boolean isBaseUriTrusted();
 
+    /**
+     * @return identifies the user so that cached responses are not shared between users
+     */
+    protected String cacheIdentity() {
+        return credentialsType + ":" + username;
+    }
+
     public String getUsername() {
         if (StringUtils.isEmpty(username)) {
             throw new RuntimeException("Username is empty, please set workflow config value username or git config --global user.email [your email address]");
@@ -8,6 +8,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
 
 import com.google.gson.FieldNamingPolicy;
 import com.vmware.AbstractRestService;
@@ -95,6 +96,10 @@ public class Github extends AbstractRestService {
         return get(pullRequestUrl(ownerName, repoName, pullNumber), PullRequest.class);
     }
 
+    public CompletableFuture<PullRequest> getPullRequestAsync(String ownerName, String repoName, long pullNumber) {
+        return supplyAsync(() -> getPullRequest(ownerName, repoName, pullNumber));
+    }
+
     public void mergePullRequest(PullRequest pullRequest, String mergeMethod, String commitTitle, String commitMessage) {
         setupAuthenticatedConnection();
         PullMergeRequest pullMergeRequest = new PullMergeRequest();
@@ -155,7 +160,7 @@ public class Github extends AbstractRestService {
     }
 
     public ReleaseAsset[] getReleaseAssets(String releasePath) {
-        return connection.get(UrlUtils.addRelativePaths(apiUrl, releasePath, "assets"), ReleaseAsset[].class);
+        return connection.getCached(UrlUtils.addRelativePaths(apiUrl, releasePath, "assets"), ReleaseAsset[].class, serviceName(), cacheIdentity());
     }
 
     @Override
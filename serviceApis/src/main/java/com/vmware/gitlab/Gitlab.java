@@ -5,6 +5,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import com.google.gson.FieldNamingPolicy;
@@ -58,10 +59,18 @@ public class Gitlab extends AbstractRestService {
         return get(mergeRequestUrl(projectId, mergeRequestId), MergeRequest.class);
     }
 
+    public CompletableFuture<MergeRequest> getMergeRequestAsync(int projectId, int mergeRequestId) {
+        return supplyAsync(() -> getMergeRequest(projectId, mergeRequestId));
+    }
+
     public MergeRequestApprovals getMergeRequestApprovals(int projectId, int mergeRequestId) {
         return get(mergeRequestUrl(projectId, mergeRequestId) + "/approvals", MergeRequestApprovals.class);
     }
 
+    public CompletableFuture<MergeRequestApprovals> getMergeRequestApprovalsAsync(int projectId, int mergeRequestId) {
+        return supplyAsync(() -> getMergeRequestApprovals(projectId, mergeRequestId));
+    }
+
     public MergeRequestApprovalRule[] getMergeRequestApprovalRules(int projectId, int mergeRequestId) {
         return get(mergeRequestUrl(projectId, mergeRequestId) + "/approval_rules", MergeRequestApprovalRule[].class);
     }
@@ -0,0 +1,158 @@
+package com.vmware.http;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.vmware.http.exception.TooManyRequestsException;
+import com.vmware.util.ThreadUtils;
+import com.vmware.util.exception.FatalException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes a request for each item with a limited number of requests in progress at a time.
+ * If the server responds with 429 Too Many Requests, all requests are paused for the Retry-After period and the request is retried.
+ * A failed item doesn't stop the remaining items from being processed, failures are returned per item.
+ */
+public class BulkRequestExecutor {
+
+    private static final int MAX_RATE_LIMITED_RETRIES = 5;
+    private static final long MAX_RETRY_WAIT_SECONDS = 60;
+    private static final int PROGRESS_LOG_INTERVAL = 50;
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final String threadNamePrefix;
+    private final int maxConcurrentRequests;
+    private final AtomicLong pausedUntilNanos = new AtomicLong(System.nanoTime());
+
+    public BulkRequestExecutor(String threadNamePrefix, int maxConcurrentRequests) {
+        this.threadNamePrefix = threadNamePrefix;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * @param description used for logging progress, e.g. issue updates
+     */
+    public <T> BulkResults<T> execute(String description, Collection<T> items, Consumer<T> request) {
+        BulkResults<T> results = new BulkResults<>(description, items.size());
+        if (items.isEmpty()) {
+            return results;
+        }
+        ExecutorService executor = ThreadUtils.newDaemonThreadPool(threadNamePrefix, Math.min(maxConcurrentRequests, items.size()));
+        try {
+            AtomicInteger completedCount = new AtomicInteger();
+            List<CompletableFuture<Void>> requestFutures = items.stream().map(item -> CompletableFuture.runAsync(() -> {
+                executeWithRetries(item, request, results);
+                int completed = completedCount.incrementAndGet();
+                if (completed % PROGRESS_LOG_INTERVAL == 0 && completed < items.size()) {
+                    log.info("Completed {} of {} {}", completed, items.size(), description);
+                }
+            }, executor)).collect(Collectors.toList());
+            ThreadUtils.joinAll(requestFutures);
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private <T> void executeWithRetries(T item, Consumer<T> request, BulkResults<T> results) {
+        for (int retryCount = 0; ; retryCount++) {
+            waitIfPaused();
+            try {
+                request.accept(item);
+                results.addSuccess(item);
+                return;
+            } catch (TooManyRequestsException tme) {
+                if (retryCount == MAX_RATE_LIMITED_RETRIES) {
+                    results.addFailure(item, tme);
+                    return;
+                }
+                long waitSeconds = tme.getRetryAfterSeconds() >= 0
+                        ? tme.getRetryAfterSeconds() : Math.min(MAX_RETRY_WAIT_SECONDS, 1L << (retryCount + 1));
+                log.info("Rate limited by server, pausing {} for {} seconds", results.description, waitSeconds);
+                pauseFor(waitSeconds);
+            } catch (RuntimeException e) {
+                results.addFailure(item, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Pausing is shared by all requests as the rate limit applies to all of them.
+     */
+    private void pauseFor(long seconds) {
+        long pauseEndTime = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        pausedUntilNanos.accumulateAndGet(pauseEndTime, (existing, updated) -> existing - updated > 0 ? existing : updated);
+    }
+
+    private void waitIfPaused() {
+        long waitTime;
+        while ((waitTime = pausedUntilNanos.get() - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(waitTime);
+        }
+    }
+
+    public static class BulkResults<T> {
+        private final String description;
+        private final int itemCount;
+        private final List<T> succeededItems = Collections.synchronizedList(new ArrayList<>());
+        private final List<ItemFailure<T>> failures = Collections.synchronizedList(new ArrayList<>());
+
+        public BulkResults(String description, int itemCount) {
+            this.description = description;
+            this.itemCount = itemCount;
+        }
+
+        public void addSuccess(T item) {
+            succeededItems.add(item);
+        }
+
+        public void addFailure(T item, RuntimeException exception) {
+            failures.add(new ItemFailure<>(item, exception));
+        }
+
+        public List<T> getSucceededItems() {
+            return succeededItems;
+        }
+
+        public List<ItemFailure<T>> getFailures() {
+            return failures;
+        }
+
+        /**
+         * Logs every failure before failing so that all failed items can be fixed at once.
+         */
+        public void throwIfAnyFailed(Function<T, String> itemName) {
+            if (failures.isEmpty()) {
+                return;
+            }
+            Logger log = LoggerFactory.getLogger(BulkRequestExecutor.class);
+            failures.forEach(failure -> log.error("Failed {} for {}: {}", description, itemName.apply(failure.item), failure.exception.getMessage()));
+            throw new FatalException("{} of {} {} failed", String.valueOf(failures.size()), String.valueOf(itemCount), description);
+        }
+    }
+
+    public static class ItemFailure<T> {
+        public final T item;
+        public final RuntimeException exception;
+
+        private ItemFailure(T item, RuntimeException exception) {
+            this.item = item;
+            this.exception = exception;
+        }
+    }
+}
@@ -1,26 +1,33 @@
 package com.vmware.http;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.ProtocolException;
 import java.net.SocketException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLException;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.MalformedJsonException;
 import com.vmware.http.cookie.ApiAuthentication;
 import com.vmware.http.cookie.Cookie;
 import com.vmware.http.cookie.CookieFileStore;
@@ -46,6 +53,7 @@ import org.slf4j.LoggerFactory;
 
 import static com.vmware.http.HttpMethodType.DELETE;
 import static com.vmware.http.HttpMethodType.GET;
+import static com.vmware.http.HttpMethodType.HEAD;
 import static com.vmware.http.HttpMethodType.PATCH;
 import static com.vmware.http.HttpMethodType.POST;
 import static com.vmware.http.HttpMethodType.PUT;
@@ -54,23 +62,40 @@ import static com.vmware.http.request.RequestHeader.anAcceptHeader;
 
 /**
  * Using Java's HttpURLConnection instead of Apache HttpClient to cut down on jar size
+ * Connections are not explicitly disconnected so that the underlying socket can be reused for the next request to the same host.
+ * Per request state is thread local so a single instance can be used by multiple threads.
  */
 public class HttpConnection {
 
     private static final Logger log = LoggerFactory.getLogger(HttpConnection.class.getName());
     private static final int CONNECTION_TIMEOUT = (int) TimeUnit.MILLISECONDS.convert(25, TimeUnit.SECONDS);
+    private static final String MAX_KEEP_ALIVE_CONNECTIONS_PER_HOST = "20";
     public static final int MAX_REQUEST_RETRIES = 3;
+    private static final int MIN_REQUEST_BODY_SIZE_TO_COMPRESS = 8 * 1024;
 
     public static boolean alwaysDisableHostnameVerification;
 
+    public static HttpResponseCache responseCache;
+
+    static {
+        // HttpURLConnection reuses persistent connections per host via the jdk keep alive cache, default of 5 is too low for parallel requests
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", MAX_KEEP_ALIVE_CONNECTIONS_PER_HOST);
+        }
+    }
+
     private final CookieFileStore cookieFileStore;
     private WorkflowCertificateManager workflowCertificateManager = null;
-    private Gson gson;
+    private volatile Gson gson;
     private RequestBodyHandling requestBodyHandling;
     private final RequestParams requestParams;
-    private HttpURLConnection activeConnection;
+    private final ThreadLocal<HttpURLConnection> activeConnection = new ThreadLocal<>();
+    private final ThreadLocal<RequestParams> activeRequestParams = new ThreadLocal<>();
+    private final ThreadLocal<HttpRequestMetrics.RequestTimer> activeRequestTimer = new ThreadLocal<>();
     private boolean useSessionCookies;
     private boolean disableHostnameVerification;
+    private boolean useResponseCompression = true;
+    private boolean compressLargeRequestBodies;
 
     public HttpConnection(RequestBodyHandling requestBodyHandling) {
         this(requestBodyHandling, new ConfiguredGsonBuilder().build());
@@ -129,18 +154,85 @@ public class HttpConnection {
     public <T> T executeApiRequest(HttpMethodType methodType, String url, Class<T> responseConversionClass, Object requestObject, RequestParam[] params) {
         Padder requestPadder = new Padder("{} {}", methodType.name(), url);
         requestPadder.debugTitle();
-        setupConnection(url, methodType, params);
-        RequestBodyFactory.setRequestDataForConnection(this, requestObject);
-        T response = handleServerResponse(url, responseConversionClass, methodType, params);
-        requestPadder.debugTitle();;
-        return response;
+        try {
+            setupConnection(url, methodType, params);
+            T response = timeRequest(methodType, () -> {
+                RequestBodyFactory.setRequestDataForConnection(this, requestObject);
+                return handleServerResponse(url, responseConversionClass, methodType, params);
+            });
+            requestPadder.debugTitle();
+            return response;
+        } finally {
+            activeConnection.remove();
+            activeRequestParams.remove();
+        }
+    }
+
+    /**
+     * Passes the response body stream to the handler instead of reading the whole response into memory.
+     */
+    public <T> T executeStreamedRequest(HttpMethodType methodType, String url, Function<InputStream, T> responseStreamHandler,
+                                        Object requestObject, RequestParam[] params) {
+        Padder requestPadder = new Padder("{} {}", methodType.name(), url);
+        requestPadder.debugTitle();
+        try {
+            setupConnection(url, methodType, params);
+            T response = timeRequest(methodType, () -> {
+                RequestBodyFactory.setRequestDataForConnection(this, requestObject);
+                return handleServerResponseStream(responseStreamHandler, methodType, params);
+            });
+            requestPadder.debugTitle();
+            return response;
+        } finally {
+            activeConnection.remove();
+            activeRequestParams.remove();
+        }
+    }
+
+    public <T> T getStreamed(String url, Function<InputStream, T> responseStreamHandler, RequestParam... params) {
+        return executeStreamedRequest(GET, url, responseStreamHandler, null, params);
     }
 
+    /**
+     * Uses the response cache if it has been enabled, otherwise the same as get.
+     * @param serviceName used to look up the time to live for cached responses
+     * @param cacheIdentity identifies the user the request is authenticated as
+     */
+    public <T> T getCached(String url, Class<T> responseConversionClass, String serviceName, String cacheIdentity, RequestParam... params) {
+        HttpResponseCache cache = responseCache;
+        if (cache == null) {
+            return get(url, responseConversionClass, params);
+        }
+        Padder requestPadder = new Padder("{} {}", GET.name(), url);
+        requestPadder.debugTitle();
+        try {
+            setupConnection(url, GET, params);
+            String fullUrl = activeConnection.get().getURL().toString();
+            String cacheKey = HttpResponseCache.cacheKey(GET.name(), fullUrl, cacheIdentity);
+            HttpResponseCache.CachedResponse cachedResponse = cache.get(cacheKey);
+            String responseText;
+            if (cachedResponse != null && cache.isFresh(serviceName, cachedResponse)) {
+                log.debug("Using cached response for {}", fullUrl);
+                responseText = cachedResponse.content;
+            } else {
+                responseText = timeRequest(GET, () -> getWithRevalidation(cache, cacheKey, cachedResponse, params));
+            }
+            requestPadder.debugTitle();
+            return convertResponseText(responseText, responseConversionClass);
+        } finally {
+            activeConnection.remove();
+            activeRequestParams.remove();
+        }
+    }
 
     public <T> T get(String url, Class<T> responseConversionClass, RequestParam... params) {
         return executeApiRequest(GET, url, responseConversionClass, null, params);
     }
 
+    public HttpResponse head(String url, RequestParam... params) {
+        return executeApiRequest(HEAD, url, HttpResponse.class, null, params);
+    }
+
     public <T> T patch(String url, Class<T> responseConversionClass, Object requestObject, RequestParam... params) {
         return executeApiRequest(PATCH, url, responseConversionClass, requestObject, params);
     }
@@ -183,11 +275,22 @@ public class HttpConnection {
     }
 
     public void setRequestProperty(String name, String value) {
-        activeConnection.setRequestProperty(name, value);
+        activeConnection.get().setRequestProperty(name, value);
     }
 
     public OutputStream getOutputStream() throws IOException {
-        return activeConnection.getOutputStream();
+        connectAndRecordTime();
+        HttpRequestMetrics.RequestTimer timer = activeRequestTimer.get();
+        OutputStream outputStream = activeConnection.get().getOutputStream();
+        return timer != null ? timer.countBytesOut(outputStream) : outputStream;
+    }
+
+    public void recordRetry(HttpMethodType methodType, String url) {
+        try {
+            HttpRequestMetrics.getInstance().recordRetry(methodType.name(), URI.create(url).toURL());
+        } catch (IllegalArgumentException | IOException e) {
+            log.debug("Not recording retry for invalid url {}", url);
+        }
     }
 
     public RequestBodyHandling getRequestBodyHandling() {
@@ -195,13 +298,34 @@ public class HttpConnection {
     }
 
     public void setDoOutput(boolean value) {
-        activeConnection.setDoOutput(value);
+        activeConnection.get().setDoOutput(value);
     }
 
     public void setUseSessionCookies(boolean useSessionCookies) {
         this.useSessionCookies = useSessionCookies;
     }
 
+    public void setUseResponseCompression(boolean useResponseCompression) {
+        this.useResponseCompression = useResponseCompression;
+    }
+
+    public void setCompressLargeRequestBodies(boolean compressLargeRequestBodies) {
+        this.compressLargeRequestBodies = compressLargeRequestBodies;
+    }
+
+    /**
+     * Large request bodies are gzip compressed if request body compression is enabled.
+     * Should only be enabled for servers that accept compressed request bodies.
+     */
+    public OutputStream getRequestBodyOutputStream(int bodyLength) throws IOException {
+        if (compressLargeRequestBodies && bodyLength >= MIN_REQUEST_BODY_SIZE_TO_COMPRESS) {
+            log.debug("Compressing request body of {}", StringUtils.humanReadableSize(bodyLength));
+            setRequestProperty("Content-Encoding", "gzip");
+            return new GZIPOutputStream(getOutputStream());
+        }
+        return getOutputStream();
+    }
+
     public void setDisableHostnameVerification(boolean disableHostnameVerification) {
         this.disableHostnameVerification = disableHostnameVerification;
     }
@@ -211,66 +335,95 @@ public class HttpConnection {
     }
 
     public boolean containsRequestHeader(String name) {
-        return requestParams.requestHeaders().stream().anyMatch(header -> header.getName().equalsIgnoreCase(name));
+        RequestParams paramsToCheck = activeRequestParams.get() != null ? activeRequestParams.get() : requestParams;
+        return paramsToCheck.requestHeaders().stream().anyMatch(header -> header.getName().equalsIgnoreCase(name));
     }
 
     private void setupConnection(String requestUrl, HttpMethodType methodType, RequestParam... statelessParams) {
-        requestParams.clearStatelessParams();
+        List<RequestParam> statelessParamsList = new ArrayList<>();
         // add default application json header, can be overridden by stateless headers
-        requestParams.addStatelessParam(anAcceptHeader("application/json"));
-
-        List<RequestParam> statelessParamsList = statelessParams != null ?
-                new ArrayList<>(Arrays.asList(statelessParams)) : Collections.emptyList();
-        statelessParamsList.removeIf(Objects::isNull);
-        requestParams.addAllStatelessParams(statelessParamsList);
-        String fullUrl = requestParams.buildUrl(requestUrl);
+        statelessParamsList.add(anAcceptHeader("application/json"));
+        if (statelessParams != null) {
+            Arrays.stream(statelessParams).filter(Objects::nonNull).forEach(statelessParamsList::add);
+        }
+        RequestParams paramsForRequest = requestParams.copyWithStatelessParams(statelessParamsList);
+        activeRequestParams.set(paramsForRequest);
+        String fullUrl = paramsForRequest.buildUrl(requestUrl);
         URI uri = URI.create(fullUrl);
         log.debug("{}: {}", methodType.name(), uri);
 
+        HttpURLConnection connection;
         try {
-            activeConnection = (HttpURLConnection) uri.toURL().openConnection();
+            connection = (HttpURLConnection) uri.toURL().openConnection();
         } catch (IOException e) {
             throw new RuntimeIOException(e);
         }
-        activeConnection.setDoInput(true);
-        activeConnection.setConnectTimeout(CONNECTION_TIMEOUT);
-        activeConnection.setReadTimeout(CONNECTION_TIMEOUT);
-        activeConnection.setInstanceFollowRedirects(false);
-        if (activeConnection instanceof HttpsURLConnection && (disableHostnameVerification || alwaysDisableHostnameVerification)) {
+        activeConnection.set(connection);
+        connection.setDoInput(true);
+        connection.setConnectTimeout(CONNECTION_TIMEOUT);
+        connection.setReadTimeout(CONNECTION_TIMEOUT);
+        connection.setInstanceFollowRedirects(false);
+        if (connection instanceof HttpsURLConnection && (disableHostnameVerification || alwaysDisableHostnameVerification)) {
             // allow all host names
-            ((HttpsURLConnection) activeConnection).setHostnameVerifier((s, sslSession) -> true);
+            ((HttpsURLConnection) connection).setHostnameVerifier((s, sslSession) -> true);
         }
         try {
             if (methodType == PATCH) {
-                activeConnection.setRequestMethod(POST.name());
-                activeConnection.setRequestProperty("X-HTTP-Method-Override", PATCH.name());
+                connection.setRequestMethod(POST.name());
+                connection.setRequestProperty("X-HTTP-Method-Override", PATCH.name());
             } else {
-                activeConnection.setRequestMethod(methodType.name());
+                connection.setRequestMethod(methodType.name());
             }
         } catch (ProtocolException e) {
             throw new RuntimeIOException(e);
         }
-        addRequestHeaders();
-        addCookiesHeader(uri.getHost());
+        if (useResponseCompression) {
+            // stateless headers can override this
+            connection.setRequestProperty("Accept-Encoding", HttpContentEncoding.ACCEPTED_ENCODINGS);
+        }
+        addRequestHeaders(connection, paramsForRequest);
+        addCookiesHeader(connection, uri.getHost());
     }
 
-    private void addRequestHeaders() {
-        for (RequestHeader header : requestParams.requestHeaders()) {
+    private void addRequestHeaders(HttpURLConnection connection, RequestParams paramsForRequest) {
+        for (RequestHeader header : paramsForRequest.requestHeaders()) {
             log.debug("Adding request header {}:{}", header.getName(), header.getValue());
-            activeConnection.setRequestProperty(header.getName(), header.getValue());
+            connection.setRequestProperty(header.getName(), header.getValue());
         }
     }
 
+    /**
+     * Json responses are deserialized directly from the response stream.
+     * The response text is only read in full when it is needed, e.g. for a String or HttpResponse conversion class.
+     */
     private <T> T handleServerResponse(final String url, final Class<T> responseConversionClass, HttpMethodType methodType, RequestParam[] params) {
-        String responseText = getResponseText(0, methodType, params);
+        if (responseConversionClass == null || responseConversionClass == String.class
+                || responseConversionClass == HttpResponse.class || log.isTraceEnabled()) {
+            return convertResponseText(responseConversionClass, methodType, params);
+        }
+        return getResponse(0, methodType, inputStream -> parseJson(inputStream, responseConversionClass), params);
+    }
+
+    private <T> T convertResponseText(Class<T> responseConversionClass, HttpMethodType methodType, RequestParam[] params) {
+        String responseText = getResponse(0, methodType, this::readResponseText, params);
         if (responseConversionClass == HttpResponse.class) {
-            return (T) new HttpResponse(responseText, activeConnection.getHeaderFields());
+            HttpURLConnection connection = activeConnection.get();
+            try {
+                return (T) new HttpResponse(connection.getResponseCode(), responseText, connection.getHeaderFields());
+            } catch (IOException e) {
+                throw new RuntimeIOException(e);
+            }
         }
-        activeConnection.disconnect();
+        return convertResponseText(responseText, responseConversionClass);
+    }
+
+    private <T> T convertResponseText(String responseText, Class<T> responseConversionClass) {
         if (responseText.isEmpty() || responseConversionClass == null) {
             return null;
         } else {
+            HttpRequestMetrics.RequestTimer timer = activeRequestTimer.get();
             try {
+                startPhase(timer);
                 return gson.fromJson(responseText, responseConversionClass);
             } catch (JsonSyntaxException e) {
                 // allow a parsing attempt as it could be a json string primitive
@@ -280,30 +433,96 @@ public class HttpConnection {
                     String responseTextToShow = responseText.length() > 400
                             ? responseText.substring(0, 200) + "\n...\n" + responseText.substring(responseText.length() - 200)
                             : responseText;
-                    log.error("Failed to parse response text for {} {}\n{}", activeConnection.getRequestMethod(), activeConnection.getURL(), responseTextToShow);
+                    log.error("Failed to parse response text for {} {}\n{}", activeConnection.get().getRequestMethod(), activeConnection.get().getURL(), responseTextToShow);
                     throw e;
                 }
+            } finally {
+                endPhase(timer, HttpRequestMetrics.Phase.deserialize);
+            }
+        }
+    }
+
+    private String getWithRevalidation(HttpResponseCache cache, String cacheKey, HttpResponseCache.CachedResponse cachedResponse, RequestParam[] params) {
+        if (cachedResponse != null && cachedResponse.canBeRevalidated()) {
+            if (cachedResponse.etag != null) {
+                activeConnection.get().setRequestProperty("If-None-Match", cachedResponse.etag);
+            }
+            if (cachedResponse.lastModified != null) {
+                activeConnection.get().setRequestProperty("If-Modified-Since", cachedResponse.lastModified);
+            }
+        }
+        String responseText = getResponse(0, GET, this::readResponseText, params);
+        HttpURLConnection connection = activeConnection.get();
+        int responseCode;
+        try {
+            responseCode = connection.getResponseCode();
+        } catch (IOException e) {
+            throw new RuntimeIOException(e);
+        }
+        if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cachedResponse != null) {
+            log.debug("Cached response for {} is still valid", connection.getURL());
+            cache.put(cacheKey, cachedResponse);
+            return cachedResponse.content;
+        }
+        if (responseCode == HttpURLConnection.HTTP_OK) {
+            cache.put(cacheKey, new HttpResponseCache.CachedResponse(connection.getURL().toString(), connection.getHeaderField("ETag"),
+                    connection.getHeaderField("Last-Modified"), responseText));
+        }
+        return responseText;
+    }
+
+    private <T> T parseJson(InputStream inputStream, Class<T> responseConversionClass) throws IOException {
+        TextCapturingInputStream capturingStream = new TextCapturingInputStream(inputStream);
+        try (Reader reader = new InputStreamReader(capturingStream, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, responseConversionClass);
+        } catch (JsonSyntaxException e) {
+            if (e.getCause() instanceof IOException && !(e.getCause() instanceof MalformedJsonException)) {
+                throw (IOException) e.getCause();
             }
+            log.error("Failed to parse response text for {} {}\n{}", activeConnection.get().getRequestMethod(),
+                    activeConnection.get().getURL(), capturingStream.capturedText());
+            throw e;
         }
     }
 
-    private void addCookiesHeader(String host) {
+    private String readResponseText(InputStream inputStream) {
+        String responseText = IOUtils.read(inputStream);
+        log.trace("Response\n{}", responseText);
+        return responseText;
+    }
+
+    /**
+     * Uses getResponse so that streamed requests get the same ssl certificate prompt and retry handling as buffered requests.
+     */
+    private <T> T handleServerResponseStream(Function<InputStream, T> responseStreamHandler, HttpMethodType methodType, RequestParam[] params) {
+        return getResponse(0, methodType, inputStream -> {
+            try (InputStream responseStream = inputStream) {
+                return responseStreamHandler.apply(responseStream);
+            } catch (RuntimeException re) {
+                // don't drain the rest of the response just to reuse the connection
+                activeConnection.get().disconnect();
+                throw re;
+            }
+        }, params);
+    }
+
+    private void addCookiesHeader(HttpURLConnection connection, String host) {
         String cookieHeaderValue = cookieFileStore.toCookieRequestText(host, useSessionCookies);
         if (StringUtils.isEmpty(cookieHeaderValue)) {
             return;
         }
         log.debug("Adding request header Cookie:{}", cookieHeaderValue);
-        activeConnection.setRequestProperty("Cookie", cookieHeaderValue);
+        connection.setRequestProperty("Cookie", cookieHeaderValue);
     }
 
-    private String getResponseText(int retryCount, HttpMethodType methodType, RequestParam... params) {
-        String responseText = "";
+    private <T> T getResponse(int retryCount, HttpMethodType methodType, ResponseReader<T> responseReader, RequestParam... params) {
+        T response = null;
         try {
-            responseText = parseResponseText(methodType);
-            cookieFileStore.addCookiesFromResponse(activeConnection);
+            response = parseResponse(methodType, responseReader);
+            cookieFileStore.addCookiesFromResponse(activeConnection.get());
         } catch (SSLException e) {
-            String urlText = activeConnection.getURL().toString();
-            log.error("Ssl error for {} {}", activeConnection.getRequestMethod(), urlText);
+            String urlText = activeConnection.get().getURL().toString();
+            log.error("Ssl error for {} {}", activeConnection.get().getRequestMethod(), urlText);
             log.error("Error [{}]" ,e.getMessage());
             if (workflowCertificateManager.isLastServerTrusted()) {
                 log.info("Last server certificate was trusted, try using --disable-hostname-verification to workaround errors due to subject alternative name");
@@ -315,27 +534,30 @@ public class HttpConnection {
             ThreadUtils.sleep(2, TimeUnit.SECONDS);
             log.info("");
             log.info("Retrying request {} of {}", ++retryCount, MAX_REQUEST_RETRIES);
+            if (activeRequestTimer.get() != null) {
+                activeRequestTimer.get().recordRetry();
+            }
             reconnect(methodType, urlText, params);
-            responseText = getResponseText(retryCount, methodType, params);
+            response = getResponse(retryCount, methodType, responseReader, params);
         } catch (UnknownHostException | SocketException e) {
             handleNetworkException(e);
         } catch (IOException ioe) {
-            String requestMethod = activeConnection.getRequestMethod();
-            String url = activeConnection.getURL().toString();
+            String requestMethod = activeConnection.get().getRequestMethod();
+            String url = activeConnection.get().getURL().toString();
             throw new RuntimeIOException(ioe, "Failed on {} for {}", requestMethod, url);
         }
-        return responseText;
+        return response;
     }
 
     private void reconnect(HttpMethodType methodType, String urlText, RequestParam[] params) {
-        activeConnection.disconnect();
+        activeConnection.get().disconnect();
         setupConnection(urlText, methodType, params);
     }
 
     private void askIfSslCertShouldBeSaved() {
         URI uri;
         try {
-            uri = activeConnection.getURL().toURI();
+            uri = activeConnection.get().getURL().toURI();
         } catch (URISyntaxException e) {
             throw new RuntimeURISyntaxException(e);
         }
@@ -361,7 +583,7 @@ public class HttpConnection {
     private void exitDueToSslExceptions() {
         String url;
         try {
-            url = activeConnection.getURL().toURI().toString();
+            url = activeConnection.get().getURL().toURI().toString();
         } catch (URISyntaxException e) {
             throw new RuntimeURISyntaxException(e);
         }
@@ -376,31 +598,92 @@ public class HttpConnection {
     private void handleNetworkException(IOException e) {
         throw new FatalException(e, "Unknown host exception thrown: " + e.getMessage()
                 + "\nAre you connected to the correct network?"
-                + "\nFailed to access host " + activeConnection.getURL().getHost());
+                + "\nFailed to access host " + activeConnection.get().getURL().getHost());
     }
 
-    private String parseResponseText(HttpMethodType methodType) throws IOException {
-        String currentUrl = activeConnection.getURL().toString();
-        int responseCode = activeConnection.getResponseCode();
+    private <T> T parseResponse(HttpMethodType methodType, ResponseReader<T> responseReader) throws IOException {
+        String currentUrl = activeConnection.get().getURL().toString();
+        int responseCode = waitForResponseCode();
         log.debug("{}: {} Response code {}", methodType.name(), currentUrl, responseCode);
+        HttpRequestMetrics.RequestTimer timer = activeRequestTimer.get();
+        if (ExceptionChecker.isStatusValid(responseCode) || responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            startPhase(timer);
+            try {
+                return responseReader.read(decodedStream(activeConnection.get().getInputStream()));
+            } finally {
+                endPhase(timer, HttpRequestMetrics.Phase.download);
+            }
+        }
+
         String responseText;
+        startPhase(timer);
         try {
-            if (ExceptionChecker.isStatusValid(responseCode) || activeConnection.getErrorStream() == null) {
-                responseText = IOUtils.read(activeConnection.getInputStream());
+            if (activeConnection.get().getErrorStream() == null) {
+                responseText = IOUtils.read(decodedStream(activeConnection.get().getInputStream()));
             } else {
-                responseText = IOUtils.read(activeConnection.getErrorStream());
+                responseText = IOUtils.read(decodedStream(activeConnection.get().getErrorStream()));
             }
         } catch (IOException ioe) {
-            if (!ExceptionChecker.isStatusValid(responseCode)) {
-                responseText = ioe.getMessage();
-            } else {
-                throw ioe;
-            }
+            responseText = ioe.getMessage();
+        } finally {
+            endPhase(timer, HttpRequestMetrics.Phase.download);
         }
+        log.trace("Response\n{}", responseText);
+        ExceptionChecker.throwExceptionIfStatusIsNotValid(currentUrl, responseCode, methodType.name(), responseText,
+                activeConnection.get().getHeaderField("Retry-After"));
+        return null;
+    }
 
+    private InputStream decodedStream(InputStream inputStream) throws IOException {
+        HttpRequestMetrics.RequestTimer timer = activeRequestTimer.get();
+        InputStream countedStream = timer != null ? timer.countBytesIn(inputStream) : inputStream;
+        return HttpContentEncoding.decode(countedStream, activeConnection.get().getContentEncoding());
+    }
 
-        log.trace("Response\n{}", responseText);
-        ExceptionChecker.throwExceptionIfStatusIsNotValid(currentUrl, responseCode, methodType.name(), responseText);
-        return responseText;
+    private <T> T timeRequest(HttpMethodType methodType, Supplier<T> request) {
+        HttpRequestMetrics.RequestTimer timer = HttpRequestMetrics.getInstance().startRequest(methodType.name(), activeConnection.get().getURL());
+        activeRequestTimer.set(timer);
+        boolean failed = true;
+        try {
+            T response = request.get();
+            failed = false;
+            return response;
+        } finally {
+            timer.finish(failed);
+            activeRequestTimer.remove();
+        }
+    }
+
+    private void connectAndRecordTime() throws IOException {
+        HttpRequestMetrics.RequestTimer timer = activeRequestTimer.get();
+        startPhase(timer);
+        activeConnection.get().connect();
+        endPhase(timer, HttpRequestMetrics.Phase.connect);
+    }
+
+    private int waitForResponseCode() throws IOException {
+        connectAndRecordTime();
+        HttpRequestMetrics.RequestTimer timer = activeRequestTimer.get();
+        startPhase(timer);
+        int responseCode = activeConnection.get().getResponseCode();
+        endPhase(timer, HttpRequestMetrics.Phase.firstByte);
+        return responseCode;
+    }
+
+    private void startPhase(HttpRequestMetrics.RequestTimer timer) {
+        if (timer != null) {
+            timer.startPhase();
+        }
+    }
+
+    private void endPhase(HttpRequestMetrics.RequestTimer timer, HttpRequestMetrics.Phase phase) {
+        if (timer != null) {
+            timer.endPhase(phase);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(InputStream inputStream) throws IOException;
     }
 }
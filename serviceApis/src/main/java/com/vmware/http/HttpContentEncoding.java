@@ -0,0 +1,78 @@
+package com.vmware.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes compressed http response bodies as they are read.
+ */
+public final class HttpContentEncoding {
+
+    public static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+
+    private HttpContentEncoding() {
+    }
+
+    /**
+     * @param contentEncoding value of the Content-Encoding response header, can be null
+     * @return stream of the decoded content, the original stream if the content is not compressed
+     */
+    public static InputStream decode(InputStream inputStream, String contentEncoding) throws IOException {
+        if (inputStream == null || contentEncoding == null) {
+            return inputStream;
+        }
+        String encoding = contentEncoding.trim().toLowerCase();
+        if (!encoding.equals("gzip") && !encoding.equals("x-gzip") && !encoding.equals("deflate")) {
+            return inputStream;
+        }
+        PushbackInputStream pushbackStream = new PushbackInputStream(inputStream, 2);
+        byte[] header = new byte[2];
+        int headerLength = readFully(pushbackStream, header);
+        if (headerLength == 0) {
+            // e.g. a not modified response, compressed streams fail on empty input
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        pushbackStream.unread(header, 0, headerLength);
+        if (encoding.equals("deflate")) {
+            // deflate is meant to be zlib wrapped but some servers send raw deflate data
+            boolean zlibWrapped = headerLength == 2 && (header[0] & 0x0F) == 8 && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+            return new OwnedInflaterInputStream(pushbackStream, new Inflater(!zlibWrapped));
+        }
+        return new GZIPInputStream(pushbackStream);
+    }
+
+    /**
+     * InflaterInputStream only ends inflaters that it created itself, so the inflater is ended here to free its native memory.
+     */
+    private static class OwnedInflaterInputStream extends InflaterInputStream {
+        private OwnedInflaterInputStream(InputStream inputStream, Inflater inflater) {
+            super(inputStream, inflater);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+
+    private static int readFully(InputStream inputStream, byte[] buffer) throws IOException {
+        int totalRead = 0;
+        while (totalRead < buffer.length) {
+            int readCount = inputStream.read(buffer, totalRead, buffer.length - totalRead);
+            if (readCount == -1) {
+                break;
+            }
+            totalRead += readCount;
+        }
+        return totalRead;
+    }
+}
@@ -10,5 +10,6 @@ public enum HttpMethodType {
     PATCH,
     POST,
     PUT,
-    DELETE
+    DELETE,
+    HEAD
 }
@@ -0,0 +1,272 @@
+package com.vmware.http;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.google.gson.GsonBuilder;
+import com.vmware.util.StringUtils;
+
+/**
+ * Request counts, latencies and bytes transferred per host, method and endpoint for all http requests made by {@link HttpConnection}.
+ * Endpoints are url paths with ids replaced by placeholders so that requests for different ids are grouped together.
+ */
+public class HttpRequestMetrics {
+
+    private static final HttpRequestMetrics INSTANCE = new HttpRequestMetrics();
+
+    private static final Pattern ISSUE_KEY_SEGMENT = Pattern.compile("[A-Z][A-Z0-9]+-\\d+");
+    private static final Pattern ID_SEGMENT = Pattern.compile("\\d+|[0-9a-fA-F-]{16,}");
+
+    private final Map<String, EndpointMetrics> metricsPerEndpoint = new ConcurrentHashMap<>();
+
+    public static HttpRequestMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public RequestTimer startRequest(String methodType, URL url) {
+        return new RequestTimer(metricsFor(methodType, url));
+    }
+
+    public void recordRetry(String methodType, URL url) {
+        metricsFor(methodType, url).recordRetry();
+    }
+
+    public boolean isEmpty() {
+        return metricsPerEndpoint.isEmpty();
+    }
+
+    public void reset() {
+        metricsPerEndpoint.clear();
+    }
+
+    /**
+     * @return table of metrics per endpoint, ordered by total time spent on requests
+     */
+    public List<String> summaryLines() {
+        List<EndpointMetrics> endpoints = sortedEndpoints();
+        int endpointWidth = endpoints.stream().mapToInt(metrics -> metrics.endpointName().length()).max().orElse(10);
+        String lineFormat = "%-" + endpointWidth + "s %6s %5s %7s %10s %10s %9s %9s %9s %9s %9s %9s %9s";
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(lineFormat, "Endpoint", "Count", "Fail", "Retries", "Bytes In", "Bytes Out",
+                "Avg ms", "P90 ms", "Max ms", "Connect", "TTFB", "Download", "Parse"));
+        for (EndpointMetrics metrics : endpoints) {
+            LatencyHistogram total = metrics.latencies.get(Phase.total);
+            lines.add(String.format(lineFormat, metrics.endpointName(), metrics.count, metrics.failures, metrics.retries,
+                    StringUtils.humanReadableSize(metrics.bytesIn), StringUtils.humanReadableSize(metrics.bytesOut),
+                    total.averageMillis(), total.percentileMillis(90), total.maxMillis,
+                    metrics.latencies.get(Phase.connect).averageMillis(), metrics.latencies.get(Phase.firstByte).averageMillis(),
+                    metrics.latencies.get(Phase.download).averageMillis(), metrics.latencies.get(Phase.deserialize).averageMillis()));
+        }
+        return lines;
+    }
+
+    public String toJson() {
+        return new GsonBuilder().setPrettyPrinting().create().toJson(sortedEndpoints());
+    }
+
+    private List<EndpointMetrics> sortedEndpoints() {
+        return metricsPerEndpoint.values().stream()
+                .sorted(Comparator.comparingLong((EndpointMetrics metrics) -> metrics.latencies.get(Phase.total).totalMillis).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private EndpointMetrics metricsFor(String methodType, URL url) {
+        String endpoint = endpointTemplate(url.getPath());
+        String key = methodType + " " + url.getHost() + endpoint;
+        return metricsPerEndpoint.computeIfAbsent(key, value -> new EndpointMetrics(url.getHost(), methodType, endpoint));
+    }
+
+    /**
+     * Numbers directly after an api segment are treated as api versions, e.g. rest/api/2.
+     */
+    static String endpointTemplate(String path) {
+        String[] segments = path.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if (ISSUE_KEY_SEGMENT.matcher(segments[i]).matches()) {
+                segments[i] = "{key}";
+            } else if (ID_SEGMENT.matcher(segments[i]).matches() && (i == 0 || !segments[i - 1].equals("api"))) {
+                segments[i] = "{id}";
+            }
+        }
+        return String.join("/", segments);
+    }
+
+    public enum Phase {
+        connect,
+        firstByte,
+        download,
+        deserialize,
+        total
+    }
+
+    /**
+     * Records the timings for a single request, not thread safe.
+     * For streamed responses the download time includes deserializing the response.
+     */
+    public static class RequestTimer {
+        private final EndpointMetrics endpointMetrics;
+        private final long startTime = System.nanoTime();
+        private final long[] phaseTimes = new long[Phase.values().length];
+        private long phaseStartTime;
+        private long bytesIn;
+        private long bytesOut;
+
+        private RequestTimer(EndpointMetrics endpointMetrics) {
+            this.endpointMetrics = endpointMetrics;
+        }
+
+        public void startPhase() {
+            phaseStartTime = System.nanoTime();
+        }
+
+        public void endPhase(Phase phase) {
+            phaseTimes[phase.ordinal()] += System.nanoTime() - phaseStartTime;
+        }
+
+        public void recordRetry() {
+            endpointMetrics.recordRetry();
+        }
+
+        public InputStream countBytesIn(InputStream inputStream) {
+            if (inputStream == null) {
+                return null;
+            }
+            return new FilterInputStream(inputStream) {
+                @Override
+                public int read() throws IOException {
+                    int value = super.read();
+                    if (value != -1) {
+                        bytesIn++;
+                    }
+                    return value;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int readCount = super.read(buffer, offset, length);
+                    if (readCount > 0) {
+                        bytesIn += readCount;
+                    }
+                    return readCount;
+                }
+            };
+        }
+
+        public OutputStream countBytesOut(OutputStream outputStream) {
+            return new FilterOutputStream(outputStream) {
+                @Override
+                public void write(int value) throws IOException {
+                    out.write(value);
+                    bytesOut++;
+                }
+
+                @Override
+                public void write(byte[] buffer, int offset, int length) throws IOException {
+                    out.write(buffer, offset, length);
+                    bytesOut += length;
+                }
+            };
+        }
+
+        public void finish(boolean failed) {
+            phaseTimes[Phase.total.ordinal()] = System.nanoTime() - startTime;
+            endpointMetrics.record(phaseTimes, bytesIn, bytesOut, failed);
+        }
+    }
+
+    private static class EndpointMetrics {
+        private final String host;
+        private final String method;
+        private final String endpoint;
+        private long count;
+        private long failures;
+        private long retries;
+        private long bytesIn;
+        private long bytesOut;
+        private final Map<Phase, LatencyHistogram> latencies = new LinkedHashMap<>();
+
+        private EndpointMetrics(String host, String method, String endpoint) {
+            this.host = host;
+            this.method = method;
+            this.endpoint = endpoint;
+            for (Phase phase : Phase.values()) {
+                latencies.put(phase, new LatencyHistogram());
+            }
+        }
+
+        private synchronized void record(long[] phaseTimes, long bytesIn, long bytesOut, boolean failed) {
+            count++;
+            if (failed) {
+                failures++;
+            }
+            this.bytesIn += bytesIn;
+            this.bytesOut += bytesOut;
+            for (Phase phase : Phase.values()) {
+                latencies.get(phase).record(TimeUnit.NANOSECONDS.toMillis(phaseTimes[phase.ordinal()]));
+            }
+        }
+
+        private synchronized void recordRetry() {
+            retries++;
+        }
+
+        private String endpointName() {
+            return method + " " + host + endpoint;
+        }
+    }
+
+    /**
+     * Counts latencies in buckets with roughly logarithmic upper bounds.
+     */
+    private static class LatencyHistogram {
+        private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, Long.MAX_VALUE};
+
+        private final long[] bucketCounts = new long[BUCKET_UPPER_BOUNDS_MILLIS.length];
+        private long count;
+        private long totalMillis;
+        private long maxMillis;
+
+        private void record(long millis) {
+            int bucketIndex = 0;
+            while (millis > BUCKET_UPPER_BOUNDS_MILLIS[bucketIndex]) {
+                bucketIndex++;
+            }
+            bucketCounts[bucketIndex]++;
+            count++;
+            totalMillis += millis;
+            maxMillis = Math.max(maxMillis, millis);
+        }
+
+        private long averageMillis() {
+            return count > 0 ? totalMillis / count : 0;
+        }
+
+        /**
+         * @return upper bound of the bucket containing the percentile, capped at the max recorded value
+         */
+        private long percentileMillis(int percentile) {
+            long countToReach = (long) Math.ceil(count * percentile / 100.0);
+            long cumulativeCount = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                cumulativeCount += bucketCounts[i];
+                if (cumulativeCount >= countToReach && cumulativeCount > 0) {
+                    return Math.min(BUCKET_UPPER_BOUNDS_MILLIS[i], maxMillis);
+                }
+            }
+            return maxMillis;
+        }
+    }
+}
@@ -9,15 +9,22 @@ import java.util.Map;
  */
 public class HttpResponse {
 
-    public HttpResponse(String content, Map<String, List<String>> headers) {
+    public HttpResponse(int statusCode, String content, Map<String, List<String>> headers) {
+        this.statusCode = statusCode;
         this.content = content;
         this.headers = headers;
     }
 
+    private int statusCode;
+
     private String content;
 
     private Map<String, List<String>> headers;
 
+    public int getStatusCode() {
+        return statusCode;
+    }
+
     public String getContent() {
         return content;
     }
@@ -26,6 +33,15 @@ public class HttpResponse {
         return new HashMap<>(headers);
     }
 
+    /**
+     * @return first value for the header, header name is matched case insensitively. Null if not present
+     */
+    public String getFirstHeaderValue(String name) {
+        return headers.entrySet().stream().filter(entry -> name.equalsIgnoreCase(entry.getKey()))
+                .map(Map.Entry::getValue).filter(values -> values != null && !values.isEmpty())
+                .map(values -> values.get(0)).findFirst().orElse(null);
+    }
+
     public boolean containsLink(String rel, String model) {
         List<String> links = headers.get("Link");
         return links.stream().anyMatch(link -> link.contains("rel=\"" + rel + "\"") && link.contains("model=\"" + model + "\""));
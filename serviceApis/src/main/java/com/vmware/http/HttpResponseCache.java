@@ -0,0 +1,140 @@
+package com.vmware.http;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.vmware.util.IOUtils;
+import com.vmware.util.StringUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Disk cache for responses of api requests that rarely change.
+ * A cached response is used without a request until the time to live for the service expires,
+ * after that it is revalidated with a conditional request using the stored ETag or Last-Modified header.
+ * Least recently used responses are removed once the total size of the cache exceeds the max size.
+ */
+public class HttpResponseCache {
+
+    private static final String ENTRY_FILE_SUFFIX = ".json";
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final Gson gson = new Gson();
+    private final File cacheDirectory;
+    private final long maxSizeInBytes;
+    private final Map<String, Integer> timeToLiveSecondsPerService;
+
+    public HttpResponseCache(File cacheDirectory, long maxSizeInBytes, Map<String, Integer> timeToLiveSecondsPerService) {
+        this.cacheDirectory = cacheDirectory;
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.timeToLiveSecondsPerService = timeToLiveSecondsPerService;
+    }
+
+    /**
+     * @param identity identifies the user the request is authenticated as, responses are never shared between users
+     */
+    public static String cacheKey(String methodType, String url, String identity) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((methodType + " " + url + " " + identity).getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder();
+            for (byte value : hash) {
+                key.append(String.format("%02x", value));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return true if the response can be used without revalidating it, services without a time to live are always revalidated
+     */
+    public boolean isFresh(String serviceName, CachedResponse response) {
+        int timeToLiveSeconds = timeToLiveSecondsPerService != null ? timeToLiveSecondsPerService.getOrDefault(serviceName, 0) : 0;
+        return System.currentTimeMillis() - response.storedAt < timeToLiveSeconds * 1000L;
+    }
+
+    public synchronized CachedResponse get(String cacheKey) {
+        File entryFile = entryFile(cacheKey);
+        if (!entryFile.exists()) {
+            return null;
+        }
+        try {
+            CachedResponse response = gson.fromJson(IOUtils.read(entryFile), CachedResponse.class);
+            entryFile.setLastModified(System.currentTimeMillis());
+            return response;
+        } catch (JsonSyntaxException e) {
+            log.debug("Removing invalid cache entry {}: {}", entryFile.getPath(), e.getMessage());
+            entryFile.delete();
+            return null;
+        }
+    }
+
+    public synchronized void put(String cacheKey, CachedResponse response) {
+        if (!cacheDirectory.exists() && !cacheDirectory.mkdirs()) {
+            log.warn("Failed to create http response cache directory {}", cacheDirectory.getPath());
+            return;
+        }
+        response.storedAt = System.currentTimeMillis();
+        IOUtils.write(entryFile(cacheKey), gson.toJson(response));
+        removeLeastRecentlyUsedEntriesIfNeeded();
+    }
+
+    private void removeLeastRecentlyUsedEntriesIfNeeded() {
+        File[] entryFiles = cacheDirectory.listFiles((dir, name) -> name.endsWith(ENTRY_FILE_SUFFIX));
+        if (entryFiles == null) {
+            return;
+        }
+        long totalSize = Arrays.stream(entryFiles).mapToLong(File::length).sum();
+        if (totalSize <= maxSizeInBytes) {
+            return;
+        }
+        Arrays.sort(entryFiles, Comparator.comparingLong(File::lastModified));
+        for (File entryFile : entryFiles) {
+            if (totalSize <= maxSizeInBytes) {
+                break;
+            }
+            long entrySize = entryFile.length();
+            if (entryFile.delete()) {
+                totalSize -= entrySize;
+            }
+        }
+        log.debug("Reduced http response cache size to {}", StringUtils.humanReadableSize(totalSize));
+    }
+
+    private File entryFile(String cacheKey) {
+        return new File(cacheDirectory, cacheKey + ENTRY_FILE_SUFFIX);
+    }
+
+    public static class CachedResponse {
+        public String url;
+        public String etag;
+        public String lastModified;
+        public long storedAt;
+        public String content;
+
+        public CachedResponse() {
+        }
+
+        public CachedResponse(String url, String etag, String lastModified, String content) {
+            this.url = url;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.content = content;
+        }
+
+        public boolean canBeRevalidated() {
+            return etag != null || lastModified != null;
+        }
+    }
+}
@@ -16,6 +16,7 @@ import java.util.List;
 
 /**
  * Encapsulates a collection of request parameters.
+ * Stateful params are shared across requests, stateless params are only added to a per request copy.
  */
 public class RequestParams {
 
@@ -39,22 +40,30 @@ public class RequestParams {
         return url;
     }
 
-    public void addStatefulParam(RequestParam requestParam) {
+    public synchronized void addStatefulParam(RequestParam requestParam) {
         statefulParams.removeIf(param -> param.getName().equals(requestParam.getName()));
         statefulParams.add(requestParam);
         allParams.removeIf(param -> param.getName().equals(requestParam.getName()));
         allParams.add(requestParam);
     }
 
-    public void removeStatefulParam(String paramName) {
+    public synchronized void removeStatefulParam(String paramName) {
         statefulParams.removeIf(param -> param.getName().equalsIgnoreCase(paramName));
     }
 
+    public synchronized RequestParams copyWithStatelessParams(Collection<? extends RequestParam> statelessParams) {
+        RequestParams paramsCopy = new RequestParams();
+        paramsCopy.statefulParams.addAll(statefulParams);
+        paramsCopy.allParams.addAll(allParams);
+        statelessParams.forEach(paramsCopy::addStatelessParam);
+        return paramsCopy;
+    }
+
     public void addStatelessParam(RequestParam requestParam) {
         allParams.add(requestParam);
     }
 
-    public void addAllStatefulParams(Collection<? extends RequestParam> requestParams) {
+    public synchronized void addAllStatefulParams(Collection<? extends RequestParam> requestParams) {
         statefulParams.addAll(requestParams);
         allParams.addAll(requestParams);
     }
@@ -63,7 +72,7 @@ public class RequestParams {
         allParams.addAll(requestParams);
     }
 
-    public void addStatefulParamsFromUrlFragment(String urlFragment) {
+    public synchronized void addStatefulParamsFromUrlFragment(String urlFragment) {
         if (StringUtils.isEmpty(urlFragment)) {
             return;
         }
@@ -73,16 +82,16 @@ public class RequestParams {
         }
     }
 
-    public void reset() {
+    public synchronized void reset() {
         statefulParams.clear();
         allParams.clear();
     }
 
-    public void clearStatelessParams() {
+    public synchronized void clearStatelessParams() {
         allParams.retainAll(statefulParams);
     }
 
-    public List<UrlParam> urlParams() {
+    public synchronized List<UrlParam> urlParams() {
         List<UrlParam> urlParams = new ArrayList<>();
 
         for (RequestParam param : allParams) {
@@ -94,7 +103,7 @@ public class RequestParams {
         return urlParams;
     }
 
-    public List<RequestHeader> requestHeaders() {
+    public synchronized List<RequestHeader> requestHeaders() {
         List<RequestHeader> requestHeaders = new ArrayList<>();
 
         for (RequestParam param : allParams) {
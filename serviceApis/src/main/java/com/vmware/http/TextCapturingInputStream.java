@@ -0,0 +1,66 @@
+package com.vmware.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keeps the start of the stream and the most recently read bytes, so that a response that failed to parse
+ * can be logged without holding the whole response in memory.
+ */
+final class TextCapturingInputStream extends FilterInputStream {
+    private static final int CAPTURE_SIZE = 200;
+
+    private final byte[] startBytes = new byte[CAPTURE_SIZE];
+    private int startLength;
+    private final byte[] recentBytes = new byte[CAPTURE_SIZE];
+    private long totalLength;
+
+    TextCapturingInputStream(InputStream inputStream) {
+        super(inputStream);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value != -1) {
+            capture((byte) value);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int readCount = super.read(buffer, offset, length);
+        for (int i = 0; i < readCount; i++) {
+            capture(buffer[offset + i]);
+        }
+        return readCount;
+    }
+
+    /**
+     * @return text read so far, only the first and last 200 bytes are included if more than 400 bytes have been read
+     */
+    String capturedText() {
+        String startText = new String(startBytes, 0, startLength, StandardCharsets.UTF_8);
+        if (totalLength <= CAPTURE_SIZE) {
+            return startText;
+        }
+        int recentLength = (int) Math.min(CAPTURE_SIZE, totalLength - CAPTURE_SIZE);
+        byte[] orderedRecentBytes = new byte[recentLength];
+        for (int i = 0; i < recentLength; i++) {
+            orderedRecentBytes[i] = recentBytes[(int) ((totalLength - recentLength + i) % CAPTURE_SIZE)];
+        }
+        String separator = totalLength > CAPTURE_SIZE * 2 ? "\n...\n" : "";
+        return startText + separator + new String(orderedRecentBytes, StandardCharsets.UTF_8);
+    }
+
+    private void capture(byte value) {
+        if (startLength < CAPTURE_SIZE) {
+            startBytes[startLength++] = value;
+        }
+        recentBytes[(int) (totalLength % CAPTURE_SIZE)] = value;
+        totalLength++;
+    }
+}
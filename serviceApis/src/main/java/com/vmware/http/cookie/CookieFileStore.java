@@ -11,11 +11,11 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.net.URLConnection;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -29,8 +29,8 @@ public class CookieFileStore {
     private Logger log = LoggerFactory.getLogger(this.getClass());
 
     private final String homeFolder;
-    private List<Cookie> authCookies = new ArrayList<Cookie>();
-    private List<Cookie> sessionCookies = new ArrayList<Cookie>();
+    private List<Cookie> authCookies = new CopyOnWriteArrayList<>();
+    private List<Cookie> sessionCookies = new CopyOnWriteArrayList<>();
 
     public CookieFileStore(String homeFolder) {
         this.homeFolder = homeFolder;
@@ -91,7 +91,7 @@ public class CookieFileStore {
         sessionCookies.removeIf(cookie -> cookieName.equals(cookie.getName()));
     }
 
-    public void addCookieIfUseful(Cookie cookieToCheck) {
+    public synchronized void addCookieIfUseful(Cookie cookieToCheck) {
         ApiAuthentication apiAuthentication = ApiAuthentication.loadByCookieName(cookieToCheck.getName());
         if (apiAuthentication == null) {
             log.debug("Adding session cookie {}:{}", cookieToCheck.getName(), cookieToCheck.getValue());
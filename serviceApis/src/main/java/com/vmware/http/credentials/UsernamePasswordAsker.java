@@ -27,6 +27,10 @@ public class UsernamePasswordAsker {
             return testCredentials;
         }
 
+        return InputUtils.withPromptLock(() -> readUsernameAndPassword(missingApiToken, defaultUsername, passwordLabel));
+    }
+
+    private static UsernamePasswordCredentials readUsernameAndPassword(ApiAuthentication missingApiToken, String defaultUsername, String passwordLabel) {
         log.info("Credentials are only used once for retrieving {}", missingApiToken.getDisplayType());
 
         String username = InputUtils.readValue("Username (defaults to " + defaultUsername + " if blank)");
@@ -17,6 +17,11 @@ public class ExceptionChecker {
     private static Logger log = LoggerFactory.getLogger(ExceptionChecker.class);
 
     public static void throwExceptionIfStatusIsNotValid(String currentUrl, final int statusCode, String methodType, final String responseText) {
+        throwExceptionIfStatusIsNotValid(currentUrl, statusCode, methodType, responseText, null);
+    }
+
+    public static void throwExceptionIfStatusIsNotValid(String currentUrl, final int statusCode, String methodType, final String responseText,
+                                                        String retryAfterHeader) {
         if (isStatusValid(statusCode)) {
             return;
         }
@@ -41,6 +46,8 @@ public class ExceptionChecker {
                 throw new NotFoundException(fullResponseText);
             case HttpURLConnection.HTTP_BAD_METHOD:
                 throw new MethodNotAllowedException(fullResponseText);
+            case TooManyRequestsException.STATUS_CODE:
+                throw new TooManyRequestsException(fullResponseText, retryAfterHeader);
             case HttpURLConnection.HTTP_INTERNAL_ERROR:
                 throw new InternalServerException(fullResponseText);
             default:
@@ -0,0 +1,44 @@
+package com.vmware.http.exception;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+public class TooManyRequestsException extends ApiException {
+
+    public static final int STATUS_CODE = 429;
+
+    private final long retryAfterSeconds;
+
+    /**
+     * @param retryAfterHeader value of the Retry-After header, either a number of seconds or a http date
+     */
+    public TooManyRequestsException(String errorText, String retryAfterHeader) {
+        super(STATUS_CODE, errorText);
+        this.retryAfterSeconds = parseRetryAfterSeconds(retryAfterHeader);
+    }
+
+    /**
+     * @return seconds to wait before retrying, -1 if the server didn't specify
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private static long parseRetryAfterSeconds(String retryAfterHeader) {
+        if (retryAfterHeader == null || retryAfterHeader.trim().isEmpty()) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(retryAfterHeader.trim()));
+        } catch (NumberFormatException nfe) {
+            try {
+                ZonedDateTime retryTime = ZonedDateTime.parse(retryAfterHeader.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(), retryTime).getSeconds());
+            } catch (DateTimeParseException dpe) {
+                return -1;
+            }
+        }
+    }
+}
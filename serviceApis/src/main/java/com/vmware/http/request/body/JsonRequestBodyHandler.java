@@ -6,7 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 
 public class JsonRequestBodyHandler {
@@ -18,11 +18,9 @@ public class JsonRequestBodyHandler {
         if (!connection.containsRequestHeader("Content-Type")) {
             connection.setRequestProperty("Content-Type", "application/json");
         }
-        OutputStreamWriter writer = null;
-        try {
-            writer = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8);
-            writer.write(jsonText);
-            writer.close();
+        byte[] jsonBytes = jsonText.getBytes(StandardCharsets.UTF_8);
+        try (OutputStream outputStream = connection.getRequestBodyOutputStream(jsonBytes.length)) {
+            outputStream.write(jsonBytes);
         } catch (IOException e) {
             throw new RuntimeIOException(e);
         }
@@ -3,15 +3,18 @@ package com.vmware.jenkins;
 import com.vmware.AbstractRestBuildService;
 import com.vmware.BuildStatus;
 import com.vmware.http.HttpConnection;
+import com.vmware.http.HttpResponse;
 import com.vmware.http.credentials.UsernamePasswordAsker;
 import com.vmware.http.credentials.UsernamePasswordCredentials;
 import com.vmware.http.exception.NotFoundException;
 import com.vmware.http.request.RequestHeader;
 import com.vmware.http.request.RequestParam;
+import com.vmware.http.request.UrlParam;
 import com.vmware.http.request.body.RequestBodyHandling;
 import com.vmware.jenkins.domain.CsrfCrumb;
 import com.vmware.jenkins.domain.HomePage;
 import com.vmware.jenkins.domain.JenkinsTestResults;
+import com.vmware.jenkins.domain.JenkinsTreeQuery;
 import com.vmware.jenkins.domain.Job;
 import com.vmware.jenkins.domain.JobBuild;
 import com.vmware.jenkins.domain.JobBuildArtifact;
@@ -32,18 +35,27 @@ import com.vmware.util.logging.Padder;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static com.vmware.http.cookie.ApiAuthentication.jenkins_token;
-import static com.vmware.util.StringUtils.humanReadableSize;
 import static com.vmware.util.ThreadUtils.retryFunctionUntilSucceeds;
 
 public class Jenkins extends AbstractRestBuildService {
+    public static final String TESTNG_RESULTS_PATH_PATTERN = ".+testng-results.xml$";
+
+    private static final int HOME_PAGE_TREE_DEPTH = 2;
+    private static final int VIEW_TREE_DEPTH = 3;
+    private static final int JOB_TREE_DEPTH = 4;
+    private static final int BUILD_TREE_DEPTH = 3;
+    private static final int FOLLOW_POLL_INTERVAL_SECONDS = 5;
+
     private final boolean usesCsrf;
     private String apiToken;
     private boolean disableLogin;
@@ -68,7 +80,7 @@ public class Jenkins extends AbstractRestBuildService {
 
     public HomePage getHomePage() {
         if (homePage == null) {
-            homePage = get(apiUrl, HomePage.class);
+            homePage = getCached(apiUrl, HomePage.class, treeParam(HomePage.class, HOME_PAGE_TREE_DEPTH));
         }
 
         return homePage;
@@ -83,15 +95,48 @@ public class Jenkins extends AbstractRestBuildService {
     }
 
     public JobView getFullViewDetails(String viewUrl) {
-        return get(UrlUtils.addRelativePaths(viewUrl, "api/json?depth=1"), JobView.class);
+        return get(UrlUtils.addRelativePaths(viewUrl, "api/json"), JobView.class, treeParam(JobView.class, VIEW_TREE_DEPTH));
     }
 
     public Job getJobDetails(Job jobToInvoke) {
-        return get(jobToInvoke.getInfoUrl(), Job.class);
+        return get(jobToInvoke.getInfoUrl(), Job.class, treeParam(Job.class, JOB_TREE_DEPTH));
     }
 
     public JobBuild getJobBuildDetails(JobBuild jobBuild) {
-        return get(jobBuild.getJenkinsInfoUrl(), JobBuild.class);
+        return get(jobBuild.getJenkinsInfoUrl(), JobBuild.class, treeParam(JobBuild.class, BUILD_TREE_DEPTH));
+    }
+
+    public CompletableFuture<JobBuild> getJobBuildDetailsAsync(JobBuild jobBuild) {
+        return supplyAsync(() -> getJobBuildDetails(jobBuild));
+    }
+
+    /**
+     * Fetches the details of the latest builds for a job in a single request by using a tree query.
+     * @param maxBuilds max number of builds to return, latest build first
+     */
+    public List<JobBuild> getLatestJobBuilds(Job job, int maxBuilds) {
+        String buildsTree = JenkinsTreeQuery.forClass(JobBuild.class, BUILD_TREE_DEPTH);
+        UrlParam treeParam = new UrlParam("tree", "builds[" + buildsTree + "]{0," + maxBuilds + "}");
+        Job jobWithBuilds = get(job.getInfoUrl(), Job.class, treeParam);
+        return jobWithBuilds.builds != null ? Arrays.asList(jobWithBuilds.builds) : Collections.emptyList();
+    }
+
+    /**
+     * Creates a fingerprint from the size and ETag or last modified header of each artifact matching the path pattern.
+     * A HEAD request is used per artifact so the artifacts are not downloaded.
+     */
+    public String getArtifactsFingerprint(JobBuild jobBuild, String pathPattern) {
+        if (jobBuild.artifacts == null) {
+            return "";
+        }
+        return jobBuild.getArtifactsForPathPattern(pathPattern).stream().map(artifact -> {
+            HttpResponse response = head(jobBuild.fullUrlForArtifact(artifact));
+            String version = response.getFirstHeaderValue("ETag");
+            if (version == null) {
+                version = response.getFirstHeaderValue("Last-Modified");
+            }
+            return artifact.relativePath + ":" + response.getFirstHeaderValue("Content-Length") + ":" + version;
+        }).collect(Collectors.joining(","));
     }
 
     public JobBuild getJobBuildDetails(String jobName, int buildNumber) {
@@ -113,11 +158,15 @@ public class Jenkins extends AbstractRestBuildService {
         }
     }
 
+    public CompletableFuture<TestResults> getJobBuildTestResultsAsync(JobBuild jobBuild) {
+        return supplyAsync(() -> getJobBuildTestResults(jobBuild));
+    }
+
     public TestResults getJobBuildTestResultsViaTestNGResultFiles(JobBuild jobBuild) {
         try {
             log.info("Fetching build {}", jobBuild.name);
             TestResults allResults = new TestResults(jobBuild);
-            List<JobBuildArtifact> testngResultsXmlFiles = jobBuild.getArtifactsForPathPattern(".+testng-results.xml$");
+            List<JobBuildArtifact> testngResultsXmlFiles = jobBuild.getArtifactsForPathPattern(TESTNG_RESULTS_PATH_PATTERN);
             if (testngResultsXmlFiles.isEmpty()) {
                 log.info("No testNG results files found for build {}, fetching via jenkins page", jobBuild.name);
                 return getJobBuildTestResults(jobBuild);
@@ -138,13 +187,13 @@ public class Jenkins extends AbstractRestBuildService {
     private TestResults getTestResults(JobBuild jobBuild, String artifactUrl) {
         log.debug("Fetching {}", artifactUrl);
         StopwatchUtils.Stopwatch stopwatch = StopwatchUtils.start();
-        String fileContent = get(artifactUrl, String.class);
+        TestResults results = getStreamed(artifactUrl, inputStream -> new TestNGXmlTestResults(jobBuild, inputStream));
         if (stopwatch.elapsedTime(TimeUnit.SECONDS) > 1) {
-            log.info("Fetched {} ({}) in {} seconds", artifactUrl, humanReadableSize(fileContent.getBytes().length), stopwatch.elapsedTime(TimeUnit.SECONDS));
+            log.info("Fetched and parsed {} ({} results) in {} seconds", artifactUrl, results.testResults().size(), stopwatch.elapsedTime(TimeUnit.SECONDS));
         } else {
-            log.debug("Fetched {} ({}) in {} ms", artifactUrl, humanReadableSize(fileContent.getBytes().length), stopwatch.elapsedTime());
+            log.debug("Fetched and parsed {} ({} results) in {} ms", artifactUrl, results.testResults().size(), stopwatch.elapsedTime());
         }
-        return new TestNGXmlTestResults(jobBuild, fileContent);
+        return results;
     }
 
     private void addFailedConfigTestsViaJobHtmlPage(JobBuild jobBuild, JenkinsTestResults results) {
@@ -201,7 +250,7 @@ public class Jenkins extends AbstractRestBuildService {
         jobBuildToAbort.status = BuildStatus.ABORTED;
     }
 
-    public void logOutputForBuildsMatchingResult(ReviewRequestDraft draft, int linesToShow, BuildStatus... buildTypes) {
+    public void logOutputForBuildsMatchingResult(ReviewRequestDraft draft, int linesToShow, boolean followInProgressBuilds, BuildStatus... buildTypes) {
         String urlToCheckFor = urlUsedInBuilds();
         log.debug("Displaying output for builds matching url {} of type {}", urlToCheckFor, Arrays.toString(buildTypes));
         List<JobBuild> jobsToCheck = draft.jobBuildsMatchingUrl(urlToCheckFor);
@@ -209,7 +258,9 @@ public class Jenkins extends AbstractRestBuildService {
                 .forEach(jobBuild -> {
                     Padder buildPadder = new Padder("Jenkins build {} status {}", jobBuild.buildNumber(), jobBuild.status);
                     buildPadder.infoTitle();
-                    if (jobBuild.status != BuildStatus.FAILURE && jobBuild.status != BuildStatus.UNSTABLE) {
+                    if (jobBuild.status == BuildStatus.BUILDING && followInProgressBuilds) {
+                        IOUtils.tailAndFollow(jobBuild.logTextUrl(), linesToShow, log::info, FOLLOW_POLL_INTERVAL_SECONDS, () -> true);
+                    } else if (jobBuild.status != BuildStatus.FAILURE && jobBuild.status != BuildStatus.UNSTABLE) {
                         String consoleOutput = IOUtils.tail(jobBuild.logTextUrl(), linesToShow);
                         log.info(consoleOutput);
                     } else {
@@ -290,7 +341,14 @@ public class Jenkins extends AbstractRestBuildService {
     }
 
     private JobBuild getJobBuildDetails(String jobBuildUrl) {
-        return get(jobBuildUrl, JobBuild.class);
+        return get(jobBuildUrl, JobBuild.class, treeParam(JobBuild.class, BUILD_TREE_DEPTH));
+    }
+
+    /**
+     * Only the properties declared by the domain class are requested so that Jenkins doesn't return the full json.
+     */
+    private UrlParam treeParam(Class<?> domainClass, int depth) {
+        return new UrlParam("tree", JenkinsTreeQuery.forClass(domainClass, depth));
     }
 
     @Override
@@ -1,16 +1,21 @@
 package com.vmware.jira;
 
 import com.vmware.AbstractRestService;
+import com.vmware.http.BulkRequestExecutor;
+import com.vmware.http.BulkRequestExecutor.BulkResults;
 import com.vmware.http.HttpConnection;
 import com.vmware.http.cookie.ApiAuthentication;
 import com.vmware.http.credentials.UsernamePasswordAsker;
 import com.vmware.http.credentials.UsernamePasswordCredentials;
 import com.vmware.http.exception.NotFoundException;
+import com.vmware.http.exception.UnexpectedStatusException;
 import com.vmware.http.json.ConfiguredGsonBuilder;
 import com.vmware.http.request.RequestHeader;
 import com.vmware.http.request.body.RequestBodyHandling;
 import com.vmware.http.request.UrlParam;
 import com.vmware.jira.domain.AccessToken;
+import com.vmware.jira.domain.BulkIssueCreateRequest;
+import com.vmware.jira.domain.BulkIssueCreateResponse;
 import com.vmware.jira.domain.Issue;
 import com.vmware.jira.domain.IssueResolution;
 import com.vmware.jira.domain.IssueResolutionDefinition;
@@ -26,7 +31,9 @@ import com.vmware.jira.domain.MenuSections;
 import com.vmware.jira.domain.SearchRequest;
 import com.vmware.jira.domain.greenhopper.RapidView;
 import com.vmware.trello.domain.StringValue;
+import com.vmware.util.CollectionUtils;
 import com.vmware.util.IOUtils;
+import com.vmware.util.ThreadUtils;
 import com.vmware.util.UrlUtils;
 import com.vmware.util.complexenum.ComplexEnum;
 import org.slf4j.Logger;
@@ -35,8 +42,15 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.vmware.http.cookie.ApiAuthentication.jira_token;
@@ -51,12 +65,18 @@ import static com.vmware.config.jira.IssueTypeDefinition.TechComm;
 
 public class Jira extends AbstractRestService {
 
+    private static final int MAX_CONCURRENT_BULK_REQUESTS = 8;
+    private static final int MAX_ISSUES_PER_BULK_CREATE = 50;
+    private static final int MAX_KEYS_PER_SEARCH = 100;
+
     private final Logger log = LoggerFactory.getLogger(this.getClass());
     private final String loginUrl;
     private final String searchUrl;
     private final String legacyApiUrl;
     private final String agileUrl;
     private final String greenhopperUrl;
+    private final Map<String, Issue> issueCache = new ConcurrentHashMap<>();
+    private final BulkRequestExecutor bulkRequestExecutor = new BulkRequestExecutor("JiraBulkRequest", MAX_CONCURRENT_BULK_REQUESTS);
 
     public Jira(String jiraUrl, String username, Map<String, String> customFieldNames) {
         super(jiraUrl, "rest/api/2/", ApiAuthentication.jira_token, username);
@@ -98,7 +118,72 @@ public class Jira extends AbstractRestService {
     }
 
     public Issue getIssueByKey(String key) {
-        return get(urlBaseForKey(key), Issue.class);
+        Issue cachedIssue = issueCache.get(issueCacheKey(key));
+        if (cachedIssue != null) {
+            return cachedIssue;
+        }
+        Issue issue = get(urlBaseForKey(key), Issue.class);
+        if (issue != null) {
+            issueCache.put(issueCacheKey(key), issue);
+        }
+        return issue;
+    }
+
+    public CompletableFuture<Issue> getIssueByKeyAsync(String key) {
+        return supplyAsync(() -> getIssueByKey(key));
+    }
+
+    /**
+     * Fetches issues using key in (...) searches, with searches for multiple batches of keys running in parallel.
+     * Issues are cached for the lifetime of this client so repeated lookups for the same keys and fields don't make any requests.
+     * Keys are matched case insensitively, keys not returned by the search, e.g. for a moved issue, are fetched individually.
+     * @param fields fields to include for each issue, all navigable fields are included if none are specified
+     * @return issues keyed by the requested key, keys that don't exist are not included
+     */
+    public Map<String, Issue> getIssuesByKeys(Collection<String> keys, String... fields) {
+        Map<String, Issue> issues = new LinkedHashMap<>();
+        List<String> keysToFetch = new ArrayList<>();
+        keys.stream().distinct().forEach(key -> {
+            Issue cachedIssue = issueCache.get(issueCacheKey(key, fields));
+            if (cachedIssue != null) {
+                issues.put(key, cachedIssue);
+            } else {
+                keysToFetch.add(key);
+            }
+        });
+        if (keysToFetch.isEmpty()) {
+            return issues;
+        }
+
+        log.debug("Fetching {} issues, {} already cached", keysToFetch.size(), issues.size());
+        List<CompletableFuture<List<Issue>>> searchFutures = CollectionUtils.partition(keysToFetch, MAX_KEYS_PER_SEARCH).stream()
+                .map(keyBatch -> {
+                    SearchRequest searchRequest = new SearchRequest();
+                    searchRequest.jql = "key in (" + String.join(",", keyBatch) + ")";
+                    searchRequest.fields = fields.length > 0 ? fields : null;
+                    searchRequest.maxResults = keyBatch.size();
+                    // invalid keys shouldn't fail the whole search
+                    searchRequest.validateQuery = false;
+                    return searchForAllIssuesAsync(searchRequest);
+                }).collect(Collectors.toList());
+        Map<String, Issue> foundIssues = new HashMap<>();
+        ThreadUtils.joinAll(searchFutures).stream().flatMap(List::stream).forEach(issue -> foundIssues.put(issue.getKey().toUpperCase(), issue));
+
+        for (String key : keysToFetch) {
+            Issue issue = foundIssues.get(key.toUpperCase());
+            if (issue == null) {
+                log.debug("Issue {} not found by search, fetching it directly", key);
+                try {
+                    issue = getIssueByKey(key);
+                } catch (NotFoundException nfe) {
+                    log.debug(nfe.getMessage(), nfe);
+                    continue;
+                }
+            }
+            issueCache.put(issueCacheKey(key, fields), issue);
+            issues.put(key, issue);
+        }
+        return issues;
     }
 
     public Issue getIssueWithoutException(String key) {
@@ -114,6 +199,13 @@ public class Jira extends AbstractRestService {
         return post(searchUrl, IssuesResponse.class, searchRequest);
     }
 
+    /**
+     * Pages after the first page are fetched in parallel once the total is known from the first page.
+     */
+    public List<Issue> searchForAllIssues(SearchRequest searchRequest) {
+        return ThreadUtils.join(searchForAllIssuesAsync(searchRequest));
+    }
+
     public IssuesResponse getOpenTasksForUser() {
         String allowedStatuses = generateNumericalEnumListAsInts(Open, Reopened, InProgress, InReview);
         String issueTypesToGet = generateNumericalEnumListAsInts(Improvement, Feature, Bug, TechComm);
@@ -152,6 +244,10 @@ public class Jira extends AbstractRestService {
         return transitions;
     }
 
+    public CompletableFuture<IssueTransitions> getAllowedTransitionsAsync(String key) {
+        return supplyAsync(() -> getAllowedTransitions(key));
+    }
+
     public void transitionIssue(IssueTransition transition) {
         transitionIssue(transition, null);
     }
@@ -162,26 +258,51 @@ public class Jira extends AbstractRestService {
             updateIssue.fields.resolution = new IssueResolution(resolution);
         }
         post(urlBaseForKey(transition.issueId) + "transitions", updateIssue);
+        removeCachedIssue(transition.issueId);
     }
 
     public Issue createIssue(Issue issue) {
         return post(apiUrl + "issue", Issue.class, issue);
     }
 
+    /**
+     * Creates issues using the bulk create api, the key, id and self link of each created issue are set on the issue.
+     */
+    public BulkResults<Issue> createIssues(List<Issue> issues) {
+        BulkResults<Issue> results = new BulkResults<>("issue creation", issues.size());
+        List<List<Issue>> issueBatches = CollectionUtils.partition(issues, MAX_ISSUES_PER_BULK_CREATE);
+        bulkRequestExecutor.execute("issue batch creation", issueBatches, issueBatch -> {
+            BulkIssueCreateResponse response = post(apiUrl + "issue/bulk", BulkIssueCreateResponse.class,
+                    new BulkIssueCreateRequest(issueBatch));
+            addCreatedIssues(issueBatch, response, results);
+        }).getFailures().forEach(failure -> failure.item.forEach(issue -> results.addFailure(issue, failure.exception)));
+        return results;
+    }
+
+    /**
+     * Executes a request per item, requests are executed concurrently and paused if Jira rate limits requests.
+     */
+    public <T> BulkResults<T> executeInBulk(String description, Collection<T> items, Consumer<T> request) {
+        return bulkRequestExecutor.execute(description, items, request);
+    }
+
     public void updateIssue(Issue issue) {
         connection.put(urlBaseForKey(issue.getKey()), issue);
+        removeCachedIssue(issue.getKey());
     }
 
     public void updateIssueEstimate(String key, int estimateInHours) {
         IssueUpdate updateIssue = new IssueUpdate();
         updateIssue.fields.timetracking = new IssueTimeTracking(estimateInHours + "h");
         connection.put(urlBaseForKey(key), updateIssue);
+        removeCachedIssue(key);
     }
 
     public void updateIssueStoryPointsOnly(Issue issue) {
         IssueUpdate updateIssue = new IssueUpdate();
         updateIssue.fields.storyPoints = issue.fields.storyPoints;
         connection.put(urlBaseForKey(issue.getKey()), updateIssue);
+        removeCachedIssue(issue.getKey());
     }
 
     public void updateIssueStoryPointsUsingAgileApi(Issue issue, String boardId) {
@@ -190,11 +311,13 @@ public class Jira extends AbstractRestService {
         String url = agileUrl + "issue/" + issue.getKey() + "/estimation?boardId=" + boardId;
         StringValue storyPoints = new StringValue(String.valueOf(issue.fields.storyPoints));
         connection.put(url, storyPoints);
+        removeCachedIssue(issue.getKey());
     }
 
 
     public void deleteIssue(String key) {
         connection.delete(urlBaseForKey(key));
+        removeCachedIssue(key);
     }
 
     @Override
@@ -215,6 +338,56 @@ public class Jira extends AbstractRestService {
         return apiUrl + "issue/" + key + "/";
     }
 
+    private CompletableFuture<List<Issue>> searchForAllIssuesAsync(SearchRequest searchRequest) {
+        return postAsync(searchUrl, IssuesResponse.class, searchRequest).thenCompose(firstPage -> {
+            List<Issue> firstPageIssues = firstPage.issues != null ? Arrays.asList(firstPage.issues) : Collections.emptyList();
+            int pageSize = firstPageIssues.size();
+            if (pageSize == 0 || searchRequest.startAt + pageSize >= firstPage.total) {
+                return CompletableFuture.completedFuture(firstPageIssues);
+            }
+            List<CompletableFuture<IssuesResponse>> remainingPages = new ArrayList<>();
+            for (int startAt = searchRequest.startAt + pageSize; startAt < firstPage.total; startAt += pageSize) {
+                remainingPages.add(postAsync(searchUrl, IssuesResponse.class, searchRequest.forStartAt(startAt)));
+            }
+            return CompletableFuture.allOf(remainingPages.toArray(new CompletableFuture[0])).thenApply(result -> {
+                List<Issue> allIssues = new ArrayList<>(firstPageIssues);
+                remainingPages.stream().map(CompletableFuture::join).filter(page -> page.issues != null)
+                        .forEach(page -> allIssues.addAll(Arrays.asList(page.issues)));
+                return allIssues;
+            });
+        });
+    }
+
+    private String issueCacheKey(String key, String... fields) {
+        return key.toUpperCase() + "?" + String.join(",", fields);
+    }
+
+    private void removeCachedIssue(String key) {
+        String keyPrefix = key.toUpperCase() + "?";
+        issueCache.keySet().removeIf(cacheKey -> cacheKey.startsWith(keyPrefix));
+    }
+
+    private void addCreatedIssues(List<Issue> issueBatch, BulkIssueCreateResponse response, BulkResults<Issue> results) {
+        Map<Integer, BulkIssueCreateResponse.BulkOperationError> errorsByIndex = new HashMap<>();
+        if (response.errors != null) {
+            Arrays.stream(response.errors).forEach(error -> errorsByIndex.put(error.failedElementNumber, error));
+        }
+        int createdIssueIndex = 0;
+        for (int i = 0; i < issueBatch.size(); i++) {
+            Issue issue = issueBatch.get(i);
+            BulkIssueCreateResponse.BulkOperationError error = errorsByIndex.get(i);
+            if (error != null) {
+                results.addFailure(issue, new UnexpectedStatusException(error.status, error.errorText()));
+                continue;
+            }
+            Issue createdIssue = response.issues[createdIssueIndex++];
+            issue.setKey(createdIssue.getKey());
+            issue.id = createdIssue.id;
+            issue.self = createdIssue.self;
+            results.addSuccess(issue);
+        }
+    }
+
     private String generateNumericalEnumListAsInts(ComplexEnum... complexEnums) {
         return Arrays.stream(complexEnums).map(ComplexEnum::getValue).map(String::valueOf).collect(Collectors.joining(","));
     }
@@ -0,0 +1,12 @@
+package com.vmware.jira.domain;
+
+import java.util.List;
+
+public class BulkIssueCreateRequest {
+
+    public List<Issue> issueUpdates;
+
+    public BulkIssueCreateRequest(List<Issue> issueUpdates) {
+        this.issueUpdates = issueUpdates;
+    }
+}
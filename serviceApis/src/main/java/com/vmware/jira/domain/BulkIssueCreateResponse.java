@@ -0,0 +1,35 @@
+package com.vmware.jira.domain;
+
+import java.util.Map;
+
+/**
+ * Created issues are in the same order as the issues in the request, skipping issues that failed.
+ */
+public class BulkIssueCreateResponse {
+
+    public Issue[] issues;
+
+    public BulkOperationError[] errors;
+
+    public static class BulkOperationError {
+        public int status;
+
+        public int failedElementNumber;
+
+        public ErrorCollection elementErrors;
+
+        public String errorText() {
+            if (elementErrors == null) {
+                return "Status " + status;
+            }
+            return "Status " + status + " " + String.join(", ", elementErrors.errorMessages != null ? elementErrors.errorMessages : new String[0])
+                    + (elementErrors.errors != null && !elementErrors.errors.isEmpty() ? " " + elementErrors.errors : "");
+        }
+    }
+
+    public static class ErrorCollection {
+        public String[] errorMessages;
+
+        public Map<String, String> errors;
+    }
+}
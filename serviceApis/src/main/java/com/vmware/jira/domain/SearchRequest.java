@@ -3,5 +3,17 @@ package com.vmware.jira.domain;
 public class SearchRequest {
     public String jql;
     public String[] fields;
+    public int startAt;
     public int maxResults;
+    public Boolean validateQuery;
+
+    public SearchRequest forStartAt(int startAt) {
+        SearchRequest pageRequest = new SearchRequest();
+        pageRequest.jql = jql;
+        pageRequest.fields = fields;
+        pageRequest.startAt = startAt;
+        pageRequest.maxResults = maxResults;
+        pageRequest.validateQuery = validateQuery;
+        return pageRequest;
+    }
 }
@@ -0,0 +1,75 @@
+package com.vmware.reviewboard;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.vmware.reviewboard.domain.Link;
+import com.vmware.reviewboard.domain.PagedResponse;
+
+/**
+ * Iterates over all results of a Review Board list resource by following the next link of each page.
+ * The next page is fetched in the background while the results of the current page are processed.
+ * At most two pages are held in memory at a time.
+ */
+public class PagedResultsIterator<T> implements Iterator<T> {
+
+    private final Function<String, CompletableFuture<? extends PagedResponse<T>>> pageFetcher;
+
+    private Iterator<T> currentPageResults = Collections.emptyIterator();
+
+    private CompletableFuture<? extends PagedResponse<T>> nextPage;
+
+    /**
+     * @param pageFetcher fetches the page for the next link url
+     */
+    public PagedResultsIterator(PagedResponse<T> firstPage, Function<String, CompletableFuture<? extends PagedResponse<T>>> pageFetcher) {
+        this.pageFetcher = pageFetcher;
+        usePage(firstPage);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentPageResults.hasNext() && nextPage != null) {
+            usePage(joinNextPage());
+        }
+        return currentPageResults.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPageResults.next();
+    }
+
+    private void usePage(PagedResponse<T> page) {
+        currentPageResults = page.pageResults().iterator();
+        Link nextLink = page.getNextLink();
+        nextPage = nextLink != null ? pageFetcher.apply(nextLink.getHref()) : null;
+    }
+
+    private PagedResponse<T> joinNextPage() {
+        try {
+            return nextPage.join();
+        } catch (CompletionException ce) {
+            nextPage = null;
+            if (ce.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ce.getCause();
+            }
+            throw ce;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import com.vmware.reviewboard.domain.ReviewComment;
 import com.vmware.reviewboard.domain.DiffCommentsResponse;
 import com.vmware.reviewboard.domain.DiffToUpload;
 import com.vmware.reviewboard.domain.Link;
+import com.vmware.reviewboard.domain.PagedResponse;
 import com.vmware.reviewboard.domain.Repository;
 import com.vmware.reviewboard.domain.RepositoryResponse;
 import com.vmware.reviewboard.domain.ResultsCount;
@@ -46,9 +47,12 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static com.vmware.http.cookie.ApiAuthentication.reviewBoard_cookie;
 import static com.vmware.http.cookie.ApiAuthentication.reviewBoard_token;
@@ -59,6 +63,8 @@ import static com.vmware.reviewboard.domain.ReviewRequestStatus.all;
 import static com.vmware.reviewboard.domain.ReviewRequestStatus.pending;
 
 public class ReviewBoard extends AbstractRestService {
+    private static final int MAX_RESULTS_PER_PAGE = 200;
+
     private ServerInfo cachedServerInfo = null;
     private RootList cachedRootList = null;
 
@@ -79,31 +85,25 @@ public class ReviewBoard extends AbstractRestService {
 
     public RootList getRootLinkList() {
         if (cachedRootList == null) {
-            cachedRootList = connection.get(apiUrl, RootList.class);
+            cachedRootList = connection.getCached(apiUrl, RootList.class, serviceName(), cacheIdentity());
         }
         return cachedRootList;
     }
 
-    public ReviewRequests getReviewRequests(ReviewRequestStatus status) {
+    public Stream<ReviewRequest> getReviewRequests(ReviewRequestStatus status) {
         Link reviewRequestLink = getRootLinkList().getReviewRequestsLink();
-        return get(reviewRequestLink.getHref(), ReviewRequests.class,
+        return getAllPages(reviewRequestLink.getHref(), ReviewRequests.class,
                 new UrlParam("from-user", getUsername()), new UrlParam("status", status.name()));
     }
 
     public ReviewRequest[] getOpenReviewRequestsWithSubmittedComment() {
-        List<ReviewRequest> reviewRequestsWithSubmittedComments = new ArrayList<ReviewRequest>();
-        for (ReviewRequest reviewRequest : getOpenReviewRequestsWithShipIts().review_requests) {
-            UserReview softSubmitReview = getSoftSubmitReview(reviewRequest);
-            if (softSubmitReview != null) {
-                reviewRequestsWithSubmittedComments.add(reviewRequest);
-            }
-        }
-        return reviewRequestsWithSubmittedComments.toArray(new ReviewRequest[reviewRequestsWithSubmittedComments.size()]);
+        return getOpenReviewRequestsWithShipIts().filter(reviewRequest -> getSoftSubmitReview(reviewRequest) != null)
+                .toArray(ReviewRequest[]::new);
     }
 
-    public ReviewRequests getOpenReviewRequestsWithShipIts() {
+    public Stream<ReviewRequest> getOpenReviewRequestsWithShipIts() {
         Link reviewRequestLink = getRootLinkList().getReviewRequestsLink();
-        return get(reviewRequestLink.getHref(), ReviewRequests.class, new UrlParam("from-user", getUsername()),
+        return getAllPages(reviewRequestLink.getHref(), ReviewRequests.class, new UrlParam("from-user", getUsername()),
                 new UrlParam("status", pending.name()), new UrlParam("ship-it", "1"));
     }
 
@@ -114,20 +114,23 @@ public class ReviewBoard extends AbstractRestService {
         if (!searchByUsernameOnly) {
             params.add(new UrlParam("fullname", "1"));
         }
-        return get(usersLink.getHref(), ReviewUsersResponse.class, params.toArray(new RequestParam[0])).users;
+        return getCached(usersLink.getHref(), ReviewUsersResponse.class, params.toArray(new RequestParam[0])).users;
     }
 
     public int getFilesCountForReviewRequestDiff(Link filesLink) {
         return get(filesLink.getHref(), ResultsCount.class, new UrlParam("counts-only", "1")).count;
     }
 
-    public ReviewRequests getReviewRequestsWithShipItsForGroups(String groupNames, Date fromDate) {
+    public CompletableFuture<Integer> getFilesCountForReviewRequestDiffAsync(Link filesLink) {
+        return getAsync(filesLink.getHref(), ResultsCount.class, new UrlParam("counts-only", "1")).thenApply(resultsCount -> resultsCount.count);
+    }
+
+    public Stream<ReviewRequest> getReviewRequestsWithShipItsForGroups(String groupNames, Date fromDate) {
         SimpleDateFormat formatter = new SimpleDateFormat("YYYY-MM-dd HH:mm:ss");
         String formattedDate = formatter.format(fromDate);
         Link reviewRequestLink = getRootLinkList().getReviewRequestsLink();
-        return get(reviewRequestLink.getHref(), ReviewRequests.class,
-                new UrlParam("to-groups", groupNames), new UrlParam("max-results", "200"),
-                new UrlParam("time-added-from", formattedDate),
+        return getAllPages(reviewRequestLink.getHref(), ReviewRequests.class,
+                new UrlParam("to-groups", groupNames), new UrlParam("time-added-from", formattedDate),
                 new UrlParam("ship-it", "1"), new UrlParam("status", all.name()));
     }
 
@@ -141,7 +144,9 @@ public class ReviewBoard extends AbstractRestService {
     }
 
     public ReviewRequest createReviewRequest(String repository) {
-        Link createLink = getReviewRequests(pending).getCreateLink();
+        Link reviewRequestLink = getRootLinkList().getReviewRequestsLink();
+        Link createLink = get(reviewRequestLink.getHref(), ReviewRequests.class, new UrlParam("from-user", getUsername()),
+                new UrlParam("status", pending.name()), new UrlParam("max-results", "1")).getCreateLink();
 
         ReviewRequest initialReviewRequest = new ReviewRequest();
         initialReviewRequest.repository = repository;
@@ -193,13 +198,21 @@ public class ReviewBoard extends AbstractRestService {
     }
 
     public UserReview[] getReviewsForReviewRequest(Link reviewsLink) {
-        return get(reviewsLink.getHref(), UserReviewsResponse.class).reviews;
+        return get(reviewsLink.getHref(), UserReviewsResponse.class, maxResultsParam()).reviews;
+    }
+
+    public CompletableFuture<UserReview[]> getReviewsForReviewRequestAsync(Link reviewsLink) {
+        return getAsync(reviewsLink.getHref(), UserReviewsResponse.class, maxResultsParam()).thenApply(response -> response.reviews);
     }
 
     public ReviewRequestDiff[] getDiffsForReviewRequest(Link diffsLink) {
         return get(diffsLink.getHref(), ReviewRequestDiffsResponse.class).diffs;
     }
 
+    public CompletableFuture<ReviewRequestDiff[]> getDiffsForReviewRequestAsync(Link diffsLink) {
+        return getAsync(diffsLink.getHref(), ReviewRequestDiffsResponse.class).thenApply(response -> response.diffs);
+    }
+
     public ReviewComment[] getDiffCommentsForReview(Link diffCommentsLink) {
         ReviewComment[] comments = get(diffCommentsLink.getHref(), DiffCommentsResponse.class).diffComments;
         return comments != null ? comments : new ReviewComment[0];
@@ -235,7 +248,8 @@ public class ReviewBoard extends AbstractRestService {
 
     public ServerInfo getServerInfo() {
         if (cachedServerInfo == null) {
-            cachedServerInfo = connection.get(getRootLinkList().getInfoLink().getHref(), ServerInfoResponse.class).info;
+            cachedServerInfo = connection.getCached(getRootLinkList().getInfoLink().getHref(), ServerInfoResponse.class,
+                    serviceName(), cacheIdentity()).info;
         }
         return cachedServerInfo;
     }
@@ -298,6 +312,21 @@ public class ReviewBoard extends AbstractRestService {
         }
     }
 
+    /**
+     * Pages are requested with the max page size Review Board allows.
+     * The first page is fetched straight away, later pages are fetched in the background while the previous page is processed.
+     */
+    private <P extends PagedResponse<T>, T> Stream<T> getAllPages(String url, Class<P> pageClass, RequestParam... params) {
+        RequestParam[] pageParams = Arrays.copyOf(params, params.length + 1);
+        pageParams[params.length] = maxResultsParam();
+        P firstPage = get(url, pageClass, pageParams);
+        return new PagedResultsIterator<T>(firstPage, nextPageUrl -> getAsync(nextPageUrl, pageClass)).stream();
+    }
+
+    private UrlParam maxResultsParam() {
+        return new UrlParam("max-results", String.valueOf(MAX_RESULTS_PER_PAGE));
+    }
+
     private String getVersion() {
         return getServerInfo().product.version;
     }
@@ -21,6 +21,10 @@ public class BaseEntity {
         return getLink("delete");
     }
 
+    public Link getNextLink() {
+        return links != null ? getLink("next") : null;
+    }
+
     protected Link getLink(String name) {
         Link link = links.get(name);
         if (link == null) {
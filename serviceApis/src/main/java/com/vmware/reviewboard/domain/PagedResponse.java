@@ -0,0 +1,13 @@
+package com.vmware.reviewboard.domain;
+
+import java.util.List;
+
+/**
+ * A single page of a Review Board list resource. The next page is linked to by the next link.
+ */
+public interface PagedResponse<T> {
+
+    List<T> pageResults();
+
+    Link getNextLink();
+}
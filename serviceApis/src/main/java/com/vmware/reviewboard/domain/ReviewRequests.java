@@ -1,6 +1,10 @@
 package com.vmware.reviewboard.domain;
 
-public class ReviewRequests extends BaseEntity {
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ReviewRequests extends BaseEntity implements PagedResponse<ReviewRequest> {
 
     public int total_results;
 
@@ -10,4 +14,9 @@ public class ReviewRequests extends BaseEntity {
         return getLink("create");
     }
 
+    @Override
+    public List<ReviewRequest> pageResults() {
+        return review_requests != null ? Arrays.asList(review_requests) : Collections.emptyList();
+    }
+
 }
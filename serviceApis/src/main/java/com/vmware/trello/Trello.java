@@ -38,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -128,6 +129,10 @@ public class Trello extends AbstractRestService {
         return get(url, Card[].class);
     }
 
+    public CompletableFuture<Card[]> getCardsForSwimlaneAsync(Swimlane swimlane) {
+        return supplyAsync(() -> getCardsForSwimlane(swimlane));
+    }
+
     public Card[] getCardsForBoard(Board board) {
         String url = String.format("%sboards/%s/cards", apiUrl, board.id);
         return get(url, Card[].class);
@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -151,6 +152,10 @@ public class Vcd extends AbstractRestService {
         return get(link.href, resourceTypeClass, acceptHeader(resourceTypeClass));
     }
 
+    public <T extends ResourceType> CompletableFuture<T> getResourceAsync(LinkType link, Class<T> resourceTypeClass) {
+        return supplyAsync(() -> getResource(link, resourceTypeClass));
+    }
+
     public QueryResultVappType queryVappById(String id) {
         QueryResultVappsType vapps = queryVapps("id==" + id);
         if (vapps.record == null || vapps.record.isEmpty()) {
@@ -175,6 +180,10 @@ public class Vcd extends AbstractRestService {
         return queryVms("container==" + vappId);
     }
 
+    public CompletableFuture<QueryResultVMsType> queryVmsForVappAsync(String vappId) {
+        return supplyAsync(() -> queryVmsForVapp(vappId));
+    }
+
     public QueryResultVMsType queryVms(String... filters) {
         return query("vm", QueryResultVMsType.class, true, filters);
     }
@@ -0,0 +1,62 @@
+package com.vmware;
+
+import com.vmware.http.BulkRequestExecutor;
+import com.vmware.http.BulkRequestExecutor.BulkResults;
+import com.vmware.http.exception.NotFoundException;
+import com.vmware.http.exception.TooManyRequestsException;
+import com.vmware.util.exception.FatalException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestBulkRequestExecutor {
+
+    private final BulkRequestExecutor executor = new BulkRequestExecutor("TestBulkRequest", 4);
+
+    @Test
+    public void rateLimitedRequestsAreRetried() {
+        Map<Integer, AtomicInteger> attemptsPerItem = new ConcurrentHashMap<>();
+        List<Integer> items = IntStream.rangeClosed(1, 20).boxed().collect(Collectors.toList());
+
+        BulkResults<Integer> results = executor.execute("test requests", items, item -> {
+            int attempt = attemptsPerItem.computeIfAbsent(item, value -> new AtomicInteger()).incrementAndGet();
+            if (item % 5 == 0 && attempt == 1) {
+                throw new TooManyRequestsException("slow down", "0");
+            }
+        });
+
+        assertEquals(20, results.getSucceededItems().size());
+        assertTrue(results.getFailures().isEmpty());
+        assertEquals(2, attemptsPerItem.get(5).get());
+        assertEquals(1, attemptsPerItem.get(6).get());
+    }
+
+    @Test
+    public void failuresAreCollectedPerItem() {
+        BulkResults<String> results = executor.execute("test requests", Arrays.asList("A-1", "A-2", "A-3"), item -> {
+            if (item.equals("A-2")) {
+                throw new NotFoundException(item);
+            }
+        });
+
+        assertEquals(2, results.getSucceededItems().size());
+        assertEquals(1, results.getFailures().size());
+        assertEquals("A-2", results.getFailures().get(0).item);
+    }
+
+    @Test(expected = FatalException.class)
+    public void throwIfAnyFailed() {
+        executor.execute("test requests", Arrays.asList("A-1", "A-2"), item -> {
+            throw new NotFoundException(item);
+        }).throwIfAnyFailed(item -> item);
+    }
+}
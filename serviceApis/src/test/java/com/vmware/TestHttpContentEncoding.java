@@ -0,0 +1,54 @@
+package com.vmware;
+
+import com.vmware.http.HttpContentEncoding;
+import com.vmware.util.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestHttpContentEncoding {
+
+    private static final String CONTENT = "{\"jobs\": [\"first\", \"second\"]}";
+
+    @Test
+    public void canDecodeGzip() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        writeContent(new GZIPOutputStream(compressed));
+        assertEquals(CONTENT, decode(compressed.toByteArray(), "gzip"));
+    }
+
+    @Test
+    public void canDecodeZlibAndRawDeflate() throws IOException {
+        ByteArrayOutputStream zlibCompressed = new ByteArrayOutputStream();
+        writeContent(new DeflaterOutputStream(zlibCompressed));
+        assertEquals(CONTENT, decode(zlibCompressed.toByteArray(), "deflate"));
+
+        ByteArrayOutputStream rawCompressed = new ByteArrayOutputStream();
+        writeContent(new DeflaterOutputStream(rawCompressed, new Deflater(Deflater.DEFAULT_COMPRESSION, true)));
+        assertEquals(CONTENT, decode(rawCompressed.toByteArray(), "deflate"));
+    }
+
+    @Test
+    public void uncompressedAndEmptyContentIsUnchanged() throws IOException {
+        assertEquals(CONTENT, decode(CONTENT.getBytes(StandardCharsets.UTF_8), null));
+        assertEquals("", decode(new byte[0], "gzip"));
+    }
+
+    private void writeContent(OutputStream outputStream) throws IOException {
+        outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+        outputStream.close();
+    }
+
+    private String decode(byte[] content, String contentEncoding) throws IOException {
+        return IOUtils.read(HttpContentEncoding.decode(new ByteArrayInputStream(content), contentEncoding));
+    }
+}
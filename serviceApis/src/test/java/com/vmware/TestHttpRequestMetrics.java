@@ -0,0 +1,30 @@
+package com.vmware;
+
+import com.vmware.http.HttpRequestMetrics;
+import org.junit.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestHttpRequestMetrics {
+
+    @Test
+    public void requestsForDifferentIdsAreGroupedByEndpoint() throws MalformedURLException {
+        HttpRequestMetrics metrics = new HttpRequestMetrics();
+        metrics.startRequest("GET", new URL("https://reviewboard/api/review-requests/1234/reviews/")).finish(false);
+        metrics.startRequest("GET", new URL("https://reviewboard/api/review-requests/5678/reviews/?max-results=200")).finish(true);
+        metrics.startRequest("GET", new URL("https://jira/rest/api/2/issue/HW-1234")).finish(false);
+        metrics.recordRetry("GET", new URL("https://jira/rest/api/2/issue/HW-99"));
+
+        List<String> summaryLines = metrics.summaryLines();
+        assertEquals(3, summaryLines.size());
+        String reviewsLine = summaryLines.stream().filter(line -> line.contains("reviews")).findFirst().orElse("");
+        assertTrue(reviewsLine, reviewsLine.startsWith("GET reviewboard/api/review-requests/{id}/reviews/      2     1"));
+        String issueLine = summaryLines.stream().filter(line -> line.contains("issue")).findFirst().orElse("");
+        assertTrue(issueLine, issueLine.matches("GET jira/rest/api/2/issue/\\{key\\}\\s+1\\s+0\\s+1 .*"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.vmware;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vmware.http.HttpConnection;
+import com.vmware.http.HttpResponseCache;
+import com.vmware.http.HttpResponseCache.CachedResponse;
+import com.vmware.http.request.body.RequestBodyHandling;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestHttpResponseCache {
+
+    private File cacheDirectory;
+
+    @Before
+    public void createCacheDirectory() throws IOException {
+        cacheDirectory = Files.createTempDirectory("httpCache").toFile();
+    }
+
+    @After
+    public void removeCacheDirectory() {
+        HttpConnection.responseCache = null;
+        File[] entryFiles = cacheDirectory.listFiles();
+        if (entryFiles != null) {
+            for (File entryFile : entryFiles) {
+                entryFile.delete();
+            }
+        }
+        cacheDirectory.delete();
+    }
+
+    @Test
+    public void cacheKeyIsHashOfMethodUrlAndIdentity() {
+        String key = HttpResponseCache.cacheKey("GET", "https://jenkins/api/json", "user1");
+        assertEquals(64, key.length());
+        assertTrue(key.matches("[0-9a-f]+"));
+        assertEquals(key, HttpResponseCache.cacheKey("GET", "https://jenkins/api/json", "user1"));
+        assertNotEquals(key, HttpResponseCache.cacheKey("GET", "https://jenkins/api/json", "user2"));
+        assertNotEquals(key, HttpResponseCache.cacheKey("HEAD", "https://jenkins/api/json", "user1"));
+    }
+
+    @Test
+    public void freshnessUsesTimeToLiveForService() {
+        HttpResponseCache cache = new HttpResponseCache(cacheDirectory, 1024 * 1024, Collections.singletonMap("jenkins", 60));
+        CachedResponse response = new CachedResponse("https://jenkins/api/json", "\"v1\"", null, "{}");
+        response.storedAt = System.currentTimeMillis();
+        assertTrue(cache.isFresh("jenkins", response));
+        assertFalse(cache.isFresh("jira", response));
+        response.storedAt = System.currentTimeMillis() - 61000;
+        assertFalse(cache.isFresh("jenkins", response));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreRemoved() {
+        HttpResponseCache cache = new HttpResponseCache(cacheDirectory, 500, Collections.emptyMap());
+        String content = new String(new char[150]).replace('\0', 'a');
+        cache.put("first", new CachedResponse("url1", null, null, content));
+        cache.put("second", new CachedResponse("url2", null, null, content));
+        new File(cacheDirectory, "first.json").setLastModified(System.currentTimeMillis() - 20000);
+        new File(cacheDirectory, "second.json").setLastModified(System.currentTimeMillis() - 10000);
+        assertNotNull(cache.get("first"));
+        cache.put("third", new CachedResponse("url3", null, null, content));
+
+        assertNotNull(cache.get("first"));
+        assertNull(cache.get("second"));
+        assertNotNull(cache.get("third"));
+    }
+
+    @Test
+    public void notModifiedResponseUsesCachedContent() throws IOException {
+        AtomicInteger requestCount = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requestCount.incrementAndGet();
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "{\"name\": \"cached\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        try {
+            HttpConnection.responseCache = new HttpResponseCache(cacheDirectory, 1024 * 1024, Collections.emptyMap());
+            HttpConnection connection = new HttpConnection(RequestBodyHandling.AsStringJsonEntity);
+            String url = "http://localhost:" + server.getAddress().getPort() + "/api/json";
+
+            assertEquals("cached", connection.getCached(url, NamedResponse.class, "test", "user").name);
+            assertEquals("cached", connection.getCached(url, NamedResponse.class, "test", "user").name);
+            assertEquals(2, requestCount.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static class NamedResponse {
+        private String name;
+    }
+}
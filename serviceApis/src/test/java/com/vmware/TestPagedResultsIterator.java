@@ -0,0 +1,66 @@
+package com.vmware;
+
+import com.vmware.http.exception.NotFoundException;
+import com.vmware.reviewboard.PagedResultsIterator;
+import com.vmware.reviewboard.domain.Link;
+import com.vmware.reviewboard.domain.PagedResponse;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TestPagedResultsIterator {
+
+    @Test
+    public void followsNextLinksUntilLastPage() {
+        List<String> requestedUrls = new ArrayList<>();
+        PagedResultsIterator<String> iterator = new PagedResultsIterator<>(new Page("page2", "a", "b"), url -> {
+            requestedUrls.add(url);
+            return CompletableFuture.completedFuture(url.equals("page2") ? new Page("page3") : new Page(null, "c"));
+        });
+
+        assertEquals(Arrays.asList("a", "b", "c"), iterator.stream().collect(Collectors.toList()));
+        assertEquals(Arrays.asList("page2", "page3"), requestedUrls);
+    }
+
+    @Test
+    public void singlePageWithoutResults() {
+        assertFalse(new PagedResultsIterator<>(new Page(null), url -> null).hasNext());
+    }
+
+    @Test(expected = NotFoundException.class)
+    public void pageFailureIsRethrown() {
+        CompletableFuture<Page> failedPage = new CompletableFuture<>();
+        failedPage.completeExceptionally(new NotFoundException("missing page"));
+        PagedResultsIterator<String> iterator = new PagedResultsIterator<>(new Page("page2", "a"), url -> failedPage);
+        iterator.next();
+        iterator.next();
+    }
+
+    private static class Page implements PagedResponse<String> {
+        private final String nextUrl;
+        private final List<String> results;
+
+        private Page(String nextUrl, String... results) {
+            this.nextUrl = nextUrl;
+            this.results = results.length > 0 ? Arrays.asList(results) : Collections.emptyList();
+        }
+
+        @Override
+        public List<String> pageResults() {
+            return results;
+        }
+
+        @Override
+        public Link getNextLink() {
+            return nextUrl != null ? new Link(nextUrl) : null;
+        }
+    }
+}
@@ -10,7 +10,6 @@ import com.vmware.reviewboard.domain.ReviewRequest;
 import com.vmware.reviewboard.domain.ReviewRequestDiff;
 import com.vmware.reviewboard.domain.ReviewRequestDraft;
 import com.vmware.reviewboard.domain.ReviewRequestStatus;
-import com.vmware.reviewboard.domain.ReviewRequests;
 import com.vmware.reviewboard.domain.ReviewUser;
 import com.vmware.reviewboard.domain.RootList;
 import com.vmware.reviewboard.domain.UserReview;
@@ -92,16 +91,15 @@ public class TestReviewBoardApi extends BaseTests {
 
     @Test
     public void getReviewRequests() {
-        ReviewRequests reviewRequests = reviewBoard.getReviewRequests(ReviewRequestStatus.all);
-        assertTrue(reviewRequests.review_requests.length > 0);
+        assertTrue(reviewBoard.getReviewRequests(ReviewRequestStatus.all).findFirst().isPresent());
     }
 
     @Test
     public void getReviewRequestsForGroup() {
         long sevenDaysAgo = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(7);
-        ReviewRequests reviewRequests =
-                reviewBoard.getReviewRequestsWithShipItsForGroups(reviewGroup, new Date(sevenDaysAgo));
-        assertTrue(reviewRequests.review_requests.length > 0);
+        long reviewRequestsCount =
+                reviewBoard.getReviewRequestsWithShipItsForGroups(reviewGroup, new Date(sevenDaysAgo)).count();
+        assertTrue(reviewRequestsCount > 0);
     }
 
     @Test
@@ -151,7 +149,7 @@ public class TestReviewBoardApi extends BaseTests {
 
     @Test
     public void getOpenReviewsWithShipIts() throws Exception {
-        ReviewRequest[] reviewRequests = reviewBoard.getOpenReviewRequestsWithShipIts().review_requests;
+        ReviewRequest[] reviewRequests = reviewBoard.getOpenReviewRequestsWithShipIts().toArray(ReviewRequest[]::new);
         assertTrue(reviewRequests.length > 0);
     }
 
@@ -0,0 +1,45 @@
+package com.vmware;
+
+import com.vmware.jenkins.domain.JobBuild;
+import com.vmware.jenkins.domain.TestNGXmlTestResults;
+import com.vmware.jenkins.domain.TestResult;
+import com.vmware.jenkins.domain.TestResults;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestTestNGResultsParsing {
+
+    @Test
+    public void canParseResultsFromStream() {
+        JobBuild build = new JobBuild(10, "https://jenkins/job/sample");
+        TestResults results = new TestNGXmlTestResults(build, this.getClass().getResourceAsStream("/testng-results.xml"));
+
+        assertEquals(3, results.total);
+        assertEquals(1, results.failCount);
+        assertEquals(1, results.skipCount);
+
+        List<TestResult> testResults = results.testResults();
+        assertEquals("quick passing config method should not be kept", 3, testResults.size());
+
+        TestResult passedTest = testResults.get(0);
+        assertEquals("com.vmware.sample", passedTest.packagePath);
+        assertEquals("SampleTest", passedTest.className);
+        assertEquals("canPass", passedTest.name);
+        assertArrayEquals(new String[] {"first", "second"}, passedTest.parameters);
+        assertNull(passedTest.exception);
+
+        TestResult failedTest = testResults.get(1);
+        assertEquals(TestResult.TestStatus.FAIL, failedTest.status);
+        assertEquals(1.2, failedTest.duration, 0.001);
+        assertTrue(failedTest.exception.startsWith("java.lang.AssertionError: expected true"));
+        assertEquals(10, failedTest.buildNumber);
+
+        assertEquals(TestResult.TestStatus.SKIP, testResults.get(2).status);
+    }
+}
@@ -1,6 +1,7 @@
 package com.vmware.util;
 
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Stream;
@@ -28,4 +29,15 @@ public class CollectionUtils {
         }
         return values.stream();
     }
+
+    /**
+     * @return consecutive sublists of at most the specified size, sublists are views of the original list
+     */
+    public static <T> List<List<T>> partition(List<T> values, int size) {
+        List<List<T>> partitions = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += size) {
+            partitions.add(values.subList(i, Math.min(values.size(), i + size)));
+        }
+        return partitions;
+    }
 }
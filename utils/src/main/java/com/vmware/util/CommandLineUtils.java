@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Used for easy use of executing commands
@@ -92,7 +93,8 @@ public class CommandLineUtils {
         }
         Process statusProcess = executeCommand(workingDirectory, environmentVariables, command, inputText);
 
-        String output = IOUtils.read(statusProcess.getInputStream(), logResultOnly ? null : logLevel);
+        Consumer<String> outputLineLogger = logResultOnly ? null : line -> dynamicLogger.log(logLevel, line);
+        String output = IOUtils.read(statusProcess.getInputStream(), outputLineLogger, -1);
         if (logResultOnly && StringUtils.isNotBlank(output)) {
             dynamicLogger.log(logLevel, "Executed command [{}] Output [{}]", command, output);
         } else if (logResultOnly) {
@@ -135,6 +137,30 @@ public class CommandLineUtils {
         return statusProcess;
     }
 
+    /**
+     * Output is discarded rather than read so that a background process started by the command, e.g. a ssh master connection,
+     * can't stop the command from returning by keeping the output pipe open.
+     * @return exit code of the command, -1 if it didn't complete within the timeout
+     */
+    public static int executeCommandWithoutOutput(String command, long timeout, TimeUnit timeUnit) {
+        log.debug("Executing command {}", command);
+        File nullFile = new File(System.getProperty("os.name").toLowerCase(Locale.ENGLISH).startsWith("windows") ? "NUL" : "/dev/null");
+        ProcessBuilder builder = new ProcessBuilder(splitCommand(command)).redirectInput(ProcessBuilder.Redirect.from(nullFile))
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(nullFile)).redirectError(ProcessBuilder.Redirect.appendTo(nullFile));
+        Process process = startProcess(builder);
+        try {
+            if (!process.waitFor(timeout, timeUnit)) {
+                log.debug("Command {} did not complete within {} {}", command, timeout, timeUnit.name().toLowerCase());
+                process.destroy();
+                return -1;
+            }
+        } catch (InterruptedException e) {
+            process.destroy();
+            throw new RuntimeException(e);
+        }
+        return process.exitValue();
+    }
+
     public static String executeScript(String command, String[] inputs, String[] textsToWaitFor, LogLevel logLevel) {
         log.info("Executing script {}", command);
         ProcessBuilder builder = new ProcessBuilder(splitCommand(command)).redirectErrorStream(true);
@@ -4,7 +4,10 @@ import org.slf4j.LoggerFactory;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
 
@@ -29,20 +32,30 @@ public class DateUtils {
         return TimeUnit.MINUTES.convert(diffInMillies, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Counts the days from a day after date1 up to date2 that fall on a weekend, each counting as a full day.
+     * Calculated from the number of whole weeks so that it doesn't loop over every day between the dates.
+     */
     public static long weekendMinutesBetween(Date date1, Date date2) {
-        Calendar date1Calendar = Calendar.getInstance();
-        date1Calendar.setTime(date1);
-
-        long weekendMinutes = 0;
-        date1Calendar.add(Calendar.DAY_OF_MONTH, 1);
-        while (date2.after(date1Calendar.getTime())) {
-            if (date1Calendar.get(Calendar.DAY_OF_WEEK) == Calendar.SATURDAY
-                    || date1Calendar.get(Calendar.DAY_OF_WEEK) == Calendar.SUNDAY) {
-                weekendMinutes += TimeUnit.DAYS.toMinutes(1);
+        ZonedDateTime startTime = date1.toInstant().atZone(ZoneId.systemDefault());
+        ZonedDateTime endTime = date2.toInstant().atZone(ZoneId.systemDefault());
+        long daysAfterStart = ChronoUnit.DAYS.between(startTime, endTime);
+        if (daysAfterStart > 0 && !startTime.plusDays(daysAfterStart).isBefore(endTime)) {
+            daysAfterStart--;
+        }
+        if (daysAfterStart <= 0) {
+            return 0;
+        }
+
+        long weekendDays = (daysAfterStart / 7) * 2;
+        int startDayOfWeek = startTime.getDayOfWeek().getValue();
+        for (int day = 1; day <= daysAfterStart % 7; day++) {
+            DayOfWeek dayOfWeek = DayOfWeek.of((startDayOfWeek - 1 + day) % 7 + 1);
+            if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+                weekendDays++;
             }
-            date1Calendar.add(Calendar.DAY_OF_MONTH, 1);
         }
-        return weekendMinutes;
+        return TimeUnit.DAYS.toMinutes(weekendDays);
     }
 
     private static Date parseDate(String dateValue, String pattern, boolean logError) {
@@ -13,18 +13,24 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.io.StringWriter;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.Queue;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
-import com.vmware.util.collection.CircularFifoQueue;
 import com.vmware.util.exception.RuntimeIOException;
 import com.vmware.util.logging.DynamicLogger;
 import com.vmware.util.logging.LogLevel;
@@ -35,6 +41,7 @@ import org.slf4j.LoggerFactory;
 public class IOUtils {
 
     private static final int DEFAULT_BUFFER_SIZE = 1024 * 4;
+    static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
 
     private static final Logger log = LoggerFactory.getLogger(IOUtils.class);
     private static final DynamicLogger logger = new DynamicLogger(log);
@@ -137,19 +144,174 @@ public class IOUtils {
         }
     }
 
+    /**
+     * Only the end of the url content is requested if the server supports range requests or is a Jenkins progressive text url.
+     */
     public static String tail(String url, int numberOfLinesToTail) {
         try {
             logger.log(LogLevel.DEBUG, "Tailing {} lines using url {}", numberOfLinesToTail, url);
-            URLConnection urlConnection = new URL(url).openConnection();
-            Queue<String> lines = new CircularFifoQueue<>(numberOfLinesToTail);
-            addLines(urlConnection.getInputStream(), lines);
-            return StringUtils.join(lines, "\n");
+            return new UrlTailer(url).tail(numberOfLinesToTail);
         } catch (IOException e) {
             log.error("Failed to tail " + url, e);
             return "";
         }
     }
 
+    /**
+     * Tails the url and then polls for new lines, only text added since the last poll is requested.
+     * Following stops when the server indicates that no more text is expected, e.g. a Jenkins build has completed,
+     * or when keepFollowing returns false.
+     */
+    public static void tailAndFollow(String url, int numberOfLinesToTail, Consumer<String> lineConsumer, int pollIntervalSeconds, BooleanSupplier keepFollowing) {
+        try {
+            logger.log(LogLevel.DEBUG, "Tailing {} lines and following using url {}", numberOfLinesToTail, url);
+            UrlTailer tailer = new UrlTailer(url);
+            String tailedText = tailer.tail(numberOfLinesToTail);
+            if (!tailedText.isEmpty()) {
+                Arrays.stream(tailedText.split("\n")).forEach(lineConsumer);
+            }
+            tailer.follow(lineConsumer, pollIntervalSeconds, keepFollowing);
+        } catch (IOException e) {
+            log.error("Failed to follow " + url, e);
+        }
+    }
+
+    /**
+     * Streams the url content directly into the file without holding it in memory.
+     * The content is downloaded to a .part file that is renamed to the file once complete.
+     * A partial download is only resumed if the server confirms with If-Range that the content hasn't changed since.
+     * @return size of the downloaded file in bytes
+     */
+    public static long downloadToFile(String url, File file) {
+        File partFile = new File(file.getPath() + ".part");
+        File partInfoFile = new File(file.getPath() + ".part.info");
+        PartialDownload partialDownload = PartialDownload.read(partFile, partInfoFile);
+        try {
+            URLConnection connection = new URL(url).openConnection();
+            if (partialDownload != null) {
+                connection.setRequestProperty("Range", "bytes=" + partialDownload.downloadedLength + "-");
+                connection.setRequestProperty("If-Range", partialDownload.validator);
+            }
+            int responseCode = connection instanceof HttpURLConnection ? ((HttpURLConnection) connection).getResponseCode() : HttpURLConnection.HTTP_OK;
+            if (partialDownload != null && responseCode == HTTP_RANGE_NOT_SATISFIABLE) {
+                ((HttpURLConnection) connection).disconnect();
+                if (partialDownload.isComplete()) {
+                    log.info("{} has already been downloaded to {}", url, partFile.getPath());
+                    return completeDownload(partFile, partInfoFile, file);
+                }
+                log.info("Partial download {} doesn't match {}, downloading again", partFile.getPath(), url);
+                return restartDownload(url, file, partFile, partInfoFile);
+            }
+            boolean resumeDownload = partialDownload != null && responseCode == HttpURLConnection.HTTP_PARTIAL;
+            if (resumeDownload && contentRangeStart(connection) != partialDownload.downloadedLength) {
+                log.info("Content range {} doesn't match partial download {}, downloading again",
+                        connection.getHeaderField("Content-Range"), partFile.getPath());
+                ((HttpURLConnection) connection).disconnect();
+                return restartDownload(url, file, partFile, partInfoFile);
+            }
+            long startPosition = resumeDownload ? partialDownload.downloadedLength : 0;
+            if (resumeDownload) {
+                log.info("Resuming download of {} from {}", url, StringUtils.humanReadableSize(startPosition));
+            } else {
+                PartialDownload.writeInfo(connection, partInfoFile);
+            }
+
+            StopwatchUtils.Stopwatch stopwatch = StopwatchUtils.start();
+            long position = startPosition;
+            try (ReadableByteChannel inputChannel = Channels.newChannel(connection.getInputStream());
+                 FileChannel fileChannel = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                if (!resumeDownload) {
+                    fileChannel.truncate(0);
+                }
+                long transferredCount;
+                while ((transferredCount = fileChannel.transferFrom(inputChannel, position, Long.MAX_VALUE)) > 0) {
+                    position += transferredCount;
+                }
+            }
+            long elapsedTime = Math.max(stopwatch.elapsedTime(), 1);
+            long downloadedBytes = position - startPosition;
+            log.info("Downloaded {} in {} milliseconds ({}/s) to {}", StringUtils.humanReadableSize(downloadedBytes), elapsedTime,
+                    StringUtils.humanReadableSize(downloadedBytes * 1000 / elapsedTime), file.getPath());
+            return completeDownload(partFile, partInfoFile, file);
+        } catch (IOException e) {
+            throw new RuntimeIOException(e, "Failed to download {} to {}", url, file.getPath());
+        }
+    }
+
+    private static long restartDownload(String url, File file, File partFile, File partInfoFile) throws IOException {
+        Files.deleteIfExists(partInfoFile.toPath());
+        Files.deleteIfExists(partFile.toPath());
+        return downloadToFile(url, file);
+    }
+
+    private static long completeDownload(File partFile, File partInfoFile, File file) throws IOException {
+        Files.move(partFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(partInfoFile.toPath());
+        return file.length();
+    }
+
+    /**
+     * @return start position from a Content-Range header such as bytes 100-199/200, -1 if it can't be parsed
+     */
+    private static long contentRangeStart(URLConnection connection) {
+        String contentRange = connection.getHeaderField("Content-Range");
+        if (contentRange == null || !contentRange.startsWith("bytes ") || !contentRange.contains("-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring("bytes ".length(), contentRange.indexOf('-')).trim());
+        } catch (NumberFormatException nfe) {
+            return -1;
+        }
+    }
+
+    /**
+     * The ETag or Last-Modified value and total length of a download are stored next to the .part file,
+     * so that a later resume can check that it is still downloading the same content.
+     */
+    private static class PartialDownload {
+        private final String validator;
+        private final long totalLength;
+        private final long downloadedLength;
+
+        private PartialDownload(String validator, long totalLength, long downloadedLength) {
+            this.validator = validator;
+            this.totalLength = totalLength;
+            this.downloadedLength = downloadedLength;
+        }
+
+        private boolean isComplete() {
+            return totalLength >= 0 && totalLength == downloadedLength;
+        }
+
+        private static PartialDownload read(File partFile, File partInfoFile) {
+            if (!partFile.exists() || partFile.length() == 0 || !partInfoFile.exists()) {
+                return null;
+            }
+            List<String> infoLines = readLines(partInfoFile);
+            if (infoLines.size() < 2 || StringUtils.isEmpty(infoLines.get(0))) {
+                return null;
+            }
+            try {
+                return new PartialDownload(infoLines.get(0), Long.parseLong(infoLines.get(1)), partFile.length());
+            } catch (NumberFormatException nfe) {
+                return null;
+            }
+        }
+
+        private static void writeInfo(URLConnection connection, File partInfoFile) throws IOException {
+            String validator = connection.getHeaderField("ETag");
+            if (validator == null || validator.startsWith("W/")) {
+                validator = connection.getHeaderField("Last-Modified");
+            }
+            if (validator == null) {
+                Files.deleteIfExists(partInfoFile.toPath());
+            } else {
+                write(partInfoFile, validator + "\n" + connection.getContentLengthLong());
+            }
+        }
+    }
+
     public static List<String> readLines(File file) {
         try {
             return readLines(new FileInputStream(file));
@@ -177,36 +339,73 @@ public class IOUtils {
     }
 
     public static String read(Reader input, boolean readUntilStreamClosed, LogLevel printLinesLevel) {
-        StringWriter writer = new StringWriter();
-        char[] buffer = new char[DEFAULT_BUFFER_SIZE];
+        Consumer<String> lineConsumer = printLinesLevel != null ? line -> logger.log(printLinesLevel, line) : null;
+        return read(input, readUntilStreamClosed, lineConsumer, -1);
+    }
+
+    public static String read(InputStream inputStream, Consumer<String> lineConsumer, int maxCharsToCapture) {
+        try (InputStreamReader reader = new InputStreamReader(inputStream)) {
+            return read(reader, true, lineConsumer, maxCharsToCapture);
+        } catch (IOException e) {
+            throw new RuntimeIOException(e);
+        }
+    }
+
+    /**
+     * Reads the input in linear time, previously read output is never copied again.
+     * @param lineConsumer optional consumer that is passed each line as it is read
+     * @param maxCharsToCapture max number of characters to return, the end of the output is kept if exceeded. Negative for no limit
+     * @return captured output without the trailing new line
+     */
+    public static String read(Reader input, boolean readUntilStreamClosed, Consumer<String> lineConsumer, int maxCharsToCapture) {
+        StringBuilder capturedOutput = new StringBuilder();
+        LineSplitter lineSplitter = lineConsumer != null ? new LineSplitter(lineConsumer) : null;
+        readChunks(input, readUntilStreamClosed, (buffer, offset, length) -> {
+            captureChunk(capturedOutput, buffer, offset, length, maxCharsToCapture);
+            if (lineSplitter != null) {
+                lineSplitter.accept(buffer, offset, length);
+            }
+        });
+        if (lineSplitter != null) {
+            lineSplitter.flush();
+        }
+        if (maxCharsToCapture >= 0 && capturedOutput.length() > maxCharsToCapture) {
+            capturedOutput.delete(0, capturedOutput.length() - maxCharsToCapture);
+        }
+        int length = capturedOutput.length();
+        if (length > 0 && capturedOutput.charAt(length - 1) == '\n') {
+            capturedOutput.setLength(length - 1);
+        }
+        return capturedOutput.toString();
+    }
 
+    /**
+     * Passes each chunk read to the consumer. The buffer is reused for each chunk.
+     */
+    public static void readChunks(Reader input, boolean readUntilStreamClosed, ChunkConsumer chunkConsumer) {
+        char[] buffer = new char[DEFAULT_BUFFER_SIZE];
         int lastReadCount;
-        StringBuilder alreadyWrittenOutput = null;
         do {
             try {
                 lastReadCount = input.read(buffer);
             } catch (IOException e) {
                 throw new RuntimeIOException(e);
             }
-            if (lastReadCount != -1) {
-                writer.write(buffer, 0, lastReadCount);
-                String outputToWrite = writer.toString();
-                if (alreadyWrittenOutput == null) {
-                    alreadyWrittenOutput = new StringBuilder(writer.toString());
-                } else {
-                    outputToWrite = outputToWrite.substring(alreadyWrittenOutput.length());
-                    alreadyWrittenOutput.append(outputToWrite);
-                }
-                if (printLinesLevel != null) {
-                    logger.log(printLinesLevel, outputToWrite.trim());
-                }
+            if (lastReadCount > 0) {
+                chunkConsumer.accept(buffer, 0, lastReadCount);
             }
         } while (canRead(input, readUntilStreamClosed, lastReadCount));
-        String output = writer.toString();
-        if (output.endsWith("\n")) {
-            output = output.substring(0, output.length() - 1);
+    }
+
+    private static void captureChunk(StringBuilder capturedOutput, char[] buffer, int offset, int length, int maxCharsToCapture) {
+        if (maxCharsToCapture == 0) {
+            return;
+        }
+        capturedOutput.append(buffer, offset, length);
+        // only trim once the buffer has doubled so that the cost of trimming stays linear
+        if (maxCharsToCapture > 0 && capturedOutput.length() > maxCharsToCapture * 2) {
+            capturedOutput.delete(0, capturedOutput.length() - maxCharsToCapture);
         }
-        return output;
     }
 
     private static boolean canRead(Reader reader, boolean readUntilStreamClosed, int lastReadCount) {
@@ -220,4 +419,56 @@ public class IOUtils {
             }
         }
     }
+
+    /**
+     * Consumer for a chunk of text. The buffer is only valid for the duration of the call.
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        void accept(char[] buffer, int offset, int length);
+    }
+
+    /**
+     * Splits chunks of text into lines, a partial line is held until the rest of the line is read.
+     */
+    public static class LineSplitter implements ChunkConsumer {
+        private final Consumer<String> lineConsumer;
+        private final StringBuilder partialLine = new StringBuilder();
+
+        public LineSplitter(Consumer<String> lineConsumer) {
+            this.lineConsumer = lineConsumer;
+        }
+
+        @Override
+        public void accept(char[] buffer, int offset, int length) {
+            int lineStart = offset;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    partialLine.append(buffer, lineStart, i - lineStart);
+                    emitLine();
+                    lineStart = i + 1;
+                }
+            }
+            partialLine.append(buffer, lineStart, end - lineStart);
+        }
+
+        /**
+         * Passes any remaining partial line to the consumer.
+         */
+        public void flush() {
+            if (partialLine.length() > 0) {
+                emitLine();
+            }
+        }
+
+        private void emitLine() {
+            int length = partialLine.length();
+            if (length > 0 && partialLine.charAt(length - 1) == '\r') {
+                partialLine.setLength(length - 1);
+            }
+            lineConsumer.accept(partialLine.toString());
+            partialLine.setLength(0);
+        }
+    }
 }
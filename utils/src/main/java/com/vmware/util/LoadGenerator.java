@@ -0,0 +1,281 @@
+package com.vmware.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes requests concurrently and records their latencies per request name and per status.
+ * With a request rate, requests are started at a constant rate no matter how long earlier requests take (open loop).
+ * Latencies are then measured from when a request was scheduled to start so that queueing caused by a slow server is included.
+ * Without a request rate, each thread starts its next request as soon as its previous request completes (closed loop).
+ * Requests scheduled during the warm up period are executed but not included in the results.
+ */
+public class LoadGenerator {
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final int concurrency;
+    private final int requestsPerSecond;
+    private final long warmUpNanos;
+    private final long durationNanos;
+    private final long maxRequestCount;
+    private final List<NamedRequest> requests = new ArrayList<>();
+    private int totalWeight;
+
+    /**
+     * @param requestsPerSecond target rate for starting requests, 0 to run requests back to back
+     * @param durationSeconds how long to run for after the warm up period, 0 to only use the max request count
+     * @param maxRequestCount max number of requests to execute including warm up requests, 0 to only use the duration
+     */
+    public LoadGenerator(int concurrency, int requestsPerSecond, int warmUpSeconds, int durationSeconds, long maxRequestCount) {
+        if (durationSeconds <= 0 && maxRequestCount <= 0) {
+            throw new IllegalArgumentException("Either a duration or a max request count is needed");
+        }
+        this.concurrency = Math.max(1, concurrency);
+        this.requestsPerSecond = requestsPerSecond;
+        this.warmUpNanos = TimeUnit.SECONDS.toNanos(warmUpSeconds);
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.maxRequestCount = maxRequestCount;
+    }
+
+    /**
+     * @param weight how often the request is executed relative to the other requests
+     * @param request executes the request with the specified request number and returns the status to record for it
+     */
+    public LoadGenerator addRequest(String name, int weight, LongFunction<String> request) {
+        requests.add(new NamedRequest(name, Math.max(1, weight), request));
+        totalWeight += Math.max(1, weight);
+        return this;
+    }
+
+    public LoadResults run() {
+        if (requests.isEmpty()) {
+            throw new IllegalStateException("No requests added");
+        }
+        long startTime = System.nanoTime();
+        LoadResults results = new LoadResults(startTime + warmUpNanos);
+        ExecutorService executor = ThreadUtils.newDaemonThreadPool("load", concurrency);
+        try {
+            if (requestsPerSecond > 0) {
+                startRequestsAtFixedRate(executor, results, startTime);
+            } else {
+                runRequestsBackToBack(executor, results, startTime);
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+        results.endTime = System.nanoTime();
+        return results;
+    }
+
+    private void startRequestsAtFixedRate(ExecutorService executor, LoadResults results, long startTime) {
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / (double) requestsPerSecond;
+        for (long requestNumber = 1; ; requestNumber++) {
+            long scheduledTime = startTime + (long) ((requestNumber - 1) * intervalNanos);
+            if (!shouldStartRequest(requestNumber, scheduledTime, startTime)) {
+                return;
+            }
+            long waitTime;
+            while ((waitTime = scheduledTime - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitTime);
+            }
+            long number = requestNumber;
+            executor.execute(() -> executeRequest(number, scheduledTime, results));
+        }
+    }
+
+    private void runRequestsBackToBack(ExecutorService executor, LoadResults results, long startTime) {
+        AtomicLong requestCounter = new AtomicLong();
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                long requestNumber = requestCounter.incrementAndGet();
+                long requestStartTime = System.nanoTime();
+                while (shouldStartRequest(requestNumber, requestStartTime, startTime)) {
+                    executeRequest(requestNumber, requestStartTime, results);
+                    requestNumber = requestCounter.incrementAndGet();
+                    requestStartTime = System.nanoTime();
+                }
+            });
+        }
+    }
+
+    private boolean shouldStartRequest(long requestNumber, long scheduledTime, long startTime) {
+        if (maxRequestCount > 0 && requestNumber > maxRequestCount) {
+            return false;
+        }
+        return durationNanos <= 0 || scheduledTime - startTime < warmUpNanos + durationNanos;
+    }
+
+    private void executeRequest(long requestNumber, long scheduledTime, LoadResults results) {
+        NamedRequest request = requestFor(requestNumber);
+        long actualStartTime = System.nanoTime();
+        String status;
+        try {
+            status = request.request.apply(requestNumber);
+        } catch (RuntimeException e) {
+            log.debug("Request {} {} failed: {}", request.name, requestNumber, e.getMessage());
+            status = e.getClass().getSimpleName();
+        }
+        results.record(request.name, status, scheduledTime, actualStartTime, System.nanoTime());
+    }
+
+    /**
+     * Requests are selected by weighted round robin so that the mix of requests is the same for every run.
+     */
+    private NamedRequest requestFor(long requestNumber) {
+        long position = (requestNumber - 1) % totalWeight;
+        for (NamedRequest request : requests) {
+            position -= request.weight;
+            if (position < 0) {
+                return request;
+            }
+        }
+        throw new IllegalStateException("No request for position " + position);
+    }
+
+    private static class NamedRequest {
+        private final String name;
+        private final int weight;
+        private final LongFunction<String> request;
+
+        private NamedRequest(String name, int weight, LongFunction<String> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+    }
+
+    public static class LoadResults {
+        private final long measurementStartTime;
+        private long endTime;
+        private final AtomicLong warmUpRequestCount = new AtomicLong();
+        private final LongAccumulator maxStartDelayNanos = new LongAccumulator(Math::max, 0);
+        private final Map<String, LatencyStats> latenciesPerRequest = new ConcurrentHashMap<>();
+        private final Map<String, LatencyStats> latenciesPerStatus = new ConcurrentHashMap<>();
+        private final LatencyStats totalLatencies = new LatencyStats();
+
+        private LoadResults(long measurementStartTime) {
+            this.measurementStartTime = measurementStartTime;
+        }
+
+        private void record(String requestName, String status, long scheduledTime, long actualStartTime, long completedTime) {
+            maxStartDelayNanos.accumulate(actualStartTime - scheduledTime);
+            if (scheduledTime < measurementStartTime) {
+                warmUpRequestCount.incrementAndGet();
+                return;
+            }
+            long latency = completedTime - scheduledTime;
+            totalLatencies.record(latency);
+            latenciesPerRequest.computeIfAbsent(requestName, name -> new LatencyStats()).record(latency);
+            latenciesPerStatus.computeIfAbsent(status, name -> new LatencyStats()).record(latency);
+        }
+
+        public long requestCount() {
+            return totalLatencies.count();
+        }
+
+        public long warmUpRequestCount() {
+            return warmUpRequestCount.get();
+        }
+
+        /**
+         * @return how far behind schedule the latest request was started, a large delay means that the client couldn't keep up with the request rate
+         */
+        public long maxStartDelayMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxStartDelayNanos.get());
+        }
+
+        public double measuredSeconds() {
+            return Math.max(0, endTime - measurementStartTime) / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+
+        /**
+         * @param percentile between 1 and 100, the latency that the percentage of requests completed within
+         * @return latency in milliseconds over all measured requests, -1 if no requests were measured
+         */
+        public double latencyPercentileMillis(int percentile) {
+            return percentileMillis(totalLatencies.sortedLatencies(), percentile);
+        }
+
+        /**
+         * @return table of throughput and latency percentiles per request name and per status
+         */
+        public List<String> summaryLines() {
+            Map<String, LatencyStats> rows = new TreeMap<>();
+            latenciesPerRequest.forEach((name, stats) -> rows.put("Request " + name, stats));
+            latenciesPerStatus.forEach((status, stats) -> rows.put("Status " + status, stats));
+            int nameWidth = Math.max(5, rows.keySet().stream().mapToInt(String::length).max().orElse(0));
+            String lineFormat = "%-" + nameWidth + "s %8s %9s %9s %9s %9s %9s";
+            List<String> lines = new ArrayList<>();
+            lines.add(String.format(lineFormat, "Name", "Count", "Req/s", "P50 ms", "P90 ms", "P99 ms", "Max ms"));
+            rows.forEach((name, stats) -> lines.add(summaryLine(lineFormat, name, stats)));
+            lines.add(summaryLine(lineFormat, "Total", totalLatencies));
+            return lines;
+        }
+
+        private String summaryLine(String lineFormat, String name, LatencyStats stats) {
+            long[] sortedLatencies = stats.sortedLatencies();
+            double seconds = measuredSeconds();
+            String requestsPerSecond = seconds > 0 ? String.format("%.1f", sortedLatencies.length / seconds) : "-";
+            return String.format(lineFormat, name, sortedLatencies.length, requestsPerSecond, formatMillis(sortedLatencies, 50),
+                    formatMillis(sortedLatencies, 90), formatMillis(sortedLatencies, 99), formatMillis(sortedLatencies, 100));
+        }
+
+        private String formatMillis(long[] sortedLatencies, int percentile) {
+            return sortedLatencies.length > 0 ? String.format("%.1f", percentileMillis(sortedLatencies, percentile)) : "-";
+        }
+
+        /**
+         * Uses the nearest rank, so the percentile is always one of the recorded latencies.
+         */
+        private double percentileMillis(long[] sortedLatencies, int percentile) {
+            if (sortedLatencies.length == 0) {
+                return -1;
+            }
+            int index = (int) Math.ceil(sortedLatencies.length * percentile / 100.0) - 1;
+            return sortedLatencies[Math.max(0, index)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+
+    /**
+     * Keeps every latency so that percentiles are exact.
+     */
+    private static class LatencyStats {
+        private long[] latencies = new long[256];
+        private int count;
+
+        private synchronized void record(long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+
+        private synchronized long count() {
+            return count;
+        }
+
+        private synchronized long[] sortedLatencies() {
+            long[] sortedLatencies = Arrays.copyOf(latencies, count);
+            Arrays.sort(sortedLatencies);
+            return sortedLatencies;
+        }
+    }
+}
@@ -56,15 +56,20 @@ public class ReflectionUtils {
         }
     }
 
-    public static void invokeAllMethodsWithAnnotation(Object instance, Class<? extends Annotation> annotation) {
+    public static List<Method> getAllMethodsWithAnnotation(Class clazz, Class<? extends Annotation> annotation) {
         List<Method> annotatedMethods = new ArrayList<>();
-        Class clazzToFetch = instance.getClass();
+        Class clazzToFetch = clazz;
         while (clazzToFetch != Object.class) {
             List<Method> matchingMethods = Arrays.stream(clazzToFetch.getMethods())
                     .filter(method -> method.getAnnotation(annotation) != null).collect(Collectors.toList());
             annotatedMethods.addAll(0, matchingMethods);
             clazzToFetch = clazzToFetch.getSuperclass();
         }
+        return annotatedMethods;
+    }
+
+    public static void invokeAllMethodsWithAnnotation(Object instance, Class<? extends Annotation> annotation) {
+        List<Method> annotatedMethods = getAllMethodsWithAnnotation(instance.getClass(), annotation);
         annotatedMethods.forEach(method -> {
             try {
                 method.invoke(instance);
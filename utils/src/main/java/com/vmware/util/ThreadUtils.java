@@ -3,9 +3,16 @@ package com.vmware.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntFunction;
+import java.util.stream.Collectors;
 
 public class ThreadUtils {
 
@@ -64,6 +71,47 @@ public class ThreadUtils {
         throw exceptionToThrow;
     }
 
+    /**
+     * Creates a fixed size pool of daemon threads so that pending tasks don't stop the jvm from exiting.
+     */
+    public static ExecutorService newDaemonThreadPool(String threadNamePrefix, int poolSize) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Waits for all futures to complete. The original runtime exception is rethrown if a future failed.
+     */
+    /**
+     * Rethrows the runtime exception that the future failed with rather than a CompletionException.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ce) {
+            if (ce.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ce.getCause();
+            }
+            throw ce;
+        }
+    }
+
+    public static <T> List<T> joinAll(List<CompletableFuture<T>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException ce) {
+            if (ce.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ce.getCause();
+            }
+            throw ce;
+        }
+        return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
     private static long determineRetryWaitPeriod(long totalSeconds) {
         long timeBetweenRetries = 60;
         if (totalSeconds <= 10) {
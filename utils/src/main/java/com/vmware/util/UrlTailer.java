@@ -0,0 +1,191 @@
+package com.vmware.util;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import com.vmware.util.collection.CircularFifoQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tails a remote text file by only requesting the end of it.
+ * Uses a suffix range request, the range is widened until enough lines have been read.
+ * Jenkins progressive text urls ignore ranges so the start offset parameter is used instead,
+ * the text size is found with a HEAD request so that the full text isn't read first.
+ * If neither is supported, the whole file is read.
+ */
+final class UrlTailer {
+    private static final int INITIAL_TAIL_BYTES = 16 * 1024;
+    private static final int ESTIMATED_BYTES_PER_LINE = 160;
+    private static final String TEXT_SIZE_HEADER = "X-Text-Size";
+    private static final String MORE_DATA_HEADER = "X-More-Data";
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final String url;
+
+    private boolean usesProgressiveText;
+
+    private boolean moreDataExpected;
+
+    /**
+     * Byte offset of the end of the text read so far, -1 if new text can't be requested from an offset.
+     */
+    private long nextOffset = -1;
+
+    UrlTailer(String url) {
+        this.url = url;
+        String urlPath = StringUtils.substringBefore(url, "?");
+        this.usesProgressiveText = urlPath.endsWith("/progressiveText") || urlPath.endsWith("/progressiveHtml");
+    }
+
+    String tail(int numberOfLines) throws IOException {
+        long tailBytes = Math.max(INITIAL_TAIL_BYTES, (long) numberOfLines * ESTIMATED_BYTES_PER_LINE);
+        if (usesProgressiveText) {
+            return tailProgressiveText(numberOfLines, progressiveTextSize(), tailBytes);
+        }
+        while (true) {
+            HttpURLConnection connection = openConnection(url);
+            connection.setRequestProperty("Range", "bytes=-" + tailBytes);
+            int responseCode = connection.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_PARTIAL) {
+                long[] contentRange = parseContentRange(connection.getHeaderField("Content-Range"));
+                List<String> lines = lastLines(readText(connection), numberOfLines, contentRange[0] > 0);
+                if (lines.size() >= numberOfLines || contentRange[0] == 0) {
+                    nextOffset = contentRange[1] + 1;
+                    return String.join("\n", lines);
+                }
+                tailBytes *= 4;
+            } else if (responseCode == IOUtils.HTTP_RANGE_NOT_SATISFIABLE) {
+                log.debug("No text to tail for {}", url);
+                nextOffset = 0;
+                return "";
+            } else if (connection.getHeaderField(TEXT_SIZE_HEADER) != null) {
+                long textSize = Long.parseLong(connection.getHeaderField(TEXT_SIZE_HEADER));
+                connection.disconnect();
+                usesProgressiveText = true;
+                return tailProgressiveText(numberOfLines, textSize, tailBytes);
+            } else {
+                log.debug("Range requests not supported for {}, reading all lines", url);
+                Queue<String> lines = new CircularFifoQueue<>(numberOfLines);
+                IOUtils.addLines(connection.getInputStream(), lines);
+                return StringUtils.join(lines, "\n");
+            }
+        }
+    }
+
+    /**
+     * Polls for text added after the last text read.
+     * Stops when the server indicates that no more text is expected or keepFollowing returns false.
+     */
+    void follow(Consumer<String> lineConsumer, int pollIntervalSeconds, BooleanSupplier keepFollowing) throws IOException {
+        if (nextOffset < 0) {
+            log.info("Cannot follow {} as it doesn't support reading from an offset", url);
+            return;
+        }
+        IOUtils.LineSplitter lineSplitter = new IOUtils.LineSplitter(lineConsumer);
+        while (keepFollowing.getAsBoolean() && (!usesProgressiveText || moreDataExpected)) {
+            ThreadUtils.sleep(pollIntervalSeconds, TimeUnit.SECONDS);
+            String newText = usesProgressiveText ? readProgressiveText(nextOffset) : readRangeFrom(nextOffset);
+            lineSplitter.accept(newText.toCharArray(), 0, newText.length());
+        }
+        lineSplitter.flush();
+    }
+
+    private String tailProgressiveText(int numberOfLines, long textSize, long initialTailBytes) throws IOException {
+        long tailBytes = initialTailBytes;
+        long start = Math.max(0, textSize - tailBytes);
+        while (true) {
+            List<String> lines = lastLines(readProgressiveText(start), numberOfLines, start > 0);
+            if (lines.size() >= numberOfLines || start == 0) {
+                return String.join("\n", lines);
+            }
+            tailBytes *= 4;
+            start = Math.max(0, nextOffset - tailBytes);
+        }
+    }
+
+    /**
+     * @return text size from a HEAD request, 0 if the size isn't returned so that the text is read from the start
+     */
+    private long progressiveTextSize() throws IOException {
+        HttpURLConnection connection = openConnection(url);
+        connection.setRequestMethod("HEAD");
+        String textSize = connection.getResponseCode() == HttpURLConnection.HTTP_OK ? connection.getHeaderField(TEXT_SIZE_HEADER) : null;
+        connection.disconnect();
+        if (textSize == null) {
+            log.debug("No text size returned for {}, reading from the start", url);
+            return 0;
+        }
+        return Long.parseLong(textSize);
+    }
+
+    private String readProgressiveText(long start) throws IOException {
+        HttpURLConnection connection = openConnection(url + (url.contains("?") ? "&" : "?") + "start=" + start);
+        String text = readText(connection);
+        String textSize = connection.getHeaderField(TEXT_SIZE_HEADER);
+        nextOffset = textSize != null ? Long.parseLong(textSize) : start + text.length();
+        moreDataExpected = Boolean.parseBoolean(connection.getHeaderField(MORE_DATA_HEADER));
+        return text;
+    }
+
+    private String readRangeFrom(long start) throws IOException {
+        HttpURLConnection connection = openConnection(url);
+        connection.setRequestProperty("Range", "bytes=" + start + "-");
+        int responseCode = connection.getResponseCode();
+        if (responseCode == IOUtils.HTTP_RANGE_NOT_SATISFIABLE) {
+            connection.disconnect();
+            return "";
+        } else if (responseCode != HttpURLConnection.HTTP_PARTIAL) {
+            connection.disconnect();
+            throw new IOException("Expected partial content for " + url + " but response code was " + responseCode);
+        }
+        long[] contentRange = parseContentRange(connection.getHeaderField("Content-Range"));
+        nextOffset = contentRange[1] + 1;
+        return readText(connection);
+    }
+
+    private HttpURLConnection openConnection(String urlToOpen) throws IOException {
+        return (HttpURLConnection) new URL(urlToOpen).openConnection();
+    }
+
+    /**
+     * Reads the full response text, trailing new lines are kept so that followed lines can be split correctly.
+     */
+    private String readText(HttpURLConnection connection) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (InputStreamReader reader = new InputStreamReader(connection.getInputStream())) {
+            IOUtils.readChunks(reader, true, text::append);
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return start and end byte positions from a header like bytes 100-199/200
+     */
+    private long[] parseContentRange(String contentRange) {
+        String range = StringUtils.substringBefore(StringUtils.substringAfter(contentRange, " "), "/");
+        return Arrays.stream(range.split("-")).mapToLong(Long::parseLong).toArray();
+    }
+
+    private List<String> lastLines(String text, int numberOfLines, boolean firstLineIsPartial) {
+        List<String> lines = new ArrayList<>(Arrays.asList(text.split("\r?\n", -1)));
+        if (!lines.isEmpty() && lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        if (firstLineIsPartial && !lines.isEmpty()) {
+            lines.remove(0);
+        }
+        return lines.size() > numberOfLines ? lines.subList(lines.size() - numberOfLines, lines.size()) : lines;
+    }
+}
@@ -0,0 +1,185 @@
+package com.vmware.util.db;
+
+import com.vmware.util.ReflectionUtils;
+import com.vmware.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Mapping metadata for a class extending {@link BaseDbClass}.
+ * Built once per class so that reflection lookups and sql generation are not repeated for every record.
+ */
+final class DbRecordMapping {
+
+    private static final Map<Class<?>, DbRecordMapping> MAPPINGS = new ConcurrentHashMap<>();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    final List<Field> fieldsToSave;
+    final String insertSql;
+    final String updateSql;
+    final String deleteSql;
+
+    private final Class<?> recordClass;
+    private final MethodHandle constructor;
+    private final MethodHandle[] getters;
+    private final Map<String, FieldSetter> settersByFieldName;
+    private final List<MethodHandle> afterDbLoadMethods;
+
+    private DbRecordMapping(Class<?> recordClass) {
+        this.recordClass = recordClass;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            this.constructor = lookup.unreflectConstructor(recordClass.getConstructor()).asType(MethodType.methodType(Object.class));
+
+            this.fieldsToSave = Collections.unmodifiableList(ReflectionUtils.getAllFieldsWithoutAnnotation(recordClass, DbSaveIgnore.class));
+            this.getters = new MethodHandle[fieldsToSave.size()];
+            for (int i = 0; i < fieldsToSave.size(); i++) {
+                getters[i] = lookup.unreflectGetter(fieldsToSave.get(i)).asType(GETTER_TYPE);
+            }
+
+            this.settersByFieldName = new HashMap<>();
+            for (Field field : ReflectionUtils.getAllFieldsWithoutAnnotation(recordClass, null)) {
+                if (!settersByFieldName.containsKey(field.getName())) {
+                    settersByFieldName.put(field.getName(), new FieldSetter(field, lookup.unreflectSetter(field).asType(SETTER_TYPE)));
+                }
+            }
+
+            List<Method> annotatedMethods = ReflectionUtils.getAllMethodsWithAnnotation(recordClass, AfterDbLoad.class);
+            this.afterDbLoadMethods = Collections.unmodifiableList(annotatedMethods.stream()
+                    .map(method -> unreflectMethod(lookup, method)).collect(Collectors.toList()));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+
+        String tableName = StringUtils.convertToDbName(recordClass.getSimpleName());
+        TableName tableNameAnnotation = recordClass.getAnnotation(TableName.class);
+        String annotatedTableName = tableNameAnnotation != null ? tableNameAnnotation.value() : tableName;
+        List<String> columnNames = fieldsToSave.stream().map(field -> StringUtils.convertToDbName(field.getName())).collect(Collectors.toList());
+
+        this.insertSql = "INSERT INTO " + tableName + " (" + String.join(", ", columnNames) + ") VALUES ("
+                + IntStream.range(0, columnNames.size()).mapToObj(i -> "?").collect(Collectors.joining(", ")) + ")";
+        this.updateSql = "UPDATE " + annotatedTableName + " SET "
+                + columnNames.stream().map(columnName -> columnName + " = ?").collect(Collectors.joining(", ")) + " WHERE ID = ?";
+        this.deleteSql = "DELETE FROM " + tableName + " WHERE id = ?";
+    }
+
+    static DbRecordMapping forClass(Class<?> recordClass) {
+        return MAPPINGS.computeIfAbsent(recordClass, DbRecordMapping::new);
+    }
+
+    Object newRecord() {
+        try {
+            return constructor.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * @return value to save for the field at the specified index, enums are saved by their string value
+     */
+    Object valueToSave(Object record, int fieldIndex) {
+        try {
+            Object value = (Object) getters[fieldIndex].invokeExact(record);
+            return value != null && value.getClass().isEnum() ? value.toString() : value;
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Matches each column in the result set to a field of the record class.
+     * @return setter for each column, indexed by column index - 1, null for columns without a matching field
+     */
+    FieldSetter[] settersForColumns(ResultSetMetaData metaData) throws SQLException {
+        FieldSetter[] setters = new FieldSetter[metaData.getColumnCount()];
+        for (int i = 0; i < setters.length; i++) {
+            String expectedFieldName = StringUtils.convertFromDbName(metaData.getColumnName(i + 1));
+            setters[i] = settersByFieldName.get(expectedFieldName);
+        }
+        return setters;
+    }
+
+    void invokeAfterDbLoadMethods(Object record) {
+        for (MethodHandle afterDbLoadMethod : afterDbLoadMethods) {
+            try {
+                afterDbLoadMethod.invoke(record);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+    }
+
+    private MethodHandle unreflectMethod(MethodHandles.Lookup lookup, Method method) {
+        try {
+            return lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else {
+            return new RuntimeException("Failed to map record for " + recordClass.getSimpleName(), t);
+        }
+    }
+
+    static final class FieldSetter {
+        private final Field field;
+        private final MethodHandle setter;
+        private final Map<String, Object> enumValues;
+
+        private FieldSetter(Field field, MethodHandle setter) {
+            this.field = field;
+            this.setter = setter;
+            this.enumValues = field.getType().isEnum()
+                    ? Arrays.stream(field.getType().getEnumConstants()).collect(Collectors.toMap(Object::toString, value -> value, (a, b) -> a))
+                    : null;
+        }
+
+        void setValue(Object record, Object value) throws SQLException {
+            Object valueToUse = value;
+            if (enumValues != null && value instanceof String) {
+                valueToUse = enumValues.get(value);
+            } else if (field.getType().isArray() && value instanceof java.sql.Array) {
+                valueToUse = toTypedArray((Object[]) ((java.sql.Array) value).getArray());
+            } else if (field.getType().isArray() && value != null && value.getClass() == Object[].class && field.getType() != Object[].class) {
+                valueToUse = toTypedArray((Object[]) value);
+            }
+            try {
+                setter.invokeExact(record, valueToUse);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException("Failed to set field " + field.getName(), t);
+            }
+        }
+
+        private Object toTypedArray(Object[] values) {
+            Object typedArray = Array.newInstance(field.getType().getComponentType(), values.length);
+            System.arraycopy(values, 0, typedArray, 0, values.length);
+            return typedArray;
+        }
+    }
+}
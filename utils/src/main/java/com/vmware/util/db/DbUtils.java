@@ -1,18 +1,17 @@
 package com.vmware.util.db;
 
-import com.vmware.util.ReflectionUtils;
 import com.vmware.util.StopwatchUtils;
 import com.vmware.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.lang.reflect.Field;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.sql.Array;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.Driver;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -21,25 +20,34 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Properties;
 import java.util.Scanner;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public class DbUtils {
 
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
     private Logger log = LoggerFactory.getLogger(DbUtils.class);
 
     private Driver driver;
     private String databaseUrl;
     private Properties dbProperties;
 
-    private Connection currentConnection;
+    private final BlockingDeque<Connection> availableConnections = new LinkedBlockingDeque<>();
+    private final List<Connection> openConnections = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Connection> threadConnection = new ThreadLocal<>();
+
+    private int maxConnections = 1;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
 
     public DbUtils(File databaseDriverFile, String databaseDriverClass, String databaseUrl, Properties dbProperties) {
         this.driver = createDatabaseDriver(databaseDriverFile, databaseDriverClass);
@@ -47,40 +55,85 @@ public class DbUtils {
         this.dbProperties = dbProperties;
     }
 
+    /**
+     * Opens the first connection to the database. Further connections up to the max connections are opened when needed.
+     */
     public void createConnection() {
-        try {
-            log.debug("Connecting to {}", databaseUrl);
-            StopwatchUtils.Stopwatch stopwatch = StopwatchUtils.start();
-            currentConnection = driver.connect(databaseUrl, dbProperties);
-            log.debug("Connected in {} milliseconds", stopwatch.elapsedTime());
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+        if (openConnections.isEmpty()) {
+            availableConnections.addFirst(openConnection());
         }
     }
 
+    /**
+     * Sets the max number of connections to open. Each thread checks out its own connection for the duration of a call or transaction.
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = Math.max(maxConnections, 1);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Runs the work in a single transaction, committing if it completes and rolling back if an exception is thrown.
+     * If a transaction is already in progress, the work just joins that transaction.
+     */
+    public void inTransaction(Runnable work) {
+        withConnection(connection -> {
+            if (!connection.getAutoCommit()) {
+                work.run();
+                return null;
+            }
+            connection.setAutoCommit(false);
+            try {
+                work.run();
+                connection.commit();
+            } catch (RuntimeException | Error e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
     public void closeConnection() {
-        if (currentConnection != null) {
+        availableConnections.clear();
+        openConnections.forEach(connection -> {
             try {
-                currentConnection.close();
+                connection.close();
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
-            currentConnection = null;
-        }
+        });
+        openConnections.clear();
     }
 
     public int executeUpdate(String sql) {
-        try (Statement statement = currentConnection.createStatement()) {
-            return statement.executeUpdate(sql);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        return withConnection(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                return statement.executeUpdate(sql);
+            }
+        });
     }
 
     public void executeSqlScript(String sqlScript) {
+        withConnection(connection -> {
+            executeSqlScript(connection, sqlScript);
+            return null;
+        });
+    }
+
+    private void executeSqlScript(Connection connection, String sqlScript) {
         Scanner s = new Scanner(sqlScript);
         s.useDelimiter("(;(\r)?\n)|(--\n)");
-        try (Statement statement = currentConnection.createStatement()) {
+        try (Statement statement = connection.createStatement()) {
             while (s.hasNext()) {
                 String line = s.next();
                 if (line.startsWith("/*!") && line.endsWith("*/")) {
@@ -97,6 +150,25 @@ public class DbUtils {
         }
     }
 
+    /**
+     * Uses the database metadata so that no statement is run against the table.
+     */
+    public boolean columnExists(String tableName, String columnName) {
+        return withConnection(connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String tableNameToCheck : new String[] {tableName, tableName.toUpperCase(), tableName.toLowerCase()}) {
+                try (ResultSet columns = metaData.getColumns(null, null, tableNameToCheck, null)) {
+                    while (columns.next()) {
+                        if (columnName.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        });
+    }
+
     public <T> T queryUnique(Class<T> recordClass, String query, Object... parameters) {
         List<T> records = query(recordClass, query, parameters);
         if (records.size() > 1) {
@@ -106,42 +178,43 @@ public class DbUtils {
     }
 
     public <T> List<T> query(Class<T> recordClass, String query, Object... parameters) {
-        StopwatchUtils.Stopwatch stopwatch = StopwatchUtils.start();
-        log.trace("{}{}{}", query, System.lineSeparator(), Arrays.toString(parameters));
-        try (PreparedStatement statement = createStatement(query, parameters)) {
-            ResultSet results = statement.executeQuery();
-
-            ResultSetMetaData resultMetaData = results.getMetaData();
-            List<T> resultObjects = new ArrayList<>();
-            if (BaseDbClass.class.isAssignableFrom(recordClass)) {
-                populateResultObjects(recordClass, results, resultObjects);
-            } else if (Map.class.isAssignableFrom(recordClass)) {
-                while (results.next()) {
-                    Map record = new LinkedHashMap();
-                    for (int i = 1; i <= resultMetaData.getColumnCount(); i++) {
-                        String name = resultMetaData.getColumnLabel(i);
-                        Object value = results.getObject(name);
-                        if (value instanceof Array) {
-                            record.put(name, ((Array) value).getArray());
-                        } else {
-                            record.put(name, value);
+        return withConnection(connection -> {
+            StopwatchUtils.Stopwatch stopwatch = StopwatchUtils.start();
+            log.trace("{}{}{}", query, System.lineSeparator(), Arrays.toString(parameters));
+            try (PreparedStatement statement = createStatement(query, parameters)) {
+                ResultSet results = statement.executeQuery();
+
+                ResultSetMetaData resultMetaData = results.getMetaData();
+                List<T> resultObjects = new ArrayList<>();
+                if (BaseDbClass.class.isAssignableFrom(recordClass)) {
+                    populateResultObjects(recordClass, results, resultObjects);
+                } else if (Map.class.isAssignableFrom(recordClass)) {
+                    while (results.next()) {
+                        Map record = new LinkedHashMap();
+                        for (int i = 1; i <= resultMetaData.getColumnCount(); i++) {
+                            String name = resultMetaData.getColumnLabel(i);
+                            Object value = results.getObject(name);
+                            if (value instanceof Array) {
+                                record.put(name, ((Array) value).getArray());
+                            } else {
+                                record.put(name, value);
+                            }
                         }
+                        resultObjects.add((T) record);
                     }
-                    resultObjects.add((T) record);
-                }
-            } else if (resultMetaData.getColumnCount() == 1) {
-                while (results.next()) {
-                    resultObjects.add((T) results.getObject(1));
+                } else if (resultMetaData.getColumnCount() == 1) {
+                    while (results.next()) {
+                        resultObjects.add((T) results.getObject(1));
+                    }
+                } else {
+                   throw new RuntimeException("Cannot query for multiple values without using a class that extends " + BaseDbClass.class.getSimpleName());
                 }
-            } else {
-               throw new RuntimeException("Cannot query for multiple values without using a class that extends " + BaseDbClass.class.getSimpleName());
+                log.trace("Query execution time {}", StringUtils.pluralize(stopwatch.elapsedTime(), "millisecond"));
+                return resultObjects;
+            } catch (SQLException se) {
+                throw new RuntimeException(se);
             }
-            log.trace("Query execution time {}", StringUtils.pluralize(stopwatch.elapsedTime(), "millisecond"));
-            return resultObjects;
-        } catch (SQLException se) {
-            throw new RuntimeException(se);
-        }
-
+        });
     }
 
     public <T> void insert(T record) {
@@ -155,125 +228,264 @@ public class DbUtils {
             return;
         }
 
-        if (existsQuery != null) {
-            BaseDbClass existingRecord = (BaseDbClass) queryUnique(record.getClass(), existsQuery, existsQueryParams);
-            if (existingRecord != null) {
-                ((BaseDbClass) record).id = existingRecord.id;
-                return;
+        withConnection(connection -> {
+            if (existsQuery != null) {
+                BaseDbClass existingRecord = (BaseDbClass) queryUnique(record.getClass(), existsQuery, existsQueryParams);
+                if (existingRecord != null) {
+                    ((BaseDbClass) record).id = existingRecord.id;
+                    return null;
+                }
             }
-        }
 
-        try (PreparedStatement insertStatement = createInsertStatement(record)) {
-            insertStatement.executeUpdate();
+            try (PreparedStatement insertStatement = createInsertStatement(record)) {
+                insertStatement.executeUpdate();
 
-            try (ResultSet keys = insertStatement.getGeneratedKeys()) {
-                if (keys.next()) {
-                    ((BaseDbClass) record).id = keys.getLong(1);
+                try (ResultSet keys = insertStatement.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        ((BaseDbClass) record).id = keys.getLong(1);
+                    }
                 }
-            }
 
-        } catch (SQLException se) {
-            log.error("Failed to insert record, exists query was {} with params {}", existsQuery, existsQueryParams);
-            throw new RuntimeException(se);
-        }
+            } catch (SQLException se) {
+                log.error("Failed to insert record, exists query was {} with params {}", existsQuery, existsQueryParams);
+                throw new RuntimeException(se);
+            }
+            return null;
+        });
     }
 
     public <T> void update(T record) {
         throwExceptionIfNotDbClass(record.getClass());
-        try (PreparedStatement updateStatement = createUpdateStatement(record)) {
-            int rowsUpdated = updateStatement.executeUpdate();
-            if (rowsUpdated != 1) {
-                throw new RuntimeException("Expected 1 row to be updated not " + rowsUpdated);
+        withConnection(connection -> {
+            try (PreparedStatement updateStatement = createUpdateStatement(record)) {
+                int rowsUpdated = updateStatement.executeUpdate();
+                if (rowsUpdated != 1) {
+                    throw new RuntimeException("Expected 1 row to be updated not " + rowsUpdated);
+                }
+            } catch (SQLException se) {
+                throw new RuntimeException(se);
             }
-        } catch (SQLException se) {
-            throw new RuntimeException(se);
-        }
+            return null;
+        });
+    }
+
+    /**
+     * Inserts all records using one batched prepared statement per table. Generated ids are set on the records.
+     * Records that already have an id are skipped.
+     */
+    public <T extends BaseDbClass> void insertAll(List<T> records) {
+        List<T> recordsToInsert = records.stream().filter(record -> record.id == null).collect(Collectors.toList());
+        inTransaction(() -> groupByClass(recordsToInsert).forEach((recordClass, recordsForClass) -> {
+            DbRecordMapping mapping = DbRecordMapping.forClass(recordClass);
+            log.trace("Batch of {} records for {}", recordsForClass.size(), mapping.insertSql);
+            try (PreparedStatement insertStatement = currentConnection().prepareStatement(mapping.insertSql, Statement.RETURN_GENERATED_KEYS)) {
+                executeInBatches(insertStatement, recordsForClass, true, record -> setFieldValues(insertStatement, record, mapping),
+                        batch -> {
+                            try (ResultSet keys = insertStatement.getGeneratedKeys()) {
+                                for (int i = 0; i < batch.size() && keys.next(); i++) {
+                                    batch.get(i).id = keys.getLong(1);
+                                }
+                            }
+                        });
+            } catch (SQLException se) {
+                log.error("Failed to insert batch of {} records for {}", recordsForClass.size(), recordClass.getSimpleName());
+                throw new RuntimeException(se);
+            }
+        }));
+    }
+
+    /**
+     * Updates all records using one batched prepared statement per table.
+     */
+    public <T extends BaseDbClass> void updateAll(List<T> records) {
+        inTransaction(() -> groupByClass(records).forEach((recordClass, recordsForClass) -> {
+            DbRecordMapping mapping = DbRecordMapping.forClass(recordClass);
+            log.trace("Batch of {} records for {}", recordsForClass.size(), mapping.updateSql);
+            try (PreparedStatement updateStatement = currentConnection().prepareStatement(mapping.updateSql)) {
+                executeInBatches(updateStatement, recordsForClass, true, record -> {
+                    setFieldValues(updateStatement, record, mapping);
+                    updateStatement.setLong(mapping.fieldsToSave.size() + 1, record.id);
+                }, null);
+            } catch (SQLException se) {
+                throw new RuntimeException(se);
+            }
+        }));
+    }
+
+    /**
+     * Deletes all records by id using one batched prepared statement per table.
+     * @return total number of rows deleted
+     */
+    public int deleteAll(List<? extends BaseDbClass> records) {
+        List<BaseDbClass> recordsToDelete = records.stream().filter(record -> record.id != null).collect(Collectors.toList());
+        AtomicInteger rowsDeleted = new AtomicInteger();
+        inTransaction(() -> groupByClass(recordsToDelete).forEach((recordClass, recordsForClass) -> {
+            String statementText = DbRecordMapping.forClass(recordClass).deleteSql;
+            log.trace("Batch of {} records for {}", recordsForClass.size(), statementText);
+            try (PreparedStatement deleteStatement = currentConnection().prepareStatement(statementText)) {
+                rowsDeleted.addAndGet(executeInBatches(deleteStatement, recordsForClass, false,
+                        record -> deleteStatement.setLong(1, record.id), null));
+            } catch (SQLException se) {
+                throw new RuntimeException(se);
+            }
+        }));
+        return rowsDeleted.get();
     }
 
     public int delete(BaseDbClass record) {
         if (record.id == null) {
             return 0;
         }
-        String tableName = StringUtils.convertToDbName(record.getClass().getSimpleName());
-        String query = "DELETE FROM " + tableName + " WHERE id = ?";
-        return delete(query, record.id);
+        return delete(DbRecordMapping.forClass(record.getClass()).deleteSql, record.id);
     }
 
     public int delete(String query, Object... parameters) {
-        log.trace("{}{}{}", query, System.lineSeparator(), Arrays.toString(parameters));
-        try (PreparedStatement deleteStatement = createStatement(query, parameters)) {
-            return deleteStatement.executeUpdate();
-        } catch (SQLException se) {
-            throw new RuntimeException(se);
-        }
+        return withConnection(connection -> {
+            log.trace("{}{}{}", query, System.lineSeparator(), Arrays.toString(parameters));
+            try (PreparedStatement deleteStatement = createStatement(query, parameters)) {
+                return deleteStatement.executeUpdate();
+            }
+        });
     }
 
     private <T> PreparedStatement createInsertStatement(T record) {
-        List<Field> fields = ReflectionUtils.getAllFieldsWithoutAnnotation(record.getClass(), DbSaveIgnore.class);
-        String tableName = StringUtils.convertToDbName(record.getClass().getSimpleName());
-        StringBuilder insertStatement = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
-
-        insertStatement.append(fields.stream().map(this::convertToColumnName).collect(Collectors.joining(", ")));
+        DbRecordMapping mapping = DbRecordMapping.forClass(record.getClass());
+        log.trace(mapping.insertSql);
 
-        insertStatement.append(") VALUES (");
-
-        insertStatement.append(IntStream.range(0, fields.size()).mapToObj(i -> "?").collect(Collectors.joining(", ")));
-        insertStatement.append(")");
+        try {
+            return createStatementWithFieldValues(record, mapping, mapping.insertSql);
+        } catch (SQLException se) {
+            throw new RuntimeException(se);
+        }
+    }
 
-        String statementText = insertStatement.toString();
-        log.trace(statementText);
+    private <T> PreparedStatement createUpdateStatement(T record) {
+        DbRecordMapping mapping = DbRecordMapping.forClass(record.getClass());
+        log.trace(mapping.updateSql);
 
         try {
-            return createStatementWithFieldValues(record, fields, statementText);
+            PreparedStatement statement = createStatementWithFieldValues(record, mapping, mapping.updateSql);
+            statement.setLong(mapping.fieldsToSave.size() + 1, ((BaseDbClass) record).id);
+            return statement;
         } catch (SQLException se) {
             throw new RuntimeException(se);
         }
     }
 
-    private <T> PreparedStatement createUpdateStatement(T record) {
-        List<Field> fields = ReflectionUtils.getAllFieldsWithoutAnnotation(record.getClass(), DbSaveIgnore.class);
-        TableName tableNameAnnotation = record.getClass().getAnnotation(TableName.class);
-        String tableName = tableNameAnnotation != null ? tableNameAnnotation.value()
-                : StringUtils.convertToDbName(record.getClass().getSimpleName());
-        StringBuilder updateStatement = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+    private <T> PreparedStatement createStatementWithFieldValues(T record, DbRecordMapping mapping, String statementToUse)
+            throws SQLException {
+        PreparedStatement statement = currentConnection().prepareStatement(statementToUse, Statement.RETURN_GENERATED_KEYS);
+        setFieldValues(statement, record, mapping);
+        return statement;
+    }
+
+    private <T> void setFieldValues(PreparedStatement statement, T record, DbRecordMapping mapping) throws SQLException {
+        for (int i = 0; i < mapping.fieldsToSave.size(); i++) {
+            statement.setObject(i + 1, mapping.valueToSave(record, i));
+        }
+    }
+
+    /**
+     * Adds each record to the statement batch, executing the batch every time the batch size is reached.
+     * @return total number of rows affected
+     */
+    private <T extends BaseDbClass> int executeInBatches(PreparedStatement statement, List<T> records, boolean expectOneRowPerRecord,
+                                                         BatchParameterSetter<T> parameterSetter,
+                                                         BatchCompletedHandler<T> batchCompletedHandler) throws SQLException {
+        int totalRowsAffected = 0;
+        for (int start = 0; start < records.size(); start += batchSize) {
+            List<T> batch = records.subList(start, Math.min(start + batchSize, records.size()));
+            for (T record : batch) {
+                parameterSetter.setParameters(record);
+                statement.addBatch();
+            }
+            int[] rowCounts = statement.executeBatch();
+            for (int i = 0; i < rowCounts.length; i++) {
+                if (rowCounts[i] == Statement.SUCCESS_NO_INFO) {
+                    totalRowsAffected++;
+                } else if (expectOneRowPerRecord && rowCounts[i] != 1) {
+                    throw new RuntimeException("Expected 1 row to be affected for " + batch.get(i).getClass().getSimpleName()
+                            + " with id " + batch.get(i).id + " not " + rowCounts[i]);
+                } else {
+                    totalRowsAffected += Math.max(rowCounts[i], 0);
+                }
+            }
+            if (batchCompletedHandler != null) {
+                batchCompletedHandler.batchCompleted(batch);
+            }
+        }
+        return totalRowsAffected;
+    }
 
-        updateStatement.append(fields.stream().map(field -> convertToColumnName(field) + " = ?").collect(Collectors.joining(", ")));
+    private <T extends BaseDbClass> Map<Class<?>, List<T>> groupByClass(List<T> records) {
+        return records.stream().collect(Collectors.groupingBy(Object::getClass, LinkedHashMap::new, Collectors.toList()));
+    }
 
-        updateStatement.append(" WHERE ID = ?");
+    /**
+     * Runs the work with the connection checked out by the current thread.
+     * If the thread has no connection checked out, one is checked out from the pool for the duration of the work.
+     */
+    private <V> V withConnection(ConnectionWork<V> work) {
+        Connection existingConnection = threadConnection.get();
+        if (existingConnection != null) {
+            return runWork(work, existingConnection);
+        }
 
-        String statementText = updateStatement.toString();
-        log.trace(statementText);
+        Connection connection = checkoutConnection();
+        threadConnection.set(connection);
+        try {
+            return runWork(work, connection);
+        } finally {
+            threadConnection.remove();
+            availableConnections.addFirst(connection);
+        }
+    }
 
+    private <V> V runWork(ConnectionWork<V> work, Connection connection) {
         try {
-            PreparedStatement statement = createStatementWithFieldValues(record, fields, statementText);
-            statement.setLong(fields.size() + 1, ((BaseDbClass) record).id);
-            return statement;
+            return work.run(connection);
         } catch (SQLException se) {
             throw new RuntimeException(se);
         }
     }
 
-    private <T> PreparedStatement createStatementWithFieldValues(T record, List<Field> fields, String statementToUse)
-            throws SQLException {
-        PreparedStatement statement = currentConnection.prepareStatement(statementToUse, Statement.RETURN_GENERATED_KEYS);
+    private Connection currentConnection() {
+        Connection connection = threadConnection.get();
+        if (connection == null) {
+            throw new IllegalStateException("No database connection checked out for thread " + Thread.currentThread().getName());
+        }
+        return connection;
+    }
 
-        IntStream.range(0, fields.size()).forEach(i -> {
-            try {
-                Object valueToUse = getValue(record, fields.get(i));
-                statement.setObject(i + 1, valueToUse);
-            } catch (SQLException se) {
-                throw new RuntimeException(se);
+    private Connection checkoutConnection() {
+        Connection connection = availableConnections.pollFirst();
+        if (connection != null) {
+            return connection;
+        }
+        synchronized (openConnections) {
+            if (openConnections.size() < maxConnections) {
+                return openConnection();
             }
-        });
-        return statement;
+        }
+        try {
+            log.trace("Waiting for available database connection, max connections is {}", maxConnections);
+            return availableConnections.takeFirst();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
     }
 
-    private <T> Object getValue(T record, Field field) {
-        Object valueToUse = ReflectionUtils.getValue(field, record);
-        if (valueToUse != null && valueToUse.getClass().isEnum()) {
-            return valueToUse.toString();
-        } else {
-            return valueToUse;
+    private Connection openConnection() {
+        try {
+            log.debug("Connecting to {}", databaseUrl);
+            StopwatchUtils.Stopwatch stopwatch = StopwatchUtils.start();
+            Connection connection = driver.connect(databaseUrl, dbProperties);
+            log.debug("Connected in {} milliseconds", stopwatch.elapsedTime());
+            openConnections.add(connection);
+            return connection;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -284,26 +496,23 @@ public class DbUtils {
     }
 
     private <T> PreparedStatement createStatement(String query, Object[] parameters) throws SQLException {
-        PreparedStatement statement = currentConnection.prepareStatement(query);
+        PreparedStatement statement = currentConnection().prepareStatement(query);
         for (int i = 0; i < parameters.length; i++) {
             statement.setObject(i + 1, parameters[i]);
         }
         return statement;
     }
 
-    private Object createEnumValue(Class type, String text)
-    {
-        for (Object candidate : type.getEnumConstants()) {
-            if (candidate.toString().equals(text)) {
-                return candidate;
-            }
-        }
+    private interface ConnectionWork<V> {
+        V run(Connection connection) throws SQLException;
+    }
 
-        return null;
+    private interface BatchParameterSetter<T> {
+        void setParameters(T record) throws SQLException;
     }
 
-    private String convertToColumnName(Field field) {
-        return StringUtils.convertToDbName(field.getName());
+    private interface BatchCompletedHandler<T> {
+        void batchCompleted(List<T> batch) throws SQLException;
     }
 
     private Driver createDatabaseDriver(File databaseDriverFile, String databaseDriverClass) {
@@ -320,32 +529,17 @@ public class DbUtils {
     }
 
     private <T> void populateResultObjects(Class<T> recordClass, ResultSet results, List<T> values) throws SQLException {
-        List<Field> fieldsForClass = ReflectionUtils.getAllFieldsWithoutAnnotation(recordClass, null);
-
-        Map<Field, Integer> fieldColumnMappings = new HashMap<>();
-        for (int i = 1; i <= results.getMetaData().getColumnCount(); i++) {
-            String columnName = results.getMetaData().getColumnName(i);
-            String expectedFieldName = StringUtils.convertFromDbName(columnName);
-            Optional<Field> matchingField = fieldsForClass.stream().filter(field -> field.getName().equals(expectedFieldName)).findFirst();
-            if (matchingField.isPresent()) {
-                fieldColumnMappings.put(matchingField.get(), i);
-            }
-        }
+        DbRecordMapping mapping = DbRecordMapping.forClass(recordClass);
+        DbRecordMapping.FieldSetter[] columnSetters = mapping.settersForColumns(results.getMetaData());
 
         while (results.next()) {
-            T record = (T) ReflectionUtils.newInstance(recordClass);
-            fieldColumnMappings.forEach((key, value) -> {
-                try {
-                    Object valueToUse = results.getObject(value);
-                    if (key.getType().isEnum() && valueToUse instanceof String) {
-                        valueToUse = createEnumValue(key.getType(), valueToUse.toString());
-                    }
-                    ReflectionUtils.setValue(key, record, valueToUse);
-                } catch (SQLException se) {
-                    throw new RuntimeException(se);
+            T record = (T) mapping.newRecord();
+            for (int i = 0; i < columnSetters.length; i++) {
+                if (columnSetters[i] != null) {
+                    columnSetters[i].setValue(record, results.getObject(i + 1));
                 }
-            });
-            ReflectionUtils.invokeAllMethodsWithAnnotation(record, AfterDbLoad.class);
+            }
+            mapping.invokeAfterDbLoadMethods(record);
             values.add(record);
         }
     }
@@ -14,6 +14,8 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class InputUtils {
@@ -22,6 +24,21 @@ public class InputUtils {
 
     private static final String MAX_LENGTH_INDICATOR = "*";
 
+    private static final ReentrantLock PROMPT_LOCK = new ReentrantLock();
+
+    /**
+     * Action setup runs on multiple threads, so only one thread at a time can prompt for input.
+     * Use for a sequence of prompts that shouldn't be interleaved with other prompts, e.g. a username and password.
+     */
+    public static <T> T withPromptLock(Supplier<T> prompts) {
+        PROMPT_LOCK.lock();
+        try {
+            return prompts.get();
+        } finally {
+            PROMPT_LOCK.unlock();
+        }
+    }
+
     public static int readSelection(Collection<String> choices, String title) {
         return readSelections(choices, title, true).get(0);
     }
@@ -36,6 +53,10 @@ public class InputUtils {
     }
 
     public static List<Integer> readSelections(Collection<String> choices, String title, boolean singleSelection) {
+        return withPromptLock(() -> selectFromChoices(choices, title, singleSelection));
+    }
+
+    private static List<Integer> selectFromChoices(Collection<String> choices, String title, boolean singleSelection) {
         if (choices == null || choices.isEmpty()) {
             throw new FatalException("No {} to select from", title);
         }
@@ -139,6 +160,10 @@ public class InputUtils {
     }
 
     public static String readSingleLine(String label, Integer maxLength, Character maskCharacter, String[] historyValues, Completer completer) {
+        return withPromptLock(() -> readLine(label, maxLength, maskCharacter, historyValues, completer));
+    }
+
+    private static String readLine(String label, Integer maxLength, Character maskCharacter, String[] historyValues, Completer completer) {
         ConsoleReader consoleReader;
         try {
             consoleReader = new ConsoleReader();
@@ -173,6 +198,10 @@ public class InputUtils {
     }
 
     private static String readMultipleLines(String label, Integer maxLength, String... historyValues) {
+        return withPromptLock(() -> readLines(label, maxLength, historyValues));
+    }
+
+    private static String readLines(String label, Integer maxLength, String... historyValues) {
         String displayLabel = String.format("%s (Type / then press Enter to finish input): ", label);
         if (maxLength != null) {
             int paddingLength = maxLength - MAX_LENGTH_INDICATOR.length() - displayLabel.length();
@@ -1,5 +1,6 @@
 package com.vmware.util.scm;
 
+import com.vmware.util.CommandLineUtils;
 import com.vmware.util.exception.FatalException;
 import com.vmware.util.exception.RuntimeIOException;
 import com.vmware.util.logging.LogLevel;
@@ -8,8 +9,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static com.vmware.util.CommandLineUtils.executeCommand;
 import static com.vmware.util.StringUtils.addArgumentsToValue;
@@ -89,6 +94,38 @@ public abstract class BaseScmWrapper {
         return output;
     }
 
+    /**
+     * Passes the command output to the reader as it is produced rather than reading it into a string first.
+     * The reader must read all of the output.
+     */
+    <T> T executeStreamedScmCommand(String command, Function<Reader, T> outputReader) {
+        String expandedCommand = scmExecutablePath() + " " + command;
+        log.debug("Executing streamed command {}", expandedCommand);
+        Process process = CommandLineUtils.executeCommand(workingDirectory, null, expandedCommand, null);
+        try {
+            T result;
+            try (Reader reader = new InputStreamReader(process.getInputStream())) {
+                result = outputReader.apply(reader);
+            } catch (IOException e) {
+                throw new RuntimeIOException(e);
+            }
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                throw new FatalException("Command {} failed to complete in 30 seconds", expandedCommand);
+            }
+            if (process.exitValue() != 0) {
+                throw new FatalException("Command {} failed with status code {}", expandedCommand, process.exitValue());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            // the output reader can fail before all output is read, the process would then never exit
+            if (process.isAlive()) {
+                process.destroy();
+            }
+        }
+    }
+
     String checkIfCommandFailed(String output) {
         return null;
     }
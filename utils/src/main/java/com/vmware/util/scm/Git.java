@@ -10,6 +10,7 @@ import com.vmware.util.logging.LogLevel;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
@@ -22,6 +23,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -299,13 +301,18 @@ public class Git extends BaseScmWrapper {
 
     public String diff(String parentRef, String commitRef, boolean supportsRenames) {
         checkRefsAreValid(parentRef, commitRef);
-        String renamesFlag = supportsRenames ? "-M " : "--no-renames ";
-        String diffCommand = "diff %s--no-color --full-index --no-ext-diff --ignore-submodules %s..%s";
-        diffCommand = String.format(diffCommand, renamesFlag, parentRef, commitRef);
-        String diffOutput = executeScmCommand(diffCommand, LogLevel.TRACE);
+        String diffOutput = executeScmCommand(diffCommand(parentRef, commitRef, supportsRenames), LogLevel.TRACE);
         return !diffOutput.isEmpty() ? diffOutput : null;
     }
 
+    /**
+     * Streams the diff to the reader so that large diffs don't need to be read into a string.
+     */
+    public <T> T diff(String parentRef, String commitRef, boolean supportsRenames, Function<Reader, T> diffReader) {
+        checkRefsAreValid(parentRef, commitRef);
+        return executeStreamedScmCommand(diffCommand(parentRef, commitRef, supportsRenames), diffReader);
+    }
+
     public String diff(String commitRef, boolean supportsRenames) {
         checkRefsAreValid(commitRef);
         String renamesFlag = supportsRenames ? "-M " : "--no-renames ";
@@ -589,6 +596,12 @@ public class Git extends BaseScmWrapper {
         return commitInfo;
     }
 
+    private String diffCommand(String parentRef, String commitRef, boolean supportsRenames) {
+        String renamesFlag = supportsRenames ? "-M " : "--no-renames ";
+        String diffCommand = "diff %s--no-color --full-index --no-ext-diff --ignore-submodules %s..%s";
+        return String.format(diffCommand, renamesFlag, parentRef, commitRef);
+    }
+
     private void checkRefsAreValid(String... refs) {
         for (String ref : refs) {
             revParse(ref);
@@ -8,19 +8,28 @@ import com.vmware.util.IOUtils;
 import com.vmware.util.MatcherUtils;
 import com.vmware.util.StringUtils;
 import com.vmware.util.exception.FatalException;
+import com.vmware.util.exception.RuntimeIOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.nio.charset.Charset;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -34,6 +43,13 @@ public class GitDiffToPerforceConverter implements DiffConverter {
 
     private static final String[] VALUES_TO_IGNORE = new String[]{"diff --git", "index ", "deleted file mode", "new file mode"};
     private static final Pattern depotFileInfoPattern = Pattern.compile("(.+)#(\\d+)");
+    private static final Pattern similarityIndexPattern = Pattern.compile("similarity index (\\d+)%");
+    private static final Pattern minusDiffFilePattern = Pattern.compile("---\\s+a/(.+)");
+    private static final Pattern addDiffFilePattern = Pattern.compile("\\+\\+\\+\\s+b/(.+)");
+    private static final String PLACEHOLDER_START = "[!!";
+    private static final String PLACEHOLDER_END = "!!]";
+    private static final String VERSION_SUFFIX = "#0";
+    private static final int DEFAULT_OUTPUT_SIZE = 64 * 1024;
 
     private Logger log = LoggerFactory.getLogger(this.getClass());
 
@@ -47,7 +63,8 @@ public class GitDiffToPerforceConverter implements DiffConverter {
 
     private Perforce perforce;
     private String lastSubmittedChangelist;
-    private String output;
+    private StringBuilder convertedOutput;
+    private List<DepotInfoPlaceholder> placeholders;
 
     public GitDiffToPerforceConverter(Perforce perforce, String lastSubmittedChangelist) {
         this.perforce = perforce;
@@ -60,53 +77,103 @@ public class GitDiffToPerforceConverter implements DiffConverter {
         } else if (gitDiff.isEmpty()) {
             return "";
         }
+        StringWriter output = new StringWriter(gitDiff.length());
+        convert(new StringReader(gitDiff), output);
+        return output.toString();
+    }
+
+    /**
+     * Reads the git diff line by line and writes the converted diff to the output.
+     * Converted lines are buffered with the positions of depot file placeholders
+     * so that the placeholders can be filled in one pass once the depot info for all files has been retrieved.
+     * @return false if the git diff contained no lines
+     */
+    public boolean convert(Reader gitDiff, Writer output) {
         depotFilesToCheck.clear();
         whereFilesToCheck.clear();
         fileChanges = new ArrayList<>();
 
         diffDate = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
-        List<String> diffLines = Arrays.asList(gitDiff.split("\n"));
         lastDiffFile = "";
-        output = "";
-        Iterator<String> linesIterator = diffLines.iterator();
+        convertedOutput = new StringBuilder();
+        placeholders = new ArrayList<>();
+        DiffLineIterator linesIterator = new DiffLineIterator(gitDiff);
+        if (!linesIterator.hasNext()) {
+            return false;
+        }
         while (linesIterator.hasNext()) {
             String lineToAdd = convertDiffLine(linesIterator);
             appendLineToOutput(lineToAdd);
         }
 
         addPerforceDepotInfoForFiles();
-        addDepotInfoToOutput();
-        return output;
+        writeOutputWithDepotInfo(output);
+        convertedOutput = null;
+        placeholders = null;
+        return true;
     }
 
     @Override
     public byte[] convertAsBytes(String diffData) {
-        String convertedData = convert(diffData);
-        return convertedData != null ? convertedData.getBytes(Charset.forName("UTF-8")) : null;
+        if (diffData == null) {
+            return null;
+        }
+        byte[] convertedData = convertAsBytes(new StringReader(diffData), diffData.length());
+        return convertedData != null ? convertedData : new byte[0];
+    }
+
+    /**
+     * @return null if the git diff is empty, consistent with {@link Git#diff(String, String, boolean)}
+     */
+    public byte[] convertAsBytes(Reader gitDiff) {
+        return convertAsBytes(gitDiff, DEFAULT_OUTPUT_SIZE);
+    }
+
+    private byte[] convertAsBytes(Reader gitDiff, int initialOutputSize) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(initialOutputSize);
+        Writer output = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        boolean hasDiffLines = convert(gitDiff, output);
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new RuntimeIOException(e);
+        }
+        return hasDiffLines ? outputStream.toByteArray() : null;
     }
 
     public List<FileChange> getFileChanges() {
         return fileChanges;
     }
 
-    private void addDepotInfoToOutput() {
-        for (String depotFileToCheck : depotMappings.keySet()) {
-            String depotMapping = depotMappings.get(depotFileToCheck);
-            if (depotMapping == null) {
-                throw new FatalException("No depot mapping for file " + depotFileToCheck);
+    private void writeOutputWithDepotInfo(Writer output) {
+        char[] textBuffer = new char[8192];
+        try {
+            int textStart = 0;
+            for (DepotInfoPlaceholder placeholder : placeholders) {
+                writeConvertedText(output, textBuffer, textStart, placeholder.position);
+                output.write(placeholder.depotInfo());
+                textStart = placeholder.position;
             }
-            String version = depotVersions.get(depotMapping);
-            output = output.replace("[!!" + depotFileToCheck + "#0!!]", depotMapping + "#" + version);
-            output = output.replace("[!!" + depotFileToCheck + "!!]", depotMapping);
+            writeConvertedText(output, textBuffer, textStart, convertedOutput.length());
+        } catch (IOException e) {
+            throw new RuntimeIOException(e);
+        }
+    }
+
+    private void writeConvertedText(Writer output, char[] textBuffer, int start, int end) throws IOException {
+        for (int chunkStart = start; chunkStart < end; chunkStart += textBuffer.length) {
+            int chunkEnd = Math.min(end, chunkStart + textBuffer.length);
+            convertedOutput.getChars(chunkStart, chunkEnd, textBuffer, 0);
+            output.write(textBuffer, 0, chunkEnd - chunkStart);
         }
     }
 
     private String convertDiffLine(Iterator<String> linesIterator) {
         String diffLine = linesIterator.next();
         String lineToAdd = null;
-        String similarityIndex = MatcherUtils.singleMatch(diffLine, "similarity index (\\d+)%");
-        String minusDiffFile = MatcherUtils.singleMatch(diffLine, "---\\s+a/(.+)");
-        String addDiffFile = MatcherUtils.singleMatch(diffLine, "\\+\\+\\+\\s+b/(.+)");
+        String similarityIndex = matchedValue(similarityIndexPattern, diffLine);
+        String minusDiffFile = matchedValue(minusDiffFilePattern, diffLine);
+        String addDiffFile = matchedValue(addDiffFilePattern, diffLine);
         FileChange fileChange = null;
         if (similarityIndex != null) {
             lineToAdd = createFileRenameText(linesIterator, similarityIndex);
@@ -137,6 +204,14 @@ public class GitDiffToPerforceConverter implements DiffConverter {
         return lineToAdd;
     }
 
+    /**
+     * Patterns are precompiled as they are matched against every line of the diff.
+     */
+    private String matchedValue(Pattern pattern, String diffLine) {
+        Matcher matcher = pattern.matcher(diffLine);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
     private String createFileRenameText(Iterator<String> linesIterator, String similarityIndex) {
         int similarityValue = Integer.parseInt(similarityIndex);
         String renameFromFile = MatcherUtils.singleMatchExpected(linesIterator.next(), "rename from (.+)");
@@ -172,27 +247,43 @@ public class GitDiffToPerforceConverter implements DiffConverter {
         }
     }
 
+    /**
+     * Placeholders are removed from the line and their positions recorded so that depot info can be written in their place.
+     */
     private void appendLineToOutput(String lineToAdd) {
         if (lineToAdd == null) {
             return;
         }
-        if (!output.isEmpty()) {
-            output += "\n";
+        if (convertedOutput.length() > 0 || !placeholders.isEmpty()) {
+            convertedOutput.append('\n');
         }
-        output += lineToAdd;
+        int textStart = 0;
+        int placeholderStart = lineToAdd.indexOf(PLACEHOLDER_START);
+        while (placeholderStart != -1) {
+            int placeholderEnd = lineToAdd.indexOf(PLACEHOLDER_END, placeholderStart + PLACEHOLDER_START.length());
+            if (placeholderEnd == -1) {
+                break;
+            }
+            convertedOutput.append(lineToAdd, textStart, placeholderStart);
+            placeholders.add(new DepotInfoPlaceholder(convertedOutput.length(),
+                    lineToAdd.substring(placeholderStart + PLACEHOLDER_START.length(), placeholderEnd)));
+            textStart = placeholderEnd + PLACEHOLDER_END.length();
+            placeholderStart = lineToAdd.indexOf(PLACEHOLDER_START, textStart);
+        }
+        convertedOutput.append(lineToAdd, textStart, lineToAdd.length());
     }
 
     private void addPerforceDepotInfoForFiles() {
         if (!depotFilesToCheck.isEmpty()) {
-            String filesListToCheck = "";
+            StringBuilder filesListToCheck = new StringBuilder();
+            String fileVersion = StringUtils.isNotEmpty(lastSubmittedChangelist) ? "@" + lastSubmittedChangelist : "";
             for (String depotFileToCheck : depotFilesToCheck) {
-                if (!filesListToCheck.isEmpty()) {
-                    filesListToCheck += " ";
+                if (filesListToCheck.length() > 0) {
+                    filesListToCheck.append(" ");
                 }
-                String fileVersion = StringUtils.isNotEmpty(lastSubmittedChangelist) ? "@" + lastSubmittedChangelist : "";
-                filesListToCheck += format("%s%s", depotFileToCheck, fileVersion);
+                filesListToCheck.append(depotFileToCheck).append(fileVersion);
             }
-            String depotFilesInfo = perforce.getFileInfo(filesListToCheck);
+            String depotFilesInfo = perforce.getFileInfo(filesListToCheck.toString());
             parsePerforceFilesOutput(depotFilesInfo);
         }
 
@@ -238,6 +329,117 @@ public class GitDiffToPerforceConverter implements DiffConverter {
         return "+++ [!!" + addDiffFile + "!!]\t" + diffDate;
     }
 
+    private class DepotInfoPlaceholder {
+        private final int position;
+        private final String fileName;
+
+        private DepotInfoPlaceholder(int position, String fileName) {
+            this.position = position;
+            this.fileName = fileName;
+        }
+
+        private String depotInfo() {
+            boolean includeVersion = fileName.endsWith(VERSION_SUFFIX);
+            String diffFile = includeVersion ? fileName.substring(0, fileName.length() - VERSION_SUFFIX.length()) : fileName;
+            if (!depotMappings.containsKey(diffFile)) {
+                return PLACEHOLDER_START + fileName + PLACEHOLDER_END;
+            }
+            String depotMapping = depotMappings.get(diffFile);
+            if (depotMapping == null) {
+                throw new FatalException("No depot mapping for file " + diffFile);
+            }
+            return includeVersion ? depotMapping + "#" + depotVersions.get(depotMapping) : depotMapping;
+        }
+    }
+
+    /**
+     * Splits only on new line characters so that carriage returns in diff lines are kept.
+     * Trailing empty lines are skipped, consistent with splitting the diff text.
+     */
+    private static class DiffLineIterator implements Iterator<String> {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder rawLine = new StringBuilder();
+        private int bufferPosition;
+        private int bufferLength;
+        private int emptyLineCount;
+        private String lineAfterEmptyLines;
+        private String nextLine;
+
+        private DiffLineIterator(Reader reader) {
+            this.reader = reader;
+            this.nextLine = readNextLine();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLine != null;
+        }
+
+        @Override
+        public String next() {
+            if (nextLine == null) {
+                throw new NoSuchElementException();
+            }
+            String currentLine = nextLine;
+            nextLine = readNextLine();
+            return currentLine;
+        }
+
+        private String readNextLine() {
+            if (emptyLineCount > 0) {
+                emptyLineCount--;
+                return "";
+            } else if (lineAfterEmptyLines != null) {
+                String line = lineAfterEmptyLines;
+                lineAfterEmptyLines = null;
+                return line;
+            }
+            String line = readRawLine();
+            while (line != null && line.isEmpty()) {
+                emptyLineCount++;
+                line = readRawLine();
+            }
+            if (line == null) {
+                emptyLineCount = 0;
+                return null;
+            } else if (emptyLineCount > 0) {
+                lineAfterEmptyLines = line;
+                emptyLineCount--;
+                return "";
+            }
+            return line;
+        }
+
+        private String readRawLine() {
+            rawLine.setLength(0);
+            while (true) {
+                if (bufferPosition == bufferLength && !fillBuffer()) {
+                    return rawLine.length() > 0 ? rawLine.toString() : null;
+                }
+                int lineStart = bufferPosition;
+                while (bufferPosition < bufferLength && buffer[bufferPosition] != '\n') {
+                    bufferPosition++;
+                }
+                rawLine.append(buffer, lineStart, bufferPosition - lineStart);
+                if (bufferPosition < bufferLength) {
+                    bufferPosition++;
+                    return rawLine.toString();
+                }
+            }
+        }
+
+        private boolean fillBuffer() {
+            try {
+                bufferLength = reader.read(buffer);
+                bufferPosition = 0;
+                return bufferLength > 0;
+            } catch (IOException e) {
+                throw new RuntimeIOException(e);
+            }
+        }
+    }
+
     public static void main(String[] args) {
         String diff = IOUtils.read(new File("/Users/dbiggs/Downloads/rb1030085.patch"));
         PerforceDiffToGitConverter converter = new PerforceDiffToGitConverter(new Git());
@@ -0,0 +1,28 @@
+package com.vmware.utils;
+
+import com.vmware.util.CommandLineUtils;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+public class TestCommandLineUtils {
+
+    @Test
+    public void commandWithoutOutputReturnsWhenBackgroundChildKeepsRunning() {
+        assumeFalse(System.getProperty("os.name").toLowerCase().startsWith("windows"));
+        long startTime = System.currentTimeMillis();
+        int exitCode = CommandLineUtils.executeCommandWithoutOutput("sh -c \"sleep 30 & echo started\"", 20, TimeUnit.SECONDS);
+        assertEquals(0, exitCode);
+        assertTrue("command took too long to return", System.currentTimeMillis() - startTime < 10000);
+    }
+
+    @Test
+    public void commandWithoutOutputReturnsExitCode() {
+        assumeFalse(System.getProperty("os.name").toLowerCase().startsWith("windows"));
+        assertEquals(3, CommandLineUtils.executeCommandWithoutOutput("sh -c \"exit 3\"", 20, TimeUnit.SECONDS));
+    }
+}
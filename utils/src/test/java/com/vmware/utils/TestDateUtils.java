@@ -12,6 +12,7 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
@@ -59,6 +60,18 @@ public class TestDateUtils {
         assertEquals(TimeUnit.DAYS.toMinutes(4), weekendMinutes);
     }
 
+    @Test
+    public void weekendMinutesMatchesCountingEachDay() {
+        Random random = new Random(42);
+        long startOf2014 = fridayDate.getTime() - TimeUnit.DAYS.toMillis(135);
+        for (int i = 0; i < 2000; i++) {
+            Date startDate = new Date(startOf2014 + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(3650)));
+            Date endDate = new Date(startDate.getTime() + (long) ((random.nextDouble() - 0.1) * TimeUnit.DAYS.toMillis(60)));
+            assertEquals(startDate + " -> " + endDate, weekendMinutesByCountingEachDay(startDate, endDate),
+                    DateUtils.weekendMinutesBetween(startDate, endDate));
+        }
+    }
+
     @Test
     public void testStopwatch() throws InterruptedException {
         StopwatchUtils.Stopwatch stopwatch = StopwatchUtils.start();
@@ -66,6 +79,21 @@ public class TestDateUtils {
         assertEquals(1, stopwatch.elapsedTime(TimeUnit.SECONDS));
     }
 
+    private long weekendMinutesByCountingEachDay(Date startDate, Date endDate) {
+        Calendar dayCalendar = Calendar.getInstance();
+        dayCalendar.setTime(startDate);
+        long weekendMinutes = 0;
+        dayCalendar.add(Calendar.DAY_OF_MONTH, 1);
+        while (endDate.after(dayCalendar.getTime())) {
+            int dayOfWeek = dayCalendar.get(Calendar.DAY_OF_WEEK);
+            if (dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY) {
+                weekendMinutes += TimeUnit.DAYS.toMinutes(1);
+            }
+            dayCalendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return weekendMinutes;
+    }
+
     @Test
     public void parseDates() throws ParseException {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
@@ -0,0 +1,86 @@
+package com.vmware.utils;
+
+import com.vmware.util.scm.Perforce;
+import com.vmware.util.scm.diff.GitDiffToPerforceConverter;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TestGitDiffToPerforceConverter {
+
+    private static final String DATE_PATTERN = "\\d{4}-\\d\\d-\\d\\d \\d\\d:\\d\\d:\\d\\d";
+
+    private final Perforce perforce = new Perforce(null, System.getProperty("user.dir")) {
+        @Override
+        public String getFileInfo(String filePath) {
+            StringBuilder fileInfo = new StringBuilder();
+            for (String file : filePath.split(" ")) {
+                fileInfo.append("//depot/main/").append(file.replace("@123", "")).append("#7 - edit change 5 (text)\n");
+            }
+            return fileInfo.toString().trim();
+        }
+
+        @Override
+        public Map<String, String> getWhereDepotFileInfoForRelativePaths(List<String> filePaths) {
+            Map<String, String> whereInfo = new LinkedHashMap<>();
+            filePaths.forEach(filePath -> whereInfo.put(filePath, "//depot/main/" + filePath));
+            return whereInfo;
+        }
+    };
+
+    @Test
+    public void convertModifiedAndAddedFiles() {
+        String gitDiff = "diff --git a/src/Main.java b/src/Main.java\n"
+                + "index 1111111..2222222 100644\n"
+                + "--- a/src/Main.java\n"
+                + "+++ b/src/Main.java\n"
+                + "@@ -1,2 +1,2 @@\n"
+                + "-old\r\n"
+                + "+new\r\n"
+                + "diff --git a/src/New.java b/src/New.java\n"
+                + "new file mode 100644\n"
+                + "--- /dev/null\n"
+                + "+++ b/src/New.java\n"
+                + "@@ -0,0 +1 @@\n"
+                + "+added\n\n\n";
+
+        String perforceDiff = new GitDiffToPerforceConverter(perforce, "123").convert(gitDiff);
+
+        assertEquals("--- //depot/main/src/Main.java\t//depot/main/src/Main.java#7\n"
+                + "+++ //depot/main/src/Main.java\tDATE\n"
+                + "@@ -1,2 +1,2 @@\n"
+                + "-old\r\n"
+                + "+new\r\n"
+                + "--- //depot/main/src/New.java\t//depot/main/src/New.java#0\n"
+                + "+++ //depot/main/src/New.java\tDATE\n"
+                + "@@ -0,0 +1 @@\n"
+                + "+added", perforceDiff.replaceAll(DATE_PATTERN, "DATE"));
+    }
+
+    @Test
+    public void convertRenamedFile() {
+        String gitDiff = "diff --git a/src/A.java b/src/B.java\n"
+                + "similarity index 100%\n"
+                + "rename from src/A.java\n"
+                + "rename to src/B.java\n";
+
+        GitDiffToPerforceConverter converter = new GitDiffToPerforceConverter(perforce, "123");
+        byte[] perforceDiff = converter.convertAsBytes(new StringReader(gitDiff));
+
+        assertEquals("==== //depot/main/src/A.java#7 ==MV== //depot/main/src/B.java ====\n",
+                new String(perforceDiff, StandardCharsets.UTF_8));
+        assertEquals(1, converter.getFileChanges().size());
+    }
+
+    @Test
+    public void emptyDiffIsConvertedToNullBytes() {
+        assertNull(new GitDiffToPerforceConverter(perforce, "123").convertAsBytes(new StringReader("")));
+    }
+}
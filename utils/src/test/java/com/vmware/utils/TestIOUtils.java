@@ -0,0 +1,173 @@
+package com.vmware.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.vmware.util.IOUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestIOUtils {
+
+    @Test
+    public void readPassesEachLineToConsumer() {
+        List<String> lines = new ArrayList<>();
+        String output = IOUtils.read(new StringReader("first\r\nsecond\n\nlast"), true, lines::add, -1);
+        assertEquals("first\r\nsecond\n\nlast", output);
+        assertEquals(Arrays.asList("first", "second", "", "last"), lines);
+    }
+
+    @Test
+    public void readSplitsLinesAcrossChunks() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("line ").append(i).append("\n");
+        }
+        List<String> lines = new ArrayList<>();
+        String output = IOUtils.read(new StringReader(text.toString()), true, lines::add, -1);
+        assertEquals(text.substring(0, text.length() - 1), output);
+        assertEquals(2000, lines.size());
+        assertEquals("line 1999", lines.get(1999));
+    }
+
+    @Test
+    public void readKeepsEndOfOutputWhenCaptureIsBounded() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append(i % 10);
+        }
+        String output = IOUtils.read(new StringReader(text.toString()), true, null, 15);
+        assertEquals(text.substring(text.length() - 15), output);
+        assertEquals("", IOUtils.read(new StringReader(text.toString()), true, null, 0));
+    }
+
+    @Test
+    public void tailOnlyRequestsEndOfFileWhenRangesAreSupported() throws IOException {
+        byte[] text = numberedLines(20000).getBytes(StandardCharsets.UTF_8);
+        AtomicInteger bytesSent = new AtomicInteger();
+        HttpServer server = startServer(exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            int start = text.length - Integer.parseInt(range.substring("bytes=-".length()));
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + (text.length - 1) + "/" + text.length);
+            sendResponse(exchange, 206, Arrays.copyOfRange(text, start, text.length));
+            bytesSent.addAndGet(text.length - start);
+        });
+        try {
+            String tail = IOUtils.tail(urlFor(server), 3);
+            assertEquals("line 19997\nline 19998\nline 19999", tail);
+            assertTrue(bytesSent.get() < text.length / 4);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void tailUsesStartOffsetForProgressiveText() throws IOException {
+        byte[] text = numberedLines(20000).getBytes(StandardCharsets.UTF_8);
+        AtomicInteger bytesSent = new AtomicInteger();
+        HttpServer server = startServer(exchange -> {
+            exchange.getResponseHeaders().add("X-Text-Size", String.valueOf(text.length));
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+            String query = exchange.getRequestURI().getQuery();
+            int start = query != null ? Integer.parseInt(query.substring("start=".length())) : 0;
+            sendResponse(exchange, 200, Arrays.copyOfRange(text, start, text.length));
+            bytesSent.addAndGet(text.length - start);
+        });
+        try {
+            assertEquals("line 19998\nline 19999", IOUtils.tail(urlFor(server) + "logText/progressiveText", 2));
+            assertTrue(bytesSent.get() < text.length / 4);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void downloadResumesPartialFileWhenContentIsUnchanged() throws IOException {
+        byte[] content = numberedLines(1000).getBytes(StandardCharsets.UTF_8);
+        File file = File.createTempFile("download", ".txt");
+        file.delete();
+        Files.write(new File(file.getPath() + ".part").toPath(), Arrays.copyOfRange(content, 0, 100));
+        Files.write(new File(file.getPath() + ".part.info").toPath(), ("\"v1\"\n" + content.length).getBytes(StandardCharsets.UTF_8));
+        HttpServer server = startServer(exchange -> {
+            assertEquals("bytes=100-", exchange.getRequestHeaders().getFirst("Range"));
+            assertEquals("\"v1\"", exchange.getRequestHeaders().getFirst("If-Range"));
+            exchange.getResponseHeaders().add("Content-Range", "bytes 100-" + (content.length - 1) + "/" + content.length);
+            sendResponse(exchange, 206, Arrays.copyOfRange(content, 100, content.length));
+        });
+        try {
+            assertEquals(content.length, IOUtils.downloadToFile(urlFor(server), file));
+            assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+            assertFalse(new File(file.getPath() + ".part").exists());
+            assertFalse(new File(file.getPath() + ".part.info").exists());
+        } finally {
+            server.stop(0);
+            file.delete();
+        }
+    }
+
+    @Test
+    public void downloadReplacesExistingFileAndChangedPartialFile() throws IOException {
+        byte[] content = numberedLines(1000).getBytes(StandardCharsets.UTF_8);
+        File file = File.createTempFile("download", ".txt");
+        Files.write(file.toPath(), "previous build".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(file.getPath() + ".part").toPath(), "stale partial content".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(file.getPath() + ".part.info").toPath(), ("\"v1\"\n" + 5000).getBytes(StandardCharsets.UTF_8));
+        HttpServer server = startServer(exchange -> {
+            exchange.getResponseHeaders().add("ETag", "\"v2\"");
+            sendResponse(exchange, 200, content);
+        });
+        try {
+            assertEquals(content.length, IOUtils.downloadToFile(urlFor(server), file));
+            assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        } finally {
+            server.stop(0);
+            file.delete();
+        }
+    }
+
+    private String numberedLines(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append("line ").append(i).append("\n");
+        }
+        return text.toString();
+    }
+
+    private HttpServer startServer(HttpHandler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", handler);
+        server.start();
+        return server;
+    }
+
+    private String urlFor(HttpServer server) {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    private void sendResponse(HttpExchange exchange, int responseCode, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(responseCode, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+}
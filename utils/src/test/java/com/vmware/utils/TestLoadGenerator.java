@@ -0,0 +1,59 @@
+package com.vmware.utils;
+
+import com.vmware.util.LoadGenerator;
+import com.vmware.util.ThreadUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestLoadGenerator {
+
+    @Test
+    public void requestsAreSelectedByWeight() {
+        AtomicInteger createCount = new AtomicInteger();
+        AtomicInteger deleteCount = new AtomicInteger();
+        LoadGenerator.LoadResults results = new LoadGenerator(4, 0, 0, 0, 40)
+                .addRequest("create", 3, requestNumber -> String.valueOf(createCount.incrementAndGet()))
+                .addRequest("delete", 1, requestNumber -> String.valueOf(deleteCount.incrementAndGet()))
+                .run();
+        assertEquals(40, results.requestCount());
+        assertEquals(30, createCount.get());
+        assertEquals(10, deleteCount.get());
+    }
+
+    @Test
+    public void requestsAreStartedAtTheRequestRate() {
+        List<Long> startTimes = Collections.synchronizedList(new ArrayList<>());
+        new LoadGenerator(2, 20, 0, 0, 10).addRequest("request", 1, requestNumber -> {
+            startTimes.add(System.nanoTime());
+            return "OK";
+        }).run();
+        assertEquals(10, startTimes.size());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(Collections.max(startTimes) - Collections.min(startTimes));
+        assertTrue("requests were started over " + elapsedMillis + " milliseconds", elapsedMillis >= 400 && elapsedMillis < 2000);
+    }
+
+    @Test
+    public void percentilesUseNearestRank() {
+        Map<Long, Long> sleepTimes = new ConcurrentHashMap<>();
+        sleepTimes.put(10L, 300L);
+        LoadGenerator.LoadResults results = new LoadGenerator(1, 0, 0, 0, 10).addRequest("request", 1, requestNumber -> {
+            ThreadUtils.sleep(sleepTimes.getOrDefault(requestNumber, 0L), TimeUnit.MILLISECONDS);
+            return "OK";
+        }).run();
+        assertEquals(10, results.requestCount());
+        assertTrue(results.latencyPercentileMillis(50) < 100);
+        assertTrue(results.latencyPercentileMillis(90) < 100);
+        assertTrue(results.latencyPercentileMillis(99) >= 300);
+        assertTrue(results.latencyPercentileMillis(100) >= 300);
+    }
+}